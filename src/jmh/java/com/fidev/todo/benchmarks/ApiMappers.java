@@ -0,0 +1,39 @@
+package com.fidev.todo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fidev.todo.config.SerializationConfig;
+import com.fidev.todo.mappers.TaskMapper;
+import com.fidev.todo.views.TaskDetailsDTO;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Object mappers configured as the ones behind the API message converters, without starting the application
+ */
+final class ApiMappers {
+
+    private ApiMappers() {
+    }
+
+    /**
+     * Mapper of the JSON converter: Spring Boot defaults plus the application customizers
+     */
+    static ObjectMapper json(boolean epochDates) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+        new SerializationConfig(new TaskMapper(), epochDates).epochDatesCustomizer().customize(builder);
+        return builder.build();
+    }
+
+    static ObjectMapper cbor() {
+        return Jackson2ObjectMapperBuilder.cbor().build()
+            .addMixIn(TaskDetailsDTO.class, SerializationConfig.EpochDates.class);
+    }
+
+    static ObjectMapper smile() {
+        return Jackson2ObjectMapperBuilder.smile().build()
+            .addMixIn(TaskDetailsDTO.class, SerializationConfig.EpochDates.class);
+    }
+}
@@ -0,0 +1,38 @@
+package com.fidev.todo.benchmarks;
+
+import java.util.Arrays;
+
+import com.fidev.todo.TodoApplication;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Application context on embedded H2 (test profile) and a random port, without list cache, concurrency limiter,
+ * SQL logs or SQL profiler
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param profiles Profiles activated before test profile, e.g. reactive
+     */
+    static ConfigurableApplicationContext start(String... profiles) {
+        String[] active = Arrays.copyOf(profiles, profiles.length + 1);
+        active[profiles.length] = "test"; // Last so its H2 URLs win
+
+        return new SpringApplicationBuilder(TodoApplication.class)
+            .profiles(active)
+            .run( // Arguments take precedence over application properties
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.fidev.todo=ERROR",
+                "--todo.cache.task-list.enabled=false",
+                "--todo.limiter.enabled=false",
+                "--todo.sql-profiler.enabled=false" // Enabled by test profile, off in production
+            );
+    }
+}
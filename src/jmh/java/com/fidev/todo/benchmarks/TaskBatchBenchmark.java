@@ -0,0 +1,82 @@
+package com.fidev.todo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.service.TaskService;
+import com.fidev.todo.views.TaskBatchResultDTO;
+import com.fidev.todo.views.TaskDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Tasks saved per second with one transaction per task vs batch endpoint path
+ */
+
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TaskBatchBenchmark {
+
+    private static final int TASKS = 100;
+
+    private ConfigurableApplicationContext context;
+    private TaskService service;
+    private TaskRepository repository;
+    private List<TaskDTO> batch;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start();
+        service = context.getBean(TaskService.class);
+        repository = context.getBean(TaskRepository.class);
+        batch = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            batch.add(new TaskDTO("Tarea " + i, 1 + i));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clean() {
+        repository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public int saveOneByOne() throws TodoException {
+        for (TaskDTO task : batch) {
+            service.saveNewTask(new TaskDTO(task.getDesc(), task.getDuration()));
+        }
+        return TASKS;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public List<TaskBatchResultDTO> saveBatch() throws TodoException {
+        return service.saveNewTasks(batch);
+    }
+}
@@ -0,0 +1,102 @@
+package com.fidev.todo.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fidev.todo.mappers.TaskMapper;
+import com.fidev.todo.util.TaskIds;
+import com.fidev.todo.views.TaskDetailsDTO;
+import com.fidev.todo.views.proto.TaskProto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of a task list in each format served by the API, plain and gzipped.
+ * Payload sizes are printed on setup
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TaskFormatBenchmark {
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"1000"})
+    private int size;
+
+    private final TaskMapper mapper = new TaskMapper();
+    private ObjectWriter writer;
+    private List<TaskDetailsDTO> tasks;
+
+    @Setup
+    public void setup() throws IOException {
+        switch (format) {
+            case "json":
+                writer = ApiMappers.json(false).writerFor(List.class);
+                break;
+            case "cbor":
+                writer = ApiMappers.cbor().writerFor(List.class);
+                break;
+            case "smile":
+                writer = ApiMappers.smile().writerFor(List.class);
+                break;
+            default:
+                writer = null;
+        }
+
+        tasks = new ArrayList<>(size);
+        Date now = new Date();
+        for (int i = 0; i < size; i++) {
+            tasks.add(i % 2 == 0
+                ? new TaskDetailsDTO(TaskIds.next().toString(), "Tarea " + i, i, null, null, 0, "PENDING", 0)
+                : new TaskDetailsDTO(TaskIds.next().toString(), "Tarea " + i, i, now.toString(), now.getTime(), i,
+                    "COMPLETED", 1));
+        }
+        System.out.printf("%n%s%s payload of %d tasks: %d bytes%n", format, gzip ? "+gzip" : "", size, serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        byte[] payload = (writer == null) ? encodeProtobuf() : writer.writeValueAsBytes(tasks);
+        if (!gzip) {
+            return payload;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(payload);
+        }
+        return compressed.toByteArray();
+    }
+
+    private byte[] encodeProtobuf() {
+        TaskProto.TaskDetailsList.Builder list = TaskProto.TaskDetailsList.newBuilder();
+        for (TaskDetailsDTO task : tasks) {
+            list.addTasks(mapper.mapDetailsToProto(task));
+        }
+        return list.build().toByteArray();
+    }
+}
@@ -0,0 +1,52 @@
+package com.fidev.todo.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.fidev.todo.mappers.TaskMapper;
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.util.TaskIds;
+import com.fidev.todo.views.TaskDetailsDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TaskMapperBenchmark {
+
+    private final TaskMapper mapper = new TaskMapper();
+    private Task pending;
+    private Task completed;
+
+    @Setup
+    public void setup() {
+        pending = new Task("Hacer mi tarea", 120);
+        pending.setId(TaskIds.next());
+        completed = new Task("Pasear a mi perro", 60, new Date(), 71, TaskStatus.COMPLETED);
+        completed.setId(TaskIds.next());
+    }
+
+    @Benchmark
+    public TaskDetailsDTO mapPendingTask() {
+        return mapper.mapTaskToDetails(pending);
+    }
+
+    @Benchmark
+    public TaskDetailsDTO mapCompletedTask() { // Includes Date.toString
+        return mapper.mapTaskToDetails(completed);
+    }
+}
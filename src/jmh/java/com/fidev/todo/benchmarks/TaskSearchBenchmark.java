@@ -0,0 +1,80 @@
+package com.fidev.todo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.service.TaskService;
+import com.fidev.todo.views.TaskBatchResultDTO;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskDetailsDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Task list query on embedded H2 for each sort key of AppConstants.PARAMS, list cache disabled
+ */
+
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TaskSearchBenchmark {
+
+    @Param({"desc", "date", "duration", "delay", "status"})
+    private String orderBy;
+
+    @Param({"1000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TaskService service;
+
+    @Setup
+    public void setup() throws TodoException {
+        context = BenchmarkContext.start();
+        service = context.getBean(TaskService.class);
+
+        List<TaskDTO> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new TaskDTO("Tarea " + i, 1 + i % 240));
+            if (batch.size() == 500 || i == rows - 1) {
+                List<TaskBatchResultDTO> saved = service.saveNewTasks(batch);
+                for (int j = 0; j < saved.size(); j += 3) { // A third of tasks completed
+                    service.markTaskByIDAsCompleted(saved.get(j).getTask().getId(), (float) j % 60);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TaskDetailsDTO> searchAllTasks() throws TodoException {
+        return service.searchTaskList(null, orderBy, "ASC");
+    }
+
+    @Benchmark
+    public List<TaskDetailsDTO> searchPendingTasks() throws TodoException {
+        return service.searchTaskList("PENDING", orderBy, "DESC");
+    }
+}
@@ -0,0 +1,99 @@
+package com.fidev.todo.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * HTTP requests per second served by servlet + JPA and reactive + R2DBC stacks on embedded H2,
+ * with many concurrent clients and list cache disabled. Reactive stack is only built with the reactive Maven profile.
+ */
+
+@Fork(1)
+@Threads(32)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TaskStackLoadBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private List<String> ids;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        context = stack.equals("reactive") ? BenchmarkContext.start("reactive") : BenchmarkContext.start();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api-v1/task";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        ObjectMapper mapper = new ObjectMapper();
+        ids = new ArrayList<>();
+        List<TaskDTO> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new TaskDTO("Tarea " + i, 1 + i % 240));
+            if (batch.size() == AppConstants.MAX_BATCH_SIZE || i == ROWS - 1) {
+                HttpRequest save = HttpRequest.newBuilder(URI.create(baseUrl + "/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(batch)))
+                    .build();
+                JsonNode saved = mapper.readTree(client.send(save, HttpResponse.BodyHandlers.ofString()).body());
+                saved.forEach(result -> ids.add(result.get("task").get("id").asText()));
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark // First page of 50 tasks sorted by description
+    public int searchTaskPage() throws IOException, InterruptedException {
+        return send(baseUrl + "?orderBy=desc&limit=50");
+    }
+
+    @Benchmark
+    public int searchTaskByID() throws IOException, InterruptedException {
+        return send(baseUrl + "/" + ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    private int send(String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+}
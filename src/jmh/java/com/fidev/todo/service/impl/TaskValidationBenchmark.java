@@ -0,0 +1,54 @@
+package com.fidev.todo.service.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.views.TaskDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TaskValidationBenchmark {
+
+    private final TaskDTO valid = new TaskDTO("  Hacer mi tarea de física  ", 120);
+    private final TaskDTO invalid = new TaskDTO("Hacer mi tarea", 0);
+
+    @Setup
+    public void setup() {
+        ((Logger) LoggerFactory.getLogger(TaskRequests.class)).setLevel(Level.OFF); // Only validation is timed
+    }
+
+    @Benchmark
+    public TaskDTO validTask() throws TodoException {
+        TaskRequests.validateTask(valid);
+        return valid;
+    }
+
+    @Benchmark
+    public TodoException invalidTask() { // Error path builds an exception with stack trace
+        try {
+            TaskRequests.validateTask(invalid);
+            return null;
+        } catch (TodoException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.fidev.todo.load;
+
+import com.fidev.todo.TodoApplication;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Application context on embedded H2 (test profile) and a random port. Settings are those of production,
+ * except for SQL and request logs, which would flood the load test report
+ */
+final class LoadContext {
+
+    private LoadContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(TodoApplication.class)
+            .profiles("test")
+            .run( // Arguments take precedence over application properties
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.fidev.todo=WARN"
+            );
+    }
+}
@@ -0,0 +1,80 @@
+package com.fidev.todo.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Load test settings, read from load.* system properties
+ */
+@Getter
+final class LoadOptions {
+
+    private final double rate; // Requests per second
+    private final Duration warmup;
+    private final Duration duration;
+    private final int rows;
+    private final Map<Operation, Integer> mix; // Weight of each operation
+    private final String url; // Running application, booted on embedded H2 if empty
+    private final int maxInFlight;
+    private final String result;
+    private final String baseline;
+
+    private LoadOptions(double rate, Duration warmup, Duration duration, int rows, Map<Operation, Integer> mix,
+        String url, int maxInFlight, String result, String baseline) {
+        this.rate = rate;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.rows = rows;
+        this.mix = mix;
+        this.url = url;
+        this.maxInFlight = maxInFlight;
+        this.result = result;
+        this.baseline = baseline;
+    }
+
+    static LoadOptions fromSystemProperties() {
+        return new LoadOptions(
+            Double.parseDouble(System.getProperty("load.rate", "20")),
+            Duration.ofSeconds(Long.parseLong(System.getProperty("load.warmup", "10"))),
+            Duration.ofSeconds(Long.parseLong(System.getProperty("load.duration", "30"))),
+            Integer.parseInt(System.getProperty("load.rows", "1000")),
+            parseMix(System.getProperty("load.mix", "create=10,list=50,update=20,complete=10,delete=10")),
+            System.getProperty("load.url", ""),
+            Integer.parseInt(System.getProperty("load.max-in-flight", "1000")),
+            System.getProperty("load.result", "target/load-result.json"),
+            System.getProperty("load.baseline", "")
+        );
+    }
+
+    /**
+     * Settings that make two results comparable
+     * @return Rate, durations, rows and mix
+     */
+    Map<String, Object> describe() {
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("rate", rate);
+        options.put("warmup", warmup.getSeconds());
+        options.put("duration", duration.getSeconds());
+        options.put("rows", rows);
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        mix.forEach((operation, weight) -> weights.put(operation.name().toLowerCase(), weight));
+        options.put("mix", weights);
+        return options;
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + entry);
+            }
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,135 @@
+package com.fidev.todo.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+/**
+ * Throughput and latency percentiles of each endpoint. Written as JSON, to compare with a saved baseline,
+ * and as an HdrHistogram log (.hlog next to the JSON file) with one histogram per endpoint, tagged with its name
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p95", "p99", "p999"};
+
+    private final LoadOptions options;
+    private final Map<String, Histogram> histograms;
+    private final Map<String, Long> errors;
+    private final long dropped;
+    private final long seconds;
+
+    LoadReport(LoadOptions options, Map<String, Histogram> histograms, Map<String, Long> errors, long dropped,
+        long seconds) {
+        this.options = options;
+        this.histograms = histograms;
+        this.errors = errors;
+        this.dropped = dropped;
+        this.seconds = seconds;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n%-24s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+            "Endpoint", "Count", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "Max ms");
+        summary().forEach((endpoint, values) -> out.printf("%-24s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+            endpoint, values.get("count"), values.get("errors"), values.get("throughput"), values.get("p50"),
+            values.get("p95"), values.get("p99"), values.get("p999"), values.get("max")));
+        if (dropped > 0) {
+            out.printf("%d requests were not sent, %d were already in flight%n", dropped, options.getMaxInFlight());
+        }
+    }
+
+    /**
+     * Write JSON summary and histogram log
+     * @param json Path of JSON summary
+     * @throws IOException If a file can't be written
+     */
+    void write(Path json) throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("options", options.describe());
+        result.put("dropped", dropped);
+        result.put("endpoints", summary());
+        if (json.getParent() != null) {
+            Files.createDirectories(json.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(json.toFile(), result);
+
+        Path log = json.resolveSibling(json.getFileName().toString().replaceFirst("\\.json$", "") + ".hlog");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(log))) {
+            HistogramLogWriter writer = new HistogramLogWriter(out);
+            writer.outputLogFormatVersion();
+            writer.outputLegend();
+            histograms.forEach((endpoint, histogram) -> {
+                histogram.setTag(endpoint);
+                writer.outputIntervalHistogram(histogram);
+            });
+        }
+        System.out.printf("Results written to %s and %s%n", json, log);
+    }
+
+    /**
+     * Print change of throughput and percentiles against a previous result
+     * @param baseline JSON summary of previous run
+     * @param out Where to print
+     */
+    void compare(JsonNode baseline, PrintStream out) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        // Read back as written, numbers of a tree built from objects keep their Java types
+        JsonNode current = mapper.readTree(mapper.writeValueAsString(options.describe()));
+        if (!current.equals(baseline.get("options"))) {
+            out.printf("%nBaseline was run with other options: %s%n", baseline.get("options"));
+        }
+
+        out.printf("%n%-24s %18s %18s %18s %18s%n", "Change vs baseline", "Req/s", "p50", "p99", "p99.9");
+        summary().forEach((endpoint, values) -> {
+            JsonNode previous = baseline.path("endpoints").path(endpoint);
+            if (previous.isMissingNode()) {
+                out.printf("%-24s %18s%n", endpoint, "not in baseline");
+                return;
+            }
+            out.printf("%-24s %18s %18s %18s %18s%n", endpoint,
+                change(values.get("throughput"), previous.get("throughput")),
+                change(values.get("p50"), previous.get("p50")),
+                change(values.get("p99"), previous.get("p99")),
+                change(values.get("p999"), previous.get("p999")));
+        });
+    }
+
+    private Map<String, Map<String, Number>> summary() {
+        Map<String, Map<String, Number>> summary = new LinkedHashMap<>();
+        histograms.forEach((endpoint, histogram) -> {
+            Map<String, Number> values = new LinkedHashMap<>();
+            values.put("count", histogram.getTotalCount());
+            values.put("errors", errors.getOrDefault(endpoint, 0L));
+            values.put("throughput", (double) histogram.getTotalCount() / seconds);
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                values.put(PERCENTILE_NAMES[i], millis(histogram.getValueAtPercentile(PERCENTILES[i])));
+            }
+            values.put("max", millis(histogram.getMaxValue()));
+            summary.put(endpoint, values);
+        });
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String change(Number current, JsonNode previous) {
+        double before = previous.asDouble();
+        if (before == 0) {
+            return String.format("%.2f", current.doubleValue());
+        }
+        return String.format("%.2f (%+.1f%%)", current.doubleValue(), (current.doubleValue() - before) * 100 / before);
+    }
+}
@@ -0,0 +1,12 @@
+package com.fidev.todo.load;
+
+/**
+ * Requests sent by the load test, chosen by weight of load.mix
+ */
+enum Operation {
+    CREATE, // POST /task
+    LIST, // GET /task, with each orderBy and status
+    UPDATE, // PUT /task/{id}
+    COMPLETE, // PUT /task/{id}/status
+    DELETE // DELETE /task/{id}/status
+}
@@ -0,0 +1,248 @@
+package com.fidev.todo.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Time to first request of the application in each startup mode: default, fast-startup profile, AppCDS archive
+ * and both, on an H2 file database. Each mode starts load.startup-runs times in a new JVM, the median is reported.
+ * A native image built by the native Maven profile is measured too when load.native-image is set, it needs DB_URL,
+ * DB_USER and DB_PASS of a PostgreSQL database.
+ * <p>
+ * Run with mvn -P loadtest verify -DskipTests -Dload.main=com.fidev.todo.load.StartupTimer
+ */
+public final class StartupTimer {
+
+    private static final String MAIN_CLASS = "com.fidev.todo.TodoApplication";
+    private static final String FAST_STARTUP = "fast-startup";
+    private static final String CDS = "cds";
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+    private static final long POLL_MILLIS = 5;
+
+    private final Path work = Paths.get("target", "startup");
+    private final int runs = Integer.parseInt(System.getProperty("load.startup-runs", "3"));
+    private final List<String> modes = Arrays.asList(
+        System.getProperty("load.startup-modes", "default,fast-startup,cds,cds+fast-startup").split(","));
+    private final String nativeImage = System.getProperty("load.native-image", "");
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(1)).build();
+    private String classpath;
+    private String database;
+
+    private StartupTimer() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        new StartupTimer().run();
+    }
+
+    private void run() throws Exception {
+        Files.createDirectories(work);
+        classpath = classpath();
+        database = "jdbc:h2:file:" + work.toAbsolutePath().resolve("db").resolve("todo");
+        start(jvm(Collections.emptyList(), FAST_STARTUP), "prepare"); // Schema created and its checksum saved
+
+        Map<String, List<Timing>> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            List<String> flags = new ArrayList<>();
+            String profile = mode.contains(FAST_STARTUP) ? FAST_STARTUP : null;
+            if (mode.contains(CDS)) {
+                flags.add("-XX:SharedArchiveFile=" + train(mode, profile));
+            }
+            List<Timing> timings = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                timings.add(start(jvm(flags, profile), mode + "-" + i));
+            }
+            results.put(mode, timings);
+        }
+        if (!nativeImage.isEmpty()) {
+            List<Timing> timings = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                timings.add(start(nativeCommand(), "native-" + i));
+            }
+            results.put("native", timings);
+        }
+
+        System.out.printf("%-20s %10s %14s %15s%n", "mode", "ready_ms", "first_req_ms", "second_req_ms");
+        results.forEach((mode, timings) -> System.out.printf("%-20s %10.0f %14.1f %15.1f%n", mode,
+            median(timings, Timing::getReadyMillis), median(timings, Timing::getFirstMillis),
+            median(timings, Timing::getSecondMillis)));
+    }
+
+    /**
+     * Training run of a CDS mode: the JVM exits once the application is ready and writes the classes it loaded
+     */
+    private Path train(String mode, String profile) throws Exception {
+        Path archive = work.toAbsolutePath().resolve(mode.replace('+', '-') + ".jsa");
+        Files.deleteIfExists(archive);
+        List<String> command = jvm(List.of("-XX:ArchiveClassesAtExit=" + archive), profile);
+        command.add("--todo.startup.exit-on-ready=true");
+        Process process = launch(command, work.resolve(mode.replace('+', '-') + "-training.log"));
+        if (!process.waitFor(READY_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS) || !Files.exists(archive)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("CDS training run failed, see " + work.resolve(mode + "-training.log"));
+        }
+        return archive;
+    }
+
+    /**
+     * Start the application and send requests from launch until one succeeds
+     */
+    private Timing start(List<String> command, String name) throws Exception {
+        int port = freePort();
+        command.add("--server.port=" + port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api-v1/task"))
+            .timeout(READY_TIMEOUT).GET().build();
+
+        long launched = System.nanoTime();
+        Process process = launch(command, work.resolve(name + ".log"));
+        try {
+            long deadline = launched + READY_TIMEOUT.toNanos();
+            while (true) {
+                if (!process.isAlive() || System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Application did not start, see " + work.resolve(name + ".log"));
+                }
+                long sent = System.nanoTime();
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2) {
+                        long ready = System.nanoTime();
+                        long second = System.nanoTime();
+                        client.send(request, HttpResponse.BodyHandlers.discarding());
+                        Timing timing = new Timing(ready - launched, ready - sent, System.nanoTime() - second);
+                        System.out.printf("%s: ready in %d ms%n", name, timing.getReadyMillis());
+                        return timing;
+                    }
+                } catch (IOException e) { // Not listening yet
+                    TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+                }
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private List<String> jvm(List<String> flags, String profile) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(flags);
+        command.addAll(List.of("-cp", classpath, MAIN_CLASS));
+        command.add("--spring.profiles.active=test" + (profile == null ? "" : "," + profile));
+        command.add("--spring.datasource.url=" + database);
+        command.add("--spring.jpa.hibernate.ddl-auto=none"); // Tables are created by schema.sql
+        command.add("--spring.jpa.show-sql=false");
+        command.add("--logging.level.root=WARN");
+        return command;
+    }
+
+    private List<String> nativeCommand() {
+        return new ArrayList<>(List.of(nativeImage, "--spring.profiles.active=" + FAST_STARTUP,
+            "--logging.level.root=WARN"));
+    }
+
+    private static Process launch(List<String> command, Path log) throws IOException {
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+    }
+
+    /**
+     * Classes are packed in a jar: CDS archives can't be created with non-empty directories on the class path.
+     * Directory entries are kept, component scanning lists them
+     */
+    private String classpath() throws IOException {
+        Path jar = work.resolve("app.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            Set<String> names = new HashSet<>();
+            for (Path classes : List.of(Paths.get("target", "classes"), Paths.get("target", "test-classes"))) {
+                pack(classes, out, names);
+            }
+        }
+        return Stream.concat(Stream.of(jar.toAbsolutePath().toString()),
+            Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> entry.endsWith(".jar")))
+            .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static void pack(Path root, JarOutputStream out, Set<String> names) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(file -> !file.equals(root)).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = root.relativize(file).toString().replace(File.separatorChar, '/');
+            if (Files.isDirectory(file)) {
+                if (!names.add(name)) { // Package of both class and test class directories
+                    continue;
+                }
+                out.putNextEntry(new JarEntry(name + "/"));
+            } else {
+                out.putNextEntry(new JarEntry(name));
+                Files.copy(file, (OutputStream) out);
+            }
+            out.closeEntry();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static <T extends Number> double median(List<Timing> timings, Function<Timing, T> value) {
+        double[] values = timings.stream().mapToDouble(timing -> value.apply(timing).doubleValue()).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    /**
+     * Durations of one start: launch to first successful response, that response and the next one
+     */
+    private static final class Timing {
+        private final long readyNanos;
+        private final long firstNanos;
+        private final long secondNanos;
+
+        Timing(long readyNanos, long firstNanos, long secondNanos) {
+            this.readyNanos = readyNanos;
+            this.firstNanos = firstNanos;
+            this.secondNanos = secondNanos;
+        }
+
+        long getReadyMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(readyNanos);
+        }
+
+        double getFirstMillis() {
+            return firstNanos / 1e6;
+        }
+
+        double getSecondMillis() {
+            return secondNanos / 1e6;
+        }
+    }
+}
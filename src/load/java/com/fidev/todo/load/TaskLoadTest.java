@@ -0,0 +1,264 @@
+package com.fidev.todo.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDTO;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Open model load test of the task API: requests arrive at load.rate per second as a Poisson process,
+ * whether earlier requests completed or not. Latency is measured from the time each request was due,
+ * so a server that falls behind is not hidden by a client waiting for it.
+ * <p>
+ * Run with mvn -P loadtest verify -DskipTests, see src/load/README.md
+ */
+public final class TaskLoadTest {
+
+    private static final String[] STATUSES = {null, AppConstants.PENDING_STATUS, AppConstants.COMPLETED_STATUS};
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final LoadOptions options;
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<String> orderBy = new ArrayList<>(new TreeMap<>(AppConstants.PARAMS).keySet());
+    private final List<Operation> weighted = new ArrayList<>(); // Each operation once per unit of weight
+    private final TaskPool pending = new TaskPool(); // Tasks that can be updated, completed or deleted
+    private final Map<String, Recorder> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long measureFrom;
+
+    private TaskLoadTest(LoadOptions options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl + "/task";
+        options.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no operation with weight");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.fromSystemProperties();
+        ConfigurableApplicationContext context = options.getUrl().isEmpty() ? LoadContext.start() : null;
+        try {
+            String url = (context == null)
+                ? options.getUrl()
+                : "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api-v1";
+            new TaskLoadTest(options, url).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private void run() throws Exception {
+        seed();
+        System.out.printf("Sending %.0f requests/s for %d s of warmup and %d s of measurement to %s%n",
+            options.getRate(), options.getWarmup().getSeconds(), options.getDuration().getSeconds(), baseUrl);
+
+        long start = System.nanoTime();
+        measureFrom = start + options.getWarmup().toNanos();
+        long end = measureFrom + options.getDuration().toNanos();
+        double meanGap = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long due = start;
+        while (true) {
+            due += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGap); // Exponential gaps
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(weighted.get(ThreadLocalRandom.current().nextInt(weighted.size())), due);
+        }
+
+        long drainUntil = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        Map<String, Histogram> histograms = new TreeMap<>();
+        latencies.forEach((endpoint, recorder) -> histograms.put(endpoint, recorder.getIntervalHistogram()));
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((endpoint, count) -> errorCounts.put(endpoint, count.sum()));
+        LoadReport report = new LoadReport(options, histograms, errorCounts, dropped.sum(),
+            options.getDuration().getSeconds());
+
+        report.print(System.out);
+        report.write(Path.of(options.getResult()));
+        if (!options.getBaseline().isEmpty()) {
+            report.compare(mapper.readTree(Files.readAllBytes(Path.of(options.getBaseline()))), System.out);
+        }
+    }
+
+    /**
+     * Create pending tasks before the load starts, in batches
+     */
+    private void seed() throws Exception {
+        List<TaskDTO> batch = new ArrayList<>();
+        for (int i = 0; i < options.getRows(); i++) {
+            batch.add(new TaskDTO("Tarea inicial " + i, 1 + i % 240));
+            if (batch.size() == AppConstants.MAX_BATCH_SIZE || i == options.getRows() - 1) {
+                HttpRequest save = json(URI.create(baseUrl + "/batch")).POST(body(batch)).build();
+                HttpResponse<byte[]> response = client.send(save, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() >= 300) {
+                    throw new IllegalStateException("Seeding tasks failed with status " + response.statusCode());
+                }
+                mapper.readTree(response.body()).forEach(result -> pending.add(result.get("task").get("id").asText()));
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(Operation operation, long due) {
+        if (inFlight.incrementAndGet() > options.getMaxInFlight()) { // Client limit, server is far behind
+            inFlight.decrementAndGet();
+            if (due >= measureFrom) {
+                dropped.increment();
+            }
+            return;
+        }
+
+        String id = null;
+        if (operation == Operation.UPDATE) {
+            id = pending.pick();
+        } else if (operation == Operation.COMPLETE || operation == Operation.DELETE) {
+            id = pending.take(); // Task leaves pending state
+        }
+        if (id == null && operation != Operation.CREATE && operation != Operation.LIST) {
+            operation = Operation.CREATE; // No pending task left
+        }
+
+        String endpoint;
+        HttpRequest request;
+        Consumer<byte[]> onSuccess = body -> { };
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case CREATE:
+                endpoint = "create";
+                request = json(URI.create(baseUrl))
+                    .POST(body(new TaskDTO("Tarea de carga " + random.nextInt(1_000_000), 1 + random.nextInt(240))))
+                    .build();
+                onSuccess = body -> pending.add(readTree(body).get("id").asText());
+                break;
+            case LIST:
+                String sort = orderBy.get(random.nextInt(orderBy.size()));
+                String status = STATUSES[random.nextInt(STATUSES.length)];
+                endpoint = "list/" + sort + "/" + (status == null ? "ALL" : status);
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "?orderBy=" + sort
+                    + (status == null ? "" : "&status=" + status))).GET().build();
+                break;
+            case UPDATE:
+                endpoint = "update";
+                request = json(URI.create(baseUrl + "/" + id))
+                    .PUT(body(new TaskDTO("Tarea editada " + random.nextInt(1_000_000), 1 + random.nextInt(240))))
+                    .build();
+                break;
+            case COMPLETE:
+                endpoint = "complete";
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + id + "/status?delay=" + random.nextInt(60)))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+                break;
+            default:
+                endpoint = "delete";
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + id + "/status")).DELETE().build();
+        }
+
+        Consumer<byte[]> success = onSuccess;
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            boolean ok = error == null && response.statusCode() < 300;
+            if (ok) {
+                success.accept(response.body());
+            }
+            if (due < measureFrom) { // Warmup
+                return;
+            }
+
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+            latencies.computeIfAbsent(endpoint, key -> new Recorder(MAX_LATENCY_MICROS, 3))
+                .recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            if (!ok) {
+                errors.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+            }
+        });
+    }
+
+    private HttpRequest.Builder json(URI uri) {
+        return HttpRequest.newBuilder(uri).header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher body(Object value) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(value));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode readTree(byte[] body) {
+        try {
+            return mapper.readTree(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * IDs of pending tasks, picked at random
+     */
+    private static final class TaskPool {
+        private final List<String> ids = new ArrayList<>();
+
+        synchronized void add(String id) {
+            ids.add(id);
+        }
+
+        synchronized String pick() {
+            return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        synchronized String take() {
+            if (ids.isEmpty()) {
+                return null;
+            }
+            int index = ThreadLocalRandom.current().nextInt(ids.size());
+            String id = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return id;
+        }
+    }
+}
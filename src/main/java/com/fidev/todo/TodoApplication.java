@@ -3,10 +3,10 @@ package com.fidev.todo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EntityScan("com.fidev.todo.model")
-@EnableJpaRepositories("com.fidev.todo.repositories")
+@EnableScheduling
 @SpringBootApplication
 public class TodoApplication {
 
@@ -0,0 +1,232 @@
+package com.fidev.todo.archive;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskArchiveBacklog;
+import com.fidev.todo.projections.TaskStatusTotals;
+import com.fidev.todo.repositories.TaskArchiveRepository;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.sharding.ShardContext;
+import com.fidev.todo.sharding.ShardRouter;
+import com.fidev.todo.stats.TaskStatsCounter;
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Move deleted tasks older than a minimum age from task table to task_archive.
+ * Tasks are walked in task ID order (keyset) and moved in small batches, each batch in its own short
+ * transaction, with a cap on rows per second and per run so live traffic never waits on long locks.
+ * With sharding, each shard archives its own tasks in turn, within the same caps.
+ */
+
+@Slf4j
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+public class TaskArchiver {
+
+    public static final String ARCHIVED_COUNTER = "todo.archive.archived";
+    public static final String RESTORED_COUNTER = "todo.archive.restored";
+    public static final String BATCHES_COUNTER = "todo.archive.batches";
+    public static final String PENDING_GAUGE = "todo.archive.pending";
+    public static final String LAG_GAUGE = "todo.archive.lag";
+
+    private final TaskRepository repository;
+    private final TaskArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskStatsCounter stats;
+    private final ShardRouter shards;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final int batchSize;
+    private final int maxRowsPerSecond;
+    private final int maxRowsPerRun;
+
+    private final Counter archived;
+    private final Counter restored;
+    private final Counter batches;
+    private final AtomicLong pending = new AtomicLong(); // Updated at the end of each run
+    private final AtomicLong lag = new AtomicLong(); // Seconds
+
+    public TaskArchiver(
+        TaskRepository repository,
+        TaskArchiveRepository archiveRepository,
+        TransactionTemplate transactionTemplate,
+        TaskStatsCounter stats,
+        ShardRouter shards,
+        MeterRegistry registry,
+        @Value("${todo.archive.enabled:true}") boolean enabled,
+        @Value("${todo.archive.min-age:30d}") Duration minAge,
+        @Value("${todo.archive.batch-size:500}") int batchSize,
+        @Value("${todo.archive.max-rows-per-second:2000}") int maxRowsPerSecond,
+        @Value("${todo.archive.max-rows-per-run:100000}") int maxRowsPerRun
+    ) {
+        this.repository = repository;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.stats = stats;
+        this.shards = shards;
+        this.enabled = enabled;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.maxRowsPerRun = maxRowsPerRun;
+
+        this.archived = Counter.builder(ARCHIVED_COUNTER)
+            .description("Deleted tasks moved to archive")
+            .register(registry);
+        this.restored = Counter.builder(RESTORED_COUNTER)
+            .description("Archived tasks moved back to task table")
+            .register(registry);
+        this.batches = Counter.builder(BATCHES_COUNTER)
+            .description("Archive batches committed")
+            .register(registry);
+        Gauge.builder(PENDING_GAUGE, pending, AtomicLong::get)
+            .description("Deleted tasks old enough to archive left after last run")
+            .register(registry);
+        Gauge.builder(LAG_GAUGE, lag, AtomicLong::get)
+            .description("Time the oldest task left after last run has waited past minimum age")
+            .baseUnit("seconds")
+            .register(registry);
+    }
+
+    @Scheduled(
+        initialDelayString = "${todo.archive.interval-ms:600000}",
+        fixedDelayString = "${todo.archive.interval-ms:600000}"
+    )
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            archive();
+        } catch (RuntimeException e) { // Next run resumes from the first task left
+            log.error("Task archive run failed", e);
+        }
+    }
+
+    /**
+     * Archive deleted tasks not updated within minimum age, up to the maximum rows per run
+     * @return Tasks archived
+     */
+    public int archive() {
+        Date before = new Date(System.currentTimeMillis() - minAge.toMillis());
+        long start = System.nanoTime();
+        int total = 0;
+        long left = 0;
+        Date oldest = null;
+
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            try (ShardContext.Scope scope = shards.use(shard)) {
+                total = archiveShard(before, start, total);
+                TaskArchiveBacklog backlog = repository.findBacklogByStatusAndUpdatedAtBefore(TaskStatus.DELETED, before);
+                left += backlog.getCount();
+                if (backlog.getUpdatedAt() != null && (oldest == null || backlog.getUpdatedAt().before(oldest))) {
+                    oldest = backlog.getUpdatedAt();
+                }
+            }
+        }
+
+        pending.set(left);
+        lag.set(oldest == null ? 0 : TimeUnit.MILLISECONDS.toSeconds(before.getTime() - oldest.getTime()));
+
+        log.info("Archived {} deleted tasks in {} ms, {} left", total,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), left);
+        return total;
+    }
+
+    /**
+     * Archive tasks of current shard while run caps allow it
+     * @param before Update time limit
+     * @param start Start time of run
+     * @param total Tasks archived so far in run
+     * @return Tasks archived in run, including previous shards
+     */
+    private int archiveShard(Date before, long start, int total) {
+        UUID after = null;
+        while (total < maxRowsPerRun) {
+            PageRequest page = PageRequest.of(0, Math.min(batchSize, maxRowsPerRun - total));
+            List<UUID> ids = after == null
+                ? repository.findIdsByStatusAndUpdatedAtBefore(TaskStatus.DELETED, before, page)
+                : repository.findIdsByStatusAndUpdatedAtBeforeAndIdAfter(TaskStatus.DELETED, before, after, page);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            Integer moved = transactionTemplate.execute(status -> moveBatch(ids));
+            total += moved;
+            archived.increment(moved);
+            batches.increment();
+            after = ids.get(ids.size() - 1);
+
+            if (ids.size() < page.getPageSize() || !throttle(start, total)) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Move an archived task back to task table, still deleted. Its update time is reset
+     * so it is not archived again until minimum age passes
+     * @param id Task ID
+     * @return False when task is not archived
+     */
+    @Transactional
+    public boolean restore(UUID id) {
+        if (archiveRepository.restoreById(id) == 0) {
+            return false;
+        }
+        archiveRepository.removeById(id);
+        restored.increment();
+        return true;
+    }
+
+    private int moveBatch(List<UUID> ids) {
+        for (TaskStatusTotals moved : repository.findTotalsByIdInAndStatus(ids, TaskStatus.DELETED)) {
+            stats.record(moved.getStatus(), -moved.getCount(), -moved.getDuration(), -moved.getDelay());
+        }
+        int copied = archiveRepository.archiveAllByIdInAndStatus(ids, TaskStatus.DELETED);
+        int removed = repository.deleteAllByIdInAndStatus(ids, TaskStatus.DELETED);
+        if (copied != removed) { // Roll back batch rather than lose or duplicate a task
+            throw new IllegalStateException("Archived " + copied + " tasks but removed " + removed);
+        }
+        return removed;
+    }
+
+    private boolean throttle(long start, int total) { // Sleep until rows moved so far fit the rate cap
+        if (maxRowsPerSecond <= 0) {
+            return true;
+        }
+
+        long wait = TimeUnit.SECONDS.toNanos(total) / maxRowsPerSecond - (System.nanoTime() - start);
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.fidev.todo.cache;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import com.fidev.todo.events.TaskChangedEvent;
+import com.fidev.todo.events.TaskEventType;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskListVersion;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDetailsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded cache of task list query results and of the version aggregates their entity tags are computed from,
+ * invalidated after task changes are committed. Each value keeps the generation of its status filter it was
+ * loaded at, a value loaded before a later invalidation is never served even if it was stored after it
+ */
+
+@Slf4j
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+@ManagedResource(objectName = "com.fidev.todo:type=TaskListCache")
+public class TaskListCache {
+
+    private final Cache<TaskListKey, Loaded<List<TaskDetailsDTO>>> cache;
+    private final Cache<TaskListKey, Loaded<List<TaskListVersion>>> versions; // Keyed by status filter only
+    // Incremented on each invalidation of a status filter, the last one is the unfiltered list
+    private final AtomicLongArray generations = new AtomicLongArray(TaskStatus.values().length + 1);
+    private final boolean enabled;
+
+    public TaskListCache(
+        @Value("${todo.cache.task-list.enabled:true}") boolean enabled,
+        @Value("${todo.cache.task-list.max-size:256}") long maxSize,
+        @Value("${todo.cache.task-list.ttl:30s}") Duration ttl
+    ) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.versions = Caffeine.newBuilder()
+            .maximumSize(TaskStatus.values().length + 1)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    /**
+     * Obtain cached list or load it. Only standalone read-only transactions use the cache,
+     * so uncommitted changes of an enclosing transaction are never cached
+     * @param key Normalized query
+     * @param loader Query to run on cache miss
+     * @return Unmodifiable task list
+     */
+    public List<TaskDetailsDTO> get(TaskListKey key, Supplier<List<TaskDetailsDTO>> loader) {
+        return getOrLoad(cache, key, () -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * Obtain cached version aggregate of a task list or load it, so a list tag is computed without a query
+     * while no task of the list changes
+     * @param status Status filter, null for all not deleted tasks
+     * @param loader Aggregate query of each shard to run on cache miss
+     * @return Unmodifiable version aggregates
+     */
+    public List<TaskListVersion> getVersions(TaskStatus status, Supplier<List<TaskListVersion>> loader) {
+        return getOrLoad(versions, new TaskListKey(status, null, null), () -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * Discard all cached lists and versions
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < generations.length(); i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+        versions.invalidateAll();
+    }
+
+    /**
+     * Evict lists that could contain the changed task: lists of its previous or current status and unfiltered lists
+     * @param event Committed task change
+     */
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        Set<TaskStatus> affected = EnumSet.of(TaskStatus.valueOf(event.getTask().getStatus()));
+        if (event.getPreviousStatus() != null) {
+            affected.add(event.getPreviousStatus());
+        } else if (event.getType() != TaskEventType.CREATED) { // Previous status is unknown
+            affected.addAll(EnumSet.allOf(TaskStatus.class));
+        }
+
+        affected.forEach(status -> generations.incrementAndGet(slot(status)));
+        generations.incrementAndGet(slot(null));
+        cache.asMap().keySet().removeIf(key -> key.getStatus() == null || affected.contains(key.getStatus()));
+        versions.asMap().keySet().removeIf(key -> key.getStatus() == null || affected.contains(key.getStatus()));
+        log.debug("Task list cache invalidated for status: {}", affected);
+    }
+
+    private <V> V getOrLoad(Cache<TaskListKey, Loaded<V>> target, TaskListKey key, Supplier<V> loader) {
+        if (!enabled || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+
+        int slot = slot(key.getStatus());
+        Loaded<V> cached = target.getIfPresent(key);
+        if (cached != null && cached.generation == generations.get(slot)) {
+            return cached.value;
+        }
+
+        long loadedAt = generations.get(slot);
+        V value = loader.get();
+        if (generations.get(slot) == loadedAt) { // Skip result if a change was committed while loading
+            target.put(key, new Loaded<>(loadedAt, value)); // Stale if invalidated meanwhile, it is not served
+        }
+        return value;
+    }
+
+    private static int slot(TaskStatus status) {
+        return (status == null) ? TaskStatus.values().length : status.ordinal();
+    }
+
+    public Cache<TaskListKey, ?> getCache() {
+        return cache;
+    }
+
+    @ManagedAttribute
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    @ManagedAttribute
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    @ManagedAttribute
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    @ManagedAttribute
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    private static class Loaded<V> {
+        private final long generation;
+        private final V value;
+
+        Loaded(long generation, V value) {
+            this.generation = generation;
+            this.value = value;
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.fidev.todo.cache;
+
+import com.fidev.todo.model.TaskStatus;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import lombok.Value;
+
+/**
+ * Normalized task list query: status filter (null for all not deleted tasks), sort field and direction
+ * (null for version aggregates, which do not depend on order)
+ */
+
+@Value
+public class TaskListKey {
+    TaskStatus status;
+    String fieldName;
+    Direction direction;
+}
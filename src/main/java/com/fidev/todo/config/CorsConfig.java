@@ -1,17 +1,23 @@
 package com.fidev.todo.config;
 
+import com.fidev.todo.util.AppConstants;
+
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 @EnableWebMvc
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
 public class CorsConfig implements WebMvcConfigurer {
     
     @Override
     public void addCorsMappings(CorsRegistry registry) {
-        registry.addMapping("/**").allowedMethods("GET", "POST","PUT", "DELETE");
+        registry.addMapping("/**").allowedMethods("GET", "POST","PUT", "DELETE")
+            .exposedHeaders(AppConstants.NEXT_CURSOR_HEADER, HttpHeaders.ETAG);
     }
 
 }
@@ -0,0 +1,17 @@
+package com.fidev.todo.config;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * JPA repositories, replaced by TaskReactiveRepository in reactive profile
+ */
+
+@Configuration
+@EnableJpaRepositories("com.fidev.todo.repositories")
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+public class JpaConfig {
+}
@@ -0,0 +1,104 @@
+package com.fidev.todo.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.fidev.todo.replica.ReplicaRoutingDataSource;
+import com.fidev.todo.util.AppConstants;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read replicas of task database when todo.replica.enabled is set: one pool per URL of todo.replica.urls,
+ * with user, password and driver of spring.datasource, and a pool for the primary at spring.datasource.url.
+ * Connections are taken on first statement, once the transaction is known to be read-only or not.
+ * <p>
+ * Replicas can't be combined with sharding. Schema scripts only run on the primary.
+ */
+
+@Slf4j
+@Configuration
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+@ConditionalOnProperty(name = "todo.replica.enabled", havingValue = "true")
+public class ReplicaConfig {
+
+    public static final String HEALTHY_GAUGE = "todo.replica.healthy";
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+        DataSourceProperties properties,
+        MeterRegistry meters,
+        @Value("${todo.replica.urls}") List<String> urls,
+        @Value("${todo.replica.pool-size:10}") int poolSize,
+        @Value("${todo.replica.connection-timeout-ms:1000}") long connectionTimeout,
+        @Value("${todo.replica.health-check-interval-ms:5000}") long healthCheckInterval,
+        @Value("${todo.sharding.enabled:false}") boolean sharded
+    ) {
+        if (sharded) {
+            throw new IllegalStateException("Task replicas can't be used with todo.sharding.enabled");
+        }
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("task-primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("task-replica-" + replicas.size());
+            replica.setJdbcUrl(url);
+            replica.setUsername(properties.getUsername());
+            replica.setPassword(properties.getPassword());
+            if (StringUtils.hasText(properties.getDriverClassName())) {
+                replica.setDriverClassName(properties.getDriverClassName());
+            }
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(connectionTimeout); // Reads fall back to primary without a long wait
+            replica.setInitializationFailTimeout(-1); // A replica that is down does not stop startup
+            replicas.add(replica);
+        }
+        log.info("Configured {} task read replicas", replicas.size());
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, healthCheckInterval);
+        Gauge.builder(HEALTHY_GAUGE, routing, ReplicaRoutingDataSource::getHealthyCount)
+            .description("Read replicas used for read-only transactions")
+            .register(meters);
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public HealthContributor dbHealthContributor(ReplicaRoutingDataSource routing) {
+        Map<String, HealthContributor> databases = new LinkedHashMap<>();
+        databases.put("primary", new DataSourceHealthIndicator(routing.getPrimary()));
+        for (int replica = 0; replica < routing.getReplicas().size(); replica++) {
+            databases.put("replica" + replica, new DataSourceHealthIndicator(routing.getReplicas().get(replica)));
+        }
+        return CompositeHealthContributor.fromMap(databases);
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.fidev.todo.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StreamUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Skip schema scripts when todo.schema.skip-if-current is set and the database was already initialized
+ * with the same scripts: a checksum of their content is saved in task_schema once they run.
+ * A changed script runs all scripts again, they must stay idempotent.
+ * <p>
+ * Not available with sharding, shard scripts always run.
+ */
+
+@Slf4j
+@Configuration
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+@ConditionalOnProperty(name = "todo.schema.skip-if-current", havingValue = "true")
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class SchemaConfig {
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer currentSchemaInitializer(
+        DataSource dataSource,
+        SqlInitializationProperties properties,
+        @Value("${todo.sharding.enabled:false}") boolean sharded
+    ) {
+        if (sharded) {
+            throw new IllegalStateException("todo.schema.skip-if-current can't be used with todo.sharding.enabled");
+        }
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties) {
+            @Override
+            protected void runScripts(List<Resource> resources, boolean continueOnError, String separator,
+                    Charset encoding) {
+                String checksum = checksum(resources);
+                if (isApplied(jdbc, checksum)) {
+                    log.info("Schema is current, skipped scripts: {}", resources);
+                    return;
+                }
+
+                super.runScripts(resources, continueOnError, separator, encoding);
+                try {
+                    jdbc.update("INSERT INTO task_schema (checksum, applied_at) VALUES (?, ?)",
+                        checksum, new Timestamp(System.currentTimeMillis()));
+                } catch (DuplicateKeyException e) {
+                    log.debug("Schema checksum saved by another instance");
+                }
+            }
+        };
+    }
+
+    private static boolean isApplied(JdbcTemplate jdbc, String checksum) {
+        try {
+            Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM task_schema WHERE checksum = ?",
+                Integer.class, checksum);
+            return count != null && count > 0;
+        } catch (DataAccessException e) { // No table yet
+            return false;
+        }
+    }
+
+    private static String checksum(List<Resource> resources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Resource resource : resources) {
+                digest.update(StreamUtils.copyToByteArray(resource.getInputStream()));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte value : digest.digest()) {
+                hex.append(String.format("%02x", value));
+            }
+            return hex.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
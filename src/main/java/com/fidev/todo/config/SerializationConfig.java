@@ -0,0 +1,92 @@
+package com.fidev.todo.config;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fidev.todo.converters.TaskProtobufHttpMessageConverter;
+import com.fidev.todo.mappers.TaskMapper;
+import com.fidev.todo.views.TaskDetailsDTO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Task payload formats chosen by Accept header: JSON by default, CBOR (application/cbor),
+ * Smile (application/x-jackson-smile) and protobuf (application/x-protobuf, see task.proto).
+ * Binary formats always carry completion dates as epoch milliseconds, JSON does with todo.api.epoch-dates.
+ * Binary formats are only served by the servlet stack.
+ */
+
+@Configuration
+public class SerializationConfig implements WebMvcConfigurer {
+
+    private final TaskMapper mapper;
+    private final boolean epochDates;
+
+    public SerializationConfig(TaskMapper mapper, @Value("${todo.api.epoch-dates:false}") boolean epochDates) {
+        this.mapper = mapper;
+        this.epochDates = epochDates;
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer epochDatesCustomizer() {
+        return builder -> {
+            if (epochDates) {
+                builder.mixIn(TaskDetailsDTO.class, EpochDates.class);
+            }
+        };
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter : converters) {
+            boolean binary = converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter;
+            boolean json = converter instanceof MappingJackson2HttpMessageConverter;
+            if (binary || (json && epochDates)) {
+                ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper()
+                    .addMixIn(TaskDetailsDTO.class, EpochDates.class);
+            }
+        }
+        converters.add(new TaskProtobufHttpMessageConverter(mapper)); // Last, so JSON stays the default
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT); // Caches keep a copy of each format
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Completion date of task details as epoch milliseconds, under the same property name
+     */
+    public abstract static class EpochDates {
+        @JsonIgnore
+        abstract String getFinalDate();
+
+        @JsonIgnore(false)
+        @JsonProperty("finalDate")
+        abstract Long getFinalTime();
+    }
+
+}
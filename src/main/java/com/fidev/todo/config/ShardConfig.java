@@ -0,0 +1,124 @@
+package com.fidev.todo.config;
+
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.fidev.todo.sharding.ShardContext;
+import com.fidev.todo.sharding.ShardRoutingDataSource;
+import com.fidev.todo.util.AppConstants;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Task databases when todo.sharding.enabled is set: one pool per URL of todo.sharding.urls, with user,
+ * password and driver of spring.datasource. Connections are taken on first statement, once task service
+ * has bound the shard of the transaction. Schema scripts run on every shard, and Hibernate schema
+ * generation must be off (spring.jpa.hibernate.ddl-auto=none).
+ * <p>
+ * Search engine must be memory: Postgres ranking can't be merged across shards.
+ */
+
+@Slf4j
+@Configuration
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+@ConditionalOnProperty(name = "todo.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class ShardConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+        DataSourceProperties properties,
+        @Value("${todo.sharding.urls}") List<String> urls,
+        @Value("${todo.sharding.pool-size:10}") int poolSize,
+        @Value("${" + AppConstants.SEARCH_ENGINE_PROPERTY + ":" + AppConstants.MEMORY_SEARCH_ENGINE + "}") String engine
+    ) {
+        if (!AppConstants.MEMORY_SEARCH_ENGINE.equals(engine)) {
+            throw new IllegalStateException("Sharded tasks need " + AppConstants.SEARCH_ENGINE_PROPERTY + "="
+                + AppConstants.MEMORY_SEARCH_ENGINE);
+        }
+
+        List<DataSource> shards = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("task-shard-" + shards.size());
+            shard.setJdbcUrl(url);
+            shard.setUsername(properties.getUsername());
+            shard.setPassword(properties.getPassword());
+            if (StringUtils.hasText(properties.getDriverClassName())) {
+                shard.setDriverClassName(properties.getDriverClassName());
+            }
+            shard.setMaximumPoolSize(poolSize);
+            shards.add(shard);
+        }
+        log.info("Configured {} task shards", shards.size());
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource routing) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        // Defaults are not read from a connection, there is no shard to read them from
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.setTargetDataSource(routing);
+        return dataSource;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardHibernatePropertiesCustomizer() {
+        // Dialect is configured, so Hibernate does not need a connection at startup
+        return properties -> properties.put("hibernate.temp.use_jdbc_metadata_defaults", "false");
+    }
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer shardScriptInitializer(ShardRoutingDataSource routing,
+            SqlInitializationProperties properties) {
+        return new SqlDataSourceScriptDatabaseInitializer(routing, properties) {
+            @Override
+            protected void runScripts(List<Resource> resources, boolean continueOnError, String separator,
+                    Charset encoding) {
+                for (int shard = 0; shard < routing.getShards().size(); shard++) {
+                    try (ShardContext.Scope scope = ShardContext.use(shard)) {
+                        super.runScripts(resources, continueOnError, separator, encoding);
+                    }
+                }
+            }
+        };
+    }
+
+    @Bean
+    public HealthContributor dbHealthContributor(ShardRoutingDataSource routing) {
+        Map<String, HealthContributor> shards = new LinkedHashMap<>();
+        for (int shard = 0; shard < routing.getShards().size(); shard++) {
+            shards.put("shard" + shard, new DataSourceHealthIndicator(routing.getShards().get(shard)));
+        }
+        return CompositeHealthContributor.fromMap(shards);
+    }
+
+}
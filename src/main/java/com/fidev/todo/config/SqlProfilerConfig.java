@@ -0,0 +1,45 @@
+package com.fidev.todo.config;
+
+import javax.sql.DataSource;
+
+import com.fidev.todo.sql.SqlProfiler;
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Proxy the task DataSource when todo.sql-profiler.enabled is set, so every statement reaches
+ * {@link SqlProfiler}. Only the dataSource bean is proxied, the one JPA uses: with sharding or
+ * replicas it is the routing proxy, and statements of every database are profiled.
+ */
+
+@Configuration
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+@ConditionalOnProperty(name = "todo.sql-profiler.enabled", havingValue = "true")
+public class SqlProfilerConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlProfilerPostProcessor(ObjectProvider<SqlProfiler> profiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create("task", (DataSource) bean)
+                    .listener(profiler.getObject())
+                    .methodListener(profiler.getObject())
+                    .proxyResultSet()
+                    .build();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.fidev.todo.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Startup settings of the AppCDS training run of the cds Maven profile
+ */
+
+@Slf4j
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Training run: stop once started, so the JVM writes the classes it loaded to the CDS archive
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "todo.startup.exit-on-ready", havingValue = "true")
+    static class TrainingRun {
+
+        @EventListener(ApplicationReadyEvent.class)
+        public void exitOnReady(ApplicationReadyEvent event) {
+            log.info("Application started in training run, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+
+    }
+
+}
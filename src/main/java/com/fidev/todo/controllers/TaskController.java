@@ -1,14 +1,35 @@
 package com.fidev.todo.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fidev.todo.events.TaskEventBroadcaster;
 import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.logging.RequestLogFilter;
 import com.fidev.todo.service.TaskService;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.util.ETags;
+import com.fidev.todo.views.TaskBatchResultDTO;
+import com.fidev.todo.views.TaskCompletionDTO;
 import com.fidev.todo.views.TaskDTO;
 import com.fidev.todo.views.TaskDetailsDTO;
+import com.fidev.todo.views.TaskPageDTO;
+import com.fidev.todo.views.TaskStatsDTO;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -22,60 +43,213 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 
 @Slf4j
 @RestController
 @RequestMapping("/task")
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
 public class TaskController {
 
     private TaskService service;
+    private ObjectMapper objectMapper;
+    private TaskEventBroadcaster broadcaster;
 
     @Autowired
     public void setTaskService(TaskService service) {
         this.service = service;
     }
 
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired
+    public void setTaskEventBroadcaster(TaskEventBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping // Save task
     public TaskDetailsDTO saveNewTask(@RequestBody TaskDTO request) throws TodoException {
-        log.info("Save new task: {}", request.getDesc());
+        log.debug("Save new task: {}", request.getDesc());
+
+        TaskDetailsDTO task = service.saveNewTask(request);
+        RequestLogFilter.setTaskId(task.getId());
+        return task;
+    }
 
-        return service.saveNewTask(request);
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping("/batch") // Save task batch
+    public List<TaskBatchResultDTO> saveNewTasks(@RequestBody List<TaskDTO> requests) throws TodoException {
+        log.debug("Save batch of {} tasks", requests.size());
+
+        return service.saveNewTasks(requests);
     }
 
     @GetMapping // Search task list
-    public List<TaskDetailsDTO> searchTaskList(
+    public ResponseEntity<List<TaskDetailsDTO>> searchTaskList(
         @RequestParam(required = false) String status,
         @RequestParam(required = false) String orderBy,
-        @RequestParam(required = false) String order
+        @RequestParam(required = false) String order,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor,
+        WebRequest request
+    ) throws TodoException {
+        // Tag is computed before list, so a list changed meanwhile is returned again on next request
+        String etag = service.searchTaskListTag(status);
+        if (request.checkNotModified(etag)) {
+            return null; // 304 Not Modified
+        }
+
+        if (limit == null && cursor == null) {
+            log.debug("Search task list by status: {} and sort by: {} {}", status, orderBy, order);
+
+            return ResponseEntity.ok().eTag(etag).body(service.searchTaskList(status, orderBy, order));
+        }
+
+        log.debug("Search task page by status: {} and sort by: {} {} limit: {}", status, orderBy, order, limit);
+        TaskPageDTO page = service.searchTaskPage(status, orderBy, order, limit, cursor);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+        if (page.getNextCursor() != null) { // Cursor to request next page
+            response.header(AppConstants.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getTasks());
+    }
+
+    @GetMapping(value = "/stream", produces = AppConstants.NDJSON_MEDIA_TYPE) // Stream task list as NDJSON
+    public void streamTaskList(
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) String orderBy,
+        @RequestParam(required = false) String order,
+        HttpServletResponse response
+    ) throws IOException, TodoException {
+        log.debug("Stream task list by status: {} and sort by: {} {}", status, orderBy, order);
+
+        response.setContentType(AppConstants.NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        // Not flushed after each task, generator writes its buffer to response only as it fills
+        ObjectWriter writer = objectMapper.writerFor(TaskDetailsDTO.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            // Container commits response, so a request rejected before first task still gets its error
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            service.streamTaskList(status, orderBy, order, task -> {
+                try { // One JSON document per line
+                    writer.writeValue(generator, task);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE) // Subscribe to task changes
+    public SseEmitter subscribeToTaskEvents(
+        @RequestHeader(value = AppConstants.LAST_EVENT_ID_HEADER, required = false) String lastEventId
     ) {
-        log.info("Search task list by status: {} and sort by: {} {}", status, orderBy, order);
+        log.debug("Subscribe to task events after: {}", lastEventId);
 
-        return service.searchTaskList(status, orderBy, order);
+        return broadcaster.subscribe(lastEventId);
     }
 
-    @PutMapping("/{id}") // Update task by TaskID
-    public TaskDetailsDTO updateTaskByID(@PathVariable String id, @RequestBody TaskDTO update)
+    @GetMapping("/search") // Search tasks by text in description
+    public List<TaskDetailsDTO> searchTasksByText(
+        @RequestParam(required = false) String q,
+        @RequestParam(required = false) Integer limit
+    ) throws TodoException {
+        log.debug("Search tasks by text: {} limit: {}", q, limit);
+
+        return service.searchTasksByText(q, limit);
+    }
+
+    @GetMapping("/stats") // Task counts and sums by status
+    public TaskStatsDTO searchTaskStats() throws TodoException {
+        log.debug("Search task stats");
+
+        return service.searchTaskStats();
+    }
+
+    @GetMapping("/{id}") // Search task by TaskID
+    public ResponseEntity<TaskDetailsDTO> searchTaskByID(@PathVariable String id, WebRequest request)
         throws TodoException {
-        log.info("Update task with id: {}", id);
+        log.debug("Search task with id: {}", id);
+
+        TaskDetailsDTO task = service.searchTaskByID(id);
+        String etag = ETags.ofVersion(task.getVersion());
+        if (request.checkNotModified(etag)) {
+            return null; // 304 Not Modified
+        }
+        return ResponseEntity.ok().eTag(etag).body(task);
+    }
 
-        return service.updateTaskByID(id, update);
+    @PutMapping("/{id}") // Update task by TaskID
+    public ResponseEntity<TaskDetailsDTO> updateTaskByID(
+        @PathVariable String id,
+        @RequestBody TaskDTO update,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) throws TodoException {
+        log.debug("Update task with id: {}", id);
+
+        Long version;
+        try { // Reject lost updates if client sends the version it modified
+            version = ETags.parseVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid If-Match header: [{}]", ifMatch);
+            throw new TodoException(
+                AppConstants.VERSION_MISMATCH_MESSAGE,
+                AppConstants.VERSION_MISMATCH_CODE,
+                HttpStatus.PRECONDITION_FAILED
+            );
+        }
+
+        TaskDetailsDTO task = service.updateTaskByID(id, update, version);
+        return ResponseEntity.ok().eTag(ETags.ofVersion(task.getVersion())).body(task);
     }
 
     @PutMapping("/{id}/status") // Mark task as completed
     public TaskDetailsDTO markTaskAsCompleted(@PathVariable String id, @RequestParam(required = true) Float delay)
         throws TodoException {
-        log.info("Mark task with id: {} as completed in {} minutes", id, delay);
+        log.debug("Mark task with id: {} as completed in {} minutes", id, delay);
 
         return service.markTaskByIDAsCompleted(id, delay);
     }
 
     @DeleteMapping("/{id}/status") // Mark task as deleted
     public TaskDetailsDTO markTaskAsDeleted(@PathVariable String id) throws TodoException {
-        log.info("Mark task with ID: {} as deleted", id);
+        log.debug("Mark task with ID: {} as deleted", id);
 
         return service.markTaskByIDAsDeleted(id);
     }
 
+    @PostMapping("/{id}/restore") // Move archived task back, still deleted
+    public TaskDetailsDTO restoreTask(@PathVariable String id) throws TodoException {
+        log.debug("Restore archived task with ID: {}", id);
+
+        return service.restoreTaskByID(id);
+    }
+
+    @PutMapping("/batch/status") // Mark many tasks as completed
+    public List<TaskBatchResultDTO> markTasksAsCompleted(@RequestBody List<TaskCompletionDTO> requests)
+        throws TodoException {
+        log.debug("Mark batch of {} tasks as completed", requests.size());
+
+        return service.markTasksAsCompleted(requests);
+    }
+
+    @DeleteMapping("/batch/status") // Mark many tasks as deleted
+    public List<TaskBatchResultDTO> markTasksAsDeleted(@RequestBody List<String> ids) throws TodoException {
+        log.debug("Mark batch of {} tasks as deleted", ids.size());
+
+        return service.markTasksAsDeleted(ids);
+    }
+
 }
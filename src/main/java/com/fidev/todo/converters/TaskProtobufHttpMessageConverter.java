@@ -0,0 +1,99 @@
+package com.fidev.todo.converters;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.fidev.todo.mappers.TaskMapper;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDetailsDTO;
+import com.fidev.todo.views.proto.TaskProto;
+import com.google.protobuf.Message;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+/**
+ * Writes task details and lists of task details as the messages of task.proto. Other payloads,
+ * errors included, need another accepted media type
+ */
+public class TaskProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = MediaType.parseMediaType(AppConstants.PROTOBUF_MEDIA_TYPE);
+
+    private final TaskMapper mapper;
+
+    public TaskProtobufHttpMessageConverter(TaskMapper mapper) {
+        super(PROTOBUF);
+        this.mapper = mapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TaskDetailsDTO.class.equals(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false; // Requests stay JSON
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (supports(clazz)) {
+            return true;
+        }
+        // Element type of a list is only known from declared type
+        return type != null && TaskDetailsDTO.class.equals(ResolvableType.forType(type).asCollection().resolveGeneric(0));
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        // Collection is checked with its element type by canWrite
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz)
+            ? getSupportedMediaTypes()
+            : Collections.emptyList();
+    }
+
+    @Override
+    protected void writeInternal(Object payload, @Nullable Type type, HttpOutputMessage outputMessage)
+        throws IOException {
+        Message message;
+        if (payload instanceof TaskDetailsDTO) {
+            message = mapper.mapDetailsToProto((TaskDetailsDTO) payload);
+        } else {
+            TaskProto.TaskDetailsList.Builder list = TaskProto.TaskDetailsList.newBuilder();
+            for (Object task : (Collection<?>) payload) {
+                list.addTasks(mapper.mapDetailsToProto((TaskDetailsDTO) task));
+            }
+            message = list.build();
+        }
+        message.writeTo(outputMessage.getBody());
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Task protobuf payloads are not read", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Task protobuf payloads are not read", inputMessage);
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.fidev.todo.events;
+
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.views.TaskDetailsDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by task service on each task change, listeners decide the transaction phase to react
+ */
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class TaskChangedEvent {
+    private TaskEventType type;
+    private TaskDetailsDTO task;
+    private TaskStatus previousStatus; // Null for new tasks or if it is unknown
+}
@@ -0,0 +1,310 @@
+package com.fidev.todo.events;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fan out committed task changes to Server-Sent Events subscribers.
+ * Connections are held with servlet async support, so idle subscribers do not hold threads.
+ * Each subscriber has a bounded buffer drained by a small shared pool, a subscriber whose
+ * buffer fills up is disconnected and can resume with Last-Event-ID from the replay ring.
+ * Sends are blocking writes: a send that outlasts the send timeout is evicted by the heartbeat and its
+ * thread is replaced in the pool, so clients that stop reading do not stall delivery to the others.
+ */
+
+@Slf4j
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+public class TaskEventBroadcaster {
+
+    public static final String RESET_EVENT = "reset"; // Client must reload task list
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Deque<ServerEvent> replay = new ArrayDeque<>(); // Guarded by itself
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+    private final int bufferSize;
+    private final int replaySize;
+    private final long timeout;
+    private final long sendTimeout;
+    private long sequence; // Guarded by replay
+
+    public TaskEventBroadcaster(
+        ObjectMapper objectMapper,
+        @Value("${todo.events.buffer-size:64}") int bufferSize,
+        @Value("${todo.events.replay-size:1024}") int replaySize,
+        @Value("${todo.events.timeout-ms:1800000}") long timeout,
+        @Value("${todo.events.sender-threads:2}") int senderThreads,
+        @Value("${todo.events.send-timeout-ms:10000}") long sendTimeout
+    ) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "task-events");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Open a subscription, replaying events after the last one received by client
+     * @param lastEventId Value of Last-Event-ID header, null for a new subscription
+     * @return Event stream
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (replay) { // Register and replay atomically, so no event is lost or repeated
+            Long lastId = parseEventId(lastEventId);
+            if (lastId != null) {
+                long oldest = replay.isEmpty() ? sequence + 1 : replay.peekFirst().getId();
+                if (lastId > sequence || lastId < oldest - 1) { // Events were lost, or ID is from another run
+                    subscriber.offer(() -> SseEmitter.event().name(RESET_EVENT).data(""));
+                } else { // Replayed events are sent before the buffer, they may be more than it holds
+                    subscriber.replay(replay.stream().filter(event -> event.getId() > lastId)
+                        .collect(Collectors.toList()));
+                }
+            }
+            subscribers.add(subscriber);
+            if (subscriber.closed) { // Disconnected meanwhile
+                subscribers.remove(subscriber);
+            }
+        }
+
+        log.debug("New task events subscriber, resume after: {}. Subscribers: {}", lastEventId, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Publish task change once it is committed
+     * @param event Task change
+     */
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event.getTask()); // Serialized once for all subscribers
+        } catch (JsonProcessingException e) {
+            log.error("Can't serialize task event: {}", event, e);
+            return;
+        }
+
+        synchronized (replay) {
+            ServerEvent serverEvent = new ServerEvent(++sequence, event.getType().name().toLowerCase(), data);
+            replay.addLast(serverEvent);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            subscribers.forEach(subscriber -> subscriber.offer(serverEvent));
+        }
+    }
+
+    /**
+     * Keep idle connections open through proxies, detect closed clients and evict sends past their deadline
+     */
+    @Scheduled(fixedDelayString = "${todo.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        sending.forEach(subscriber -> subscriber.evictIfStalled(now));
+        subscribers.forEach(subscriber -> subscriber.offer(() -> SseEmitter.event().comment("heartbeat")));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        senders.shutdown(); // Queued drains complete their emitters
+    }
+
+    /**
+     * Grow the pool while a stalled send holds a thread, shrink it back once that send returns
+     */
+    private synchronized void resizeSenders(int delta) {
+        int size = senders.getMaximumPoolSize() + delta;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return -1L; // Unknown ID, client must reload
+        }
+    }
+
+    private static class ServerEvent implements Supplier<SseEventBuilder> {
+        private final long id;
+        private final String name;
+        private final String data;
+
+        ServerEvent(long id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        @Override
+        public SseEventBuilder get() {
+            return SseEmitter.event().id(String.valueOf(id)).name(name).data(data);
+        }
+    }
+
+    private class Subscriber {
+        private static final long IDLE = 0;
+        private static final long STALLED = -1;
+
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEventBuilder>> backlog = new ArrayDeque<>(); // Replay, only read by drain
+        private final BlockingQueue<Supplier<SseEventBuilder>> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong sendStart = new AtomicLong(IDLE); // Epoch millis of current send
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void replay(List<ServerEvent> events) {
+            if (events.isEmpty()) {
+                return;
+            }
+            backlog.addAll(events); // Before first drain, which is started after
+            startDrain();
+        }
+
+        void offer(Supplier<SseEventBuilder> event) {
+            if (!buffer.offer(event)) { // Slow consumer, drop connection instead of buffering without limit
+                log.warn("Task events subscriber is too slow, disconnecting");
+                close();
+                return;
+            }
+            startDrain();
+        }
+
+        void evictIfStalled(long now) {
+            long start = sendStart.get();
+            if (start > IDLE && now - start > sendTimeout && sendStart.compareAndSet(start, STALLED)) {
+                log.warn("Task events send timed out after {} ms, disconnecting", now - start);
+                resizeSenders(1); // The stalled send holds its thread until the socket write fails
+                close();
+            }
+        }
+
+        /**
+         * Disconnect without blocking: the emitter is completed by the drain, never during a send
+         */
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            buffer.clear();
+            startDrain();
+        }
+
+        private void startDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Supplier<SseEventBuilder> event;
+                while (!closed && (event = next()) != null) {
+                    if (!send(event)) {
+                        close();
+                    }
+                }
+                if (closed) {
+                    emitter.complete(); // Draining stays set, nothing else is sent
+                    return;
+                }
+                draining.set(false);
+            } while ((closed || !buffer.isEmpty()) && draining.compareAndSet(false, true)); // Offered or closed meanwhile
+        }
+
+        /**
+         * @return false if client is disconnected or send was evicted
+         */
+        private boolean send(Supplier<SseEventBuilder> event) {
+            boolean sent = true;
+            sendStart.set(System.currentTimeMillis());
+            sending.add(this);
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Task events subscriber disconnected: {}", e.getMessage());
+                sent = false;
+            } finally {
+                sending.remove(this);
+            }
+
+            if (sendStart.getAndSet(IDLE) == STALLED) { // Evicted meanwhile, its replacement thread is released
+                resizeSenders(-1);
+                return false;
+            }
+            return sent;
+        }
+
+        private Supplier<SseEventBuilder> next() {
+            Supplier<SseEventBuilder> event = backlog.poll();
+            return (event != null) ? event : buffer.poll();
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.fidev.todo.events;
+
+public enum TaskEventType {
+    CREATED,
+    UPDATED,
+    COMPLETED,
+    DELETED
+}
@@ -0,0 +1,23 @@
+package com.fidev.todo.exceptions;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Request rejected by concurrency limit, client may retry after given seconds
+ */
+
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class OverloadedException extends TodoException {
+    private final long retryAfter;
+
+    public OverloadedException(long retryAfter) {
+        super(AppConstants.OVERLOADED_MESSAGE, AppConstants.OVERLOADED_CODE, HttpStatus.SERVICE_UNAVAILABLE);
+        this.retryAfter = retryAfter;
+    }
+}
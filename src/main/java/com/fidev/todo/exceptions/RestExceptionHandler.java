@@ -1,16 +1,34 @@
 package com.fidev.todo.exceptions;
 
+import javax.servlet.http.HttpServletRequest;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 @ControllerAdvice
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
 public class RestExceptionHandler {
 
     @ExceptionHandler(TodoException.class)
-    public HttpEntity<Object> handleTodoException(TodoException e) {
+    public HttpEntity<Object> handleTodoException(TodoException e, HttpServletRequest request) {
+        request.setAttribute(AppConstants.ERROR_CODE_ATTRIBUTE, e.getCode()); // Tag for request metrics
         return new ResponseEntity<>(e.toResponse(), e.getStatus());
     }
+
+    @ExceptionHandler(OverloadedException.class)
+    public HttpEntity<Object> handleOverloadedException(OverloadedException e, HttpServletRequest request) {
+        request.setAttribute(AppConstants.ERROR_CODE_ATTRIBUTE, e.getCode());
+        return ResponseEntity.status(e.getStatus())
+            .contentType(MediaType.APPLICATION_JSON) // Also when rejected by /stream, that sets NDJSON
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter())) // Seconds
+            .body(e.toResponse());
+    }
     
 }
@@ -0,0 +1,84 @@
+package com.fidev.todo.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted by observed latency (additive increase, multiplicative decrease).
+ * Limit grows by one while calls are fast and at least half of it is used,
+ * and is cut by backoff ratio when a call is slower than max latency or fails.
+ */
+public class AimdLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxLatencyNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    /**
+     * @param initialLimit Concurrent calls allowed at start
+     * @param minLimit Lower bound of limit
+     * @param maxLimit Upper bound of limit
+     * @param maxLatencyNanos Calls slower than this decrease limit
+     * @param backoffRatio Factor applied to limit on decrease, between 0 and 1
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, long maxLatencyNanos, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid limit bounds or backoff ratio");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Take a slot if calls in flight are under limit
+     * @return true if call may proceed, then release must be called
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        return true;
+    }
+
+    /**
+     * Free slot and adjust limit with call result
+     * @param latencyNanos Call duration
+     * @param dropped true if call failed by an infrastructure error (e.g. connection timeout)
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        int used = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (dropped || latencyNanos > maxLatencyNanos) {
+                limit = Math.max(minLimit, (int) (limit * backoffRatio));
+            } else if (used * 2 >= limit) { // Only grow when limit is actually reached
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    /**
+     * Free slot without adjusting limit, for calls whose duration is not a service latency
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
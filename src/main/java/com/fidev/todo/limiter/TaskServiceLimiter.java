@@ -0,0 +1,134 @@
+package com.fidev.todo.limiter;
+
+import java.time.Duration;
+
+import com.fidev.todo.exceptions.OverloadedException;
+import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.util.AppConstants;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fail fast with 503 when TaskService calls in flight reach their adaptive limit,
+ * instead of queueing threads on the connection pool. Reads and writes have separate limits.
+ * Streams take a read slot while they run, but their duration does not adjust the limit.
+ * Runs inside metrics advice, so rejections are timed, and outside the transaction advice,
+ * so a rejected call never takes a connection.
+ */
+
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TaskServiceLimiter {
+
+    public static final String LIMIT_GAUGE = "todo.limiter.limit";
+    public static final String IN_FLIGHT_GAUGE = "todo.limiter.in.flight";
+    public static final String REJECTIONS_COUNTER = "todo.limiter.rejections";
+
+    private final boolean enabled;
+    private final long retryAfter;
+
+    @Getter
+    private final AimdLimit readLimit;
+    @Getter
+    private final AimdLimit writeLimit;
+
+    private final Counter readRejections;
+    private final Counter writeRejections;
+
+    public TaskServiceLimiter(
+        MeterRegistry registry,
+        @Value("${todo.limiter.enabled:true}") boolean enabled,
+        @Value("${todo.limiter.retry-after:1s}") Duration retryAfter,
+        @Value("${todo.limiter.min-limit:2}") int minLimit,
+        @Value("${todo.limiter.backoff-ratio:0.9}") double backoffRatio,
+        @Value("${todo.limiter.read.initial-limit:20}") int readInitialLimit,
+        @Value("${todo.limiter.read.max-limit:200}") int readMaxLimit,
+        @Value("${todo.limiter.read.max-latency:250ms}") Duration readMaxLatency,
+        @Value("${todo.limiter.write.initial-limit:10}") int writeInitialLimit,
+        @Value("${todo.limiter.write.max-limit:100}") int writeMaxLimit,
+        @Value("${todo.limiter.write.max-latency:500ms}") Duration writeMaxLatency
+    ) {
+        this.enabled = enabled;
+        this.retryAfter = Math.max(1, retryAfter.toSeconds());
+        this.readLimit = new AimdLimit(readInitialLimit, minLimit, readMaxLimit, readMaxLatency.toNanos(), backoffRatio);
+        this.writeLimit = new AimdLimit(writeInitialLimit, minLimit, writeMaxLimit, writeMaxLatency.toNanos(), backoffRatio);
+        this.readRejections = register(registry, AppConstants.READ_LIMIT, readLimit);
+        this.writeRejections = register(registry, AppConstants.WRITE_LIMIT, writeLimit);
+    }
+
+    @Around("execution(public * com.fidev.todo.service.TaskService+.*(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+
+        boolean read = isRead(joinPoint.getSignature().getName());
+        AimdLimit limit = read ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            (read ? readRejections : writeRejections).increment();
+            log.warn("Reject {} call, {} limit of {} reached", joinPoint.getSignature().getName(),
+                read ? AppConstants.READ_LIMIT : AppConstants.WRITE_LIMIT, limit.getLimit());
+            throw new OverloadedException(retryAfter);
+        }
+
+        if (isStream(joinPoint.getSignature().getName())) { // Paced by client and list size, not a latency sample
+            try {
+                return joinPoint.proceed();
+            } finally {
+                limit.release();
+            }
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return joinPoint.proceed();
+        } catch (TodoException e) { // Expected errors (validation, not found) are normal latency samples
+            throw e;
+        } catch (Throwable e) {
+            dropped = true;
+            throw e;
+        } finally {
+            limit.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    private static boolean isRead(String method) {
+        return method.startsWith("search") || isStream(method);
+    }
+
+    private static boolean isStream(String method) {
+        return method.startsWith("stream");
+    }
+
+    private static Counter register(MeterRegistry registry, String type, AimdLimit limit) {
+        Gauge.builder(LIMIT_GAUGE, limit, AimdLimit::getLimit)
+            .description("Concurrent task service calls allowed")
+            .tag("type", type)
+            .register(registry);
+        Gauge.builder(IN_FLIGHT_GAUGE, limit, AimdLimit::getInFlight)
+            .description("Task service calls in flight")
+            .tag("type", type)
+            .register(registry);
+
+        return Counter.builder(REJECTIONS_COUNTER)
+            .description("Task service calls rejected by concurrency limit")
+            .tag("type", type)
+            .register(registry);
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.fidev.todo.logging;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fidev.todo.sql.SqlProfile;
+import com.fidev.todo.util.AppConstants;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * One structured line per request on the todo.requests logger: method, path, status, duration, task ID,
+ * error code and, with the SQL profiler, statement count, time and rows. Errors (status 400 or more) are
+ * written at WARN and slow requests at INFO, always. Other requests are sampled with
+ * todo.logging.requests.sample-rate. Lines are handed to the asynchronous appender of logback-spring.xml,
+ * the request thread never writes to the console.
+ */
+
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLogFilter extends OncePerRequestFilter {
+
+    public static final String LOGGER = "todo.requests";
+
+    private static final Logger requests = LoggerFactory.getLogger(LOGGER);
+    private static final String TASK_ID_ATTRIBUTE = RequestLogFilter.class.getName() + ".TASK_ID";
+    static final String FORMAT = "method={} path={} status={} duration_ms={} task_id={} code={}";
+    private static final String SQL_FORMAT = " sql_count={} sql_ms={} sql_rows={}";
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThreshold;
+
+    public RequestLogFilter(
+        @Value("${todo.logging.requests.enabled:true}") boolean enabled,
+        @Value("${todo.logging.requests.sample-rate:0.1}") double sampleRate,
+        @Value("${todo.logging.requests.slow-threshold:1s}") Duration slowThreshold
+    ) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThreshold = slowThreshold.toNanos();
+    }
+
+    /**
+     * Task of current request when it is not a path variable, e.g. a new task
+     * @param id Task ID
+     */
+    public static void setTaskId(Object id) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(TASK_ID_ATTRIBUTE, id, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !requests.isWarnEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            write(request, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, start); // Container answers 500
+            throw e;
+        }
+
+        if (request.isAsyncStarted()) { // Streams and events are written when they end
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    write(request, response.getStatus(), start);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    // Written on complete
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    // Written on complete
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                    // Nothing to write
+                }
+            });
+            return;
+        }
+        write(request, response.getStatus(), start);
+    }
+
+    private void write(HttpServletRequest request, int status, long start) {
+        long duration = System.nanoTime() - start;
+        boolean error = status >= 400;
+        if (!error && duration < slowThreshold && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        Object[] fields = {
+            request.getMethod(),
+            request.getRequestURI(),
+            status,
+            TimeUnit.NANOSECONDS.toMillis(duration),
+            taskId(request),
+            valueOf(request.getAttribute(AppConstants.ERROR_CODE_ATTRIBUTE))
+        };
+        String format = FORMAT;
+        Object sql = request.getAttribute(SqlProfile.ATTRIBUTE);
+        if (sql instanceof SqlProfile) { // Set when SQL profiler is enabled
+            SqlProfile profile = (SqlProfile) sql;
+            format = FORMAT + SQL_FORMAT;
+            fields = Arrays.copyOf(fields, fields.length + 3);
+            fields[fields.length - 3] = profile.getStatements();
+            fields[fields.length - 2] = profile.getMillis();
+            fields[fields.length - 1] = profile.getRows();
+        }
+        if (error) {
+            requests.warn(format, fields);
+        } else {
+            requests.info(format, fields);
+        }
+    }
+
+    private static Object taskId(HttpServletRequest request) {
+        Object id = request.getAttribute(TASK_ID_ATTRIBUTE);
+        if (id == null) {
+            Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            id = variables instanceof Map ? ((Map<?, ?>) variables).get("id") : null;
+        }
+        return valueOf(id);
+    }
+
+    static Object valueOf(Object value) {
+        return value == null ? "-" : value;
+    }
+
+}
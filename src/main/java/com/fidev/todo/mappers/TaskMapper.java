@@ -1,7 +1,9 @@
 package com.fidev.todo.mappers;
 
 import com.fidev.todo.model.Task;
+import com.fidev.todo.projections.TaskDetails;
 import com.fidev.todo.views.TaskDetailsDTO;
+import com.fidev.todo.views.proto.TaskProto;
 
 import org.springframework.stereotype.Component;
 
@@ -10,13 +12,42 @@ public class TaskMapper {
 
     public TaskDetailsDTO mapTaskToDetails(Task task) {
         return new TaskDetailsDTO(
-                task.getId(),
+                task.getId().toString(),
                 task.getDescription(),
                 task.getDuration(),
                 task.getFinDate() == null ? null : task.getFinDate().toString(),
+                task.getFinDate() == null ? null : task.getFinDate().getTime(),
                 task.getDelay(),
-                task.getStatus().toString()
+                task.getStatus().toString(),
+                task.getVersion()
         );
     }
 
+    public TaskDetailsDTO mapProjectionToDetails(TaskDetails task) {
+        return new TaskDetailsDTO(
+                task.getId().toString(),
+                task.getDescription(),
+                task.getDuration(),
+                task.getFinDate() == null ? null : task.getFinDate().toString(),
+                task.getFinDate() == null ? null : task.getFinDate().getTime(),
+                task.getDelay(),
+                task.getStatus().toString(),
+                task.getVersion()
+        );
+    }
+
+    public TaskProto.TaskDetails mapDetailsToProto(TaskDetailsDTO task) {
+        TaskProto.TaskDetails.Builder builder = TaskProto.TaskDetails.newBuilder()
+                .setId(task.getId())
+                .setDesc(task.getDesc())
+                .setDuration(task.getDuration())
+                .setDelay(task.getDelay())
+                .setStatus(task.getStatus())
+                .setVersion(task.getVersion());
+        if (task.getFinalTime() != null) {
+            builder.setFinalDate(task.getFinalTime());
+        }
+        return builder.build();
+    }
+
 }
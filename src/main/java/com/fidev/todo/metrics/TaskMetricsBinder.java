@@ -0,0 +1,39 @@
+package com.fidev.todo.metrics;
+
+import com.fidev.todo.cache.TaskListCache;
+import com.fidev.todo.events.TaskEventBroadcaster;
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Expose task list cache statistics and task event subscribers
+ */
+
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+public class TaskMetricsBinder implements MeterBinder {
+
+    private final TaskListCache taskListCache;
+    private final TaskEventBroadcaster broadcaster;
+
+    public TaskMetricsBinder(TaskListCache taskListCache, TaskEventBroadcaster broadcaster) {
+        this.taskListCache = taskListCache;
+        this.broadcaster = broadcaster;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, taskListCache.getCache(), "taskList");
+        Gauge.builder("todo.events.subscribers", broadcaster, TaskEventBroadcaster::getSubscriberCount)
+            .description("Open task event streams")
+            .register(registry);
+    }
+
+}
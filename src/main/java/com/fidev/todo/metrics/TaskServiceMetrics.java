@@ -0,0 +1,59 @@
+package com.fidev.todo.metrics;
+
+import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.util.AppConstants;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Time each TaskService call, tagged by method, outcome and error code.
+ * Runs outside the transaction advice so commit time is included.
+ */
+
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TaskServiceMetrics {
+
+    public static final String TIMER_NAME = "todo.service";
+
+    private final MeterRegistry registry;
+
+    public TaskServiceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.fidev.todo.service.TaskService+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = AppConstants.SUCCESS_OUTCOME;
+        String code = AppConstants.NONE_CODE;
+        try {
+            return joinPoint.proceed();
+        } catch (TodoException e) {
+            outcome = AppConstants.ERROR_OUTCOME;
+            code = e.getCode();
+            throw e;
+        } catch (Throwable e) {
+            outcome = AppConstants.ERROR_OUTCOME;
+            code = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                .description("Task service calls")
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("outcome", outcome)
+                .tag("code", code)
+                .register(registry));
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.fidev.todo.metrics;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Add TodoException code to http.server.requests, recorded by RestExceptionHandler
+ */
+
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+public class TodoExceptionTagsContributor implements WebMvcTagsContributor {
+
+    @Override
+    public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+        Throwable exception) {
+        Object code = request.getAttribute(AppConstants.ERROR_CODE_ATTRIBUTE);
+        return Tags.of("code", code == null ? AppConstants.NONE_CODE : code.toString());
+    }
+
+    @Override
+    public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+        return Tags.empty();
+    }
+
+}
@@ -9,9 +9,13 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.Id;
 import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import javax.persistence.Version;
+
+import com.fidev.todo.util.TaskIds;
 
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -27,8 +31,8 @@ import lombok.ToString;
 public class Task {
 
     @Id
-    @Column(name = "task_id", length = 36)
-    private String id;
+    @Column(name = "task_id", columnDefinition = "uuid")
+    private UUID id;
 
     @Column(name = "description", nullable = false, length = 100)
     private String description;
@@ -47,9 +51,25 @@ public class Task {
     @Column(name = "status", nullable = false, length = 10)
     private TaskStatus status;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "updated_at")
+    private Date updatedAt;
+
     @PrePersist
     protected void prePersist() {
-        id = UUID.randomUUID().toString();
+        if (id == null) { // Assigned before persist when it picks the shard
+            id = TaskIds.next();
+        }
+        updatedAt = new Date();
+    }
+
+    @PreUpdate
+    protected void preUpdate() {
+        updatedAt = new Date();
     }
 
     public Task(String description, float duration) {
@@ -0,0 +1,64 @@
+package com.fidev.todo.model;
+
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Deleted task moved out of task table by archiver, rows are copied with INSERT ... SELECT
+ */
+
+@Setter
+@Getter
+@NoArgsConstructor
+@ToString
+@Entity
+@Table(name = "task_archive")
+public class TaskArchive {
+
+    @Id
+    @Column(name = "task_id", columnDefinition = "uuid")
+    private UUID id;
+
+    @Column(name = "description", nullable = false, length = 100)
+    private String description;
+
+    @Column(name = "duration", nullable = false)
+    private float duration;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "finalized_at")
+    private Date finDate;
+
+    @Column(name = "delay")
+    private float delay;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private TaskStatus status;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "updated_at")
+    private Date updatedAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "archived_at", nullable = false)
+    private Date archivedAt;
+
+}
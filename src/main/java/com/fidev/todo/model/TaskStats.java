@@ -0,0 +1,53 @@
+package com.fidev.todo.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Running totals of tasks with a status. Each status is split in a few slots updated at random,
+ * so concurrent writers rarely wait on the same row, and totals are the sum of its slots
+ */
+
+@Setter
+@Getter
+@NoArgsConstructor
+@ToString
+@Entity
+@IdClass(TaskStatsId.class)
+@Table(name = "task_stats")
+public class TaskStats {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 10)
+    private TaskStatus status;
+
+    @Id
+    @Column(name = "slot")
+    private int slot;
+
+    @Column(name = "task_count", nullable = false)
+    private long count;
+
+    @Column(name = "total_duration", nullable = false)
+    private double duration;
+
+    @Column(name = "total_delay", nullable = false)
+    private double delay;
+
+    public TaskStats(TaskStatus status, int slot) {
+        this.status = status;
+        this.slot = slot;
+    }
+
+}
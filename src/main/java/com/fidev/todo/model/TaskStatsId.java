@@ -0,0 +1,19 @@
+package com.fidev.todo.model;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStatsId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private TaskStatus status;
+    private int slot;
+}
@@ -0,0 +1,11 @@
+package com.fidev.todo.projections;
+
+import java.util.Date;
+
+/**
+ * Deleted tasks old enough to be archived that are still in task table
+ */
+public interface TaskArchiveBacklog {
+    long getCount();
+    Date getUpdatedAt();
+}
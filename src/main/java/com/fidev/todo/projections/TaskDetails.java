@@ -0,0 +1,23 @@
+package com.fidev.todo.projections;
+
+import java.util.Date;
+import java.util.UUID;
+
+import com.fidev.todo.model.TaskStatus;
+
+import lombok.Value;
+
+/**
+ * Immutable read model selected directly from query, without hydrating managed entities
+ */
+
+@Value
+public class TaskDetails {
+    UUID id;
+    String description;
+    float duration;
+    Date finDate;
+    float delay;
+    TaskStatus status;
+    long version;
+}
@@ -0,0 +1,12 @@
+package com.fidev.todo.projections;
+
+import java.util.Date;
+
+/**
+ * Aggregate that changes whenever a task of a list is created, changed or removed
+ */
+public interface TaskListVersion {
+    long getCount();
+    long getVersions();
+    Date getUpdatedAt();
+}
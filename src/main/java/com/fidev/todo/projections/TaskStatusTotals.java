@@ -0,0 +1,13 @@
+package com.fidev.todo.projections;
+
+import com.fidev.todo.model.TaskStatus;
+
+/**
+ * Count and sums of tasks with a status
+ */
+public interface TaskStatusTotals {
+    TaskStatus getStatus();
+    long getCount();
+    double getDuration();
+    double getDelay();
+}
@@ -0,0 +1,64 @@
+package com.fidev.todo.replica;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Reads that must see the primary database: those of a request after it wrote, and those of code
+ * that writes from what it reads. Read by {@link ReplicaRoutingDataSource} when a read-only
+ * transaction sends its first statement.
+ */
+public class ReplicaContext {
+
+    private static final String PINNED_ATTRIBUTE = ReplicaContext.class.getName() + ".PINNED";
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReplicaContext() {
+    }
+
+    /**
+     * Whether current thread must read the primary
+     * @return True inside {@link #usePrimary()} or in a request that already wrote
+     */
+    public static boolean isPrimaryRequired() {
+        if (PRIMARY.get() != null) {
+            return true;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    /**
+     * Read the primary until returned scope is closed
+     * @return Scope to close
+     */
+    public static Scope usePrimary() {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                PRIMARY.remove();
+            }
+        };
+    }
+
+    /**
+     * Keep the rest of current request on the primary, so it reads its own writes
+     */
+    static void pinRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Primary binding of a block of code
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+}
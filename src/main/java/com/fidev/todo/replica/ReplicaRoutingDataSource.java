@@ -0,0 +1,152 @@
+package com.fidev.todo.replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Connections of the primary database or of a replica. Read-only transactions read a healthy replica,
+ * chosen round-robin. Writes, reads outside transactions and reads of {@link ReplicaContext} use the
+ * primary, as do reads when no replica is healthy.
+ * <p>
+ * A replica that fails to give a connection is skipped until a periodic health check validates it again.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicIntegerArray healthy; // 1 if replica is used for reads
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService checker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long healthCheckIntervalMs) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            healthy.set(i, 1);
+        }
+
+        this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkHealth, healthCheckIntervalMs, healthCheckIntervalMs,
+            TimeUnit.MILLISECONDS);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Number of replicas used for reads
+     * @return Healthy replicas
+     */
+    public int getHealthyCount() {
+        int count = 0;
+        for (int i = 0; i < healthy.length(); i++) {
+            count += healthy.get(i);
+        }
+        return count;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(target -> target.getConnection(username, password));
+    }
+
+    /**
+     * Validate every replica, skipping those that fail and using again those that recover
+     */
+    public void checkHealth() {
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean valid;
+            try (Connection connection = replicas.get(i).getConnection()) {
+                valid = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException | RuntimeException e) {
+                valid = false;
+            }
+
+            if (valid && healthy.compareAndSet(i, 0, 1)) {
+                log.info("Replica {} is healthy, reads use it again", i);
+            } else if (!valid && healthy.compareAndSet(i, 1, 0)) {
+                log.warn("Replica {} failed health check, reads skip it", i);
+            }
+        }
+    }
+
+    /**
+     * Stop health checks and close pools, called when context is closed
+     * @throws Exception If a pool fails to close
+     */
+    public void close() throws Exception {
+        checker.shutdownNow();
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable) {
+                ((AutoCloseable) replica).close();
+            }
+        }
+        if (primary instanceof AutoCloseable) {
+            ((AutoCloseable) primary).close();
+        }
+    }
+
+    private Connection connect(Connector connector) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReplicaContext.pinRequest(); // Later reads of request see this write
+            }
+            return connector.connect(primary);
+        }
+
+        if (!ReplicaContext.isPrimaryRequired()) {
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                int replica = Math.floorMod(next.getAndIncrement(), replicas.size());
+                if (healthy.get(replica) == 0) {
+                    continue;
+                }
+
+                try {
+                    return connector.connect(replicas.get(replica));
+                } catch (SQLException e) {
+                    if (healthy.compareAndSet(replica, 1, 0)) {
+                        log.warn("Replica {} failed to give a connection, reads skip it: {}", replica, e.getMessage());
+                    }
+                }
+            }
+        }
+        return connector.connect(primary);
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+        Connection connect(DataSource target) throws SQLException;
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.fidev.todo.repositories;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import com.fidev.todo.model.TaskArchive;
+import com.fidev.todo.model.TaskStatus;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface TaskArchiveRepository extends JpaRepository<TaskArchive, UUID> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("INSERT INTO TaskArchive (id, description, duration, finDate, delay, status, version, updatedAt, archivedAt) "
+        + "SELECT t.id, t.description, t.duration, t.finDate, t.delay, t.status, t.version, t.updatedAt, "
+        + "CURRENT_TIMESTAMP FROM Task t WHERE t.id IN :ids AND t.status = :status")
+    int archiveAllByIdInAndStatus(@Param("ids") Collection<UUID> ids, @Param("status") TaskStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("INSERT INTO Task (id, description, duration, finDate, delay, status, version, updatedAt) "
+        + "SELECT a.id, a.description, a.duration, a.finDate, a.delay, a.status, a.version, "
+        + "CURRENT_TIMESTAMP FROM TaskArchive a WHERE a.id = :id")
+    int restoreById(@Param("id") UUID id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM TaskArchive a WHERE a.id = :id")
+    int removeById(@Param("id") UUID id);
+
+}
@@ -1,19 +1,179 @@
 package com.fidev.todo.repositories;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
 import com.fidev.todo.model.Task;
 import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskArchiveBacklog;
+import com.fidev.todo.projections.TaskDetails;
+import com.fidev.todo.projections.TaskListVersion;
+import com.fidev.todo.projections.TaskStatusTotals;
+import com.fidev.todo.util.AppConstants;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
-public interface TaskRepository extends JpaRepository<Task, String> {
+public interface TaskRepository extends JpaRepository<Task, UUID>, TaskRepositoryCustom {
 
     <T> List<T> findAllByStatus(TaskStatus status, Sort sort, Class<T> type);
 
     <T> List<T> findAllByStatusNot(TaskStatus status, Sort sort, Class<T> type);
 
     <T> T findFirstByStatus(TaskStatus status, Class<T> type);
-    
+
+    <T> Optional<T> findDetailsById(UUID id, Class<T> type);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Task t SET t.version = t.version + 1, t.updatedAt = CURRENT_TIMESTAMP, "
+        + "t.description = :description, t.duration = :duration "
+        + "WHERE t.id = :id AND t.status <> :status")
+    int updateDetailsByIdAndStatusNot(
+        @Param("id") UUID id,
+        @Param("description") String description,
+        @Param("duration") float duration,
+        @Param("status") TaskStatus status
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Task t SET t.description = :description, t.duration = :duration, t.version = t.version + 1, "
+        + "t.updatedAt = CURRENT_TIMESTAMP WHERE t.id = :id AND t.status <> :status AND t.version = :version")
+    int updateDetailsByIdAndStatusNotAndVersion(
+        @Param("id") UUID id,
+        @Param("description") String description,
+        @Param("duration") float duration,
+        @Param("status") TaskStatus status,
+        @Param("version") long version
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Task t SET t.version = t.version + 1, t.updatedAt = CURRENT_TIMESTAMP, "
+        + "t.status = com.fidev.todo.model.TaskStatus.COMPLETED, t.delay = :delay, "
+        + "t.finDate = :finDate WHERE t.id = :id AND t.status <> :status")
+    int completeByIdAndStatusNot(
+        @Param("id") UUID id,
+        @Param("delay") float delay,
+        @Param("finDate") Date finDate,
+        @Param("status") TaskStatus status
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Task t SET t.version = t.version + 1, t.updatedAt = CURRENT_TIMESTAMP, t.status = :status "
+        + "WHERE t.id = :id AND t.status <> :status")
+    int updateStatusById(@Param("id") UUID id, @Param("status") TaskStatus status);
+
+    <T> List<T> findAllByIdIn(Collection<UUID> ids, Class<T> type);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Task> findAllByIdInOrderById(Collection<UUID> ids);
+
+    @Query("SELECT COUNT(t) AS count, COALESCE(SUM(t.version), 0) AS versions, MAX(t.updatedAt) AS updatedAt "
+        + "FROM Task t WHERE t.status = :status")
+    TaskListVersion findListVersionByStatus(@Param("status") TaskStatus status);
+
+    @Query("SELECT COUNT(t) AS count, COALESCE(SUM(t.version), 0) AS versions, MAX(t.updatedAt) AS updatedAt "
+        + "FROM Task t WHERE t.status <> :status")
+    TaskListVersion findListVersionByStatusNot(@Param("status") TaskStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.fidev.todo.projections.TaskDetails(t.id, t.description, t.duration, t.finDate, t.delay, "
+        + "t.status, t.version) FROM Task t WHERE t.id = :id")
+    Optional<TaskDetails> lockDetailsById(@Param("id") UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.fidev.todo.projections.TaskDetails(t.id, t.description, t.duration, t.finDate, t.delay, "
+        + "t.status, t.version) FROM Task t WHERE t.id IN :ids AND t.status <> :status ORDER BY t.id")
+    List<TaskDetails> lockAllByIdInAndStatusNot(@Param("ids") Collection<UUID> ids, @Param("status") TaskStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Task t SET t.version = t.version + 1, t.updatedAt = CURRENT_TIMESTAMP, "
+        + "t.status = com.fidev.todo.model.TaskStatus.COMPLETED, t.delay = :delay, "
+        + "t.finDate = :finDate WHERE t.id IN :ids")
+    int completeAllByIdIn(
+        @Param("ids") Collection<UUID> ids,
+        @Param("delay") float delay,
+        @Param("finDate") Date finDate
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Task t SET t.version = t.version + 1, t.updatedAt = CURRENT_TIMESTAMP, t.status = :status "
+        + "WHERE t.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<UUID> ids, @Param("status") TaskStatus status);
+
+    @Query("SELECT t.id FROM Task t WHERE t.status = :status "
+        + "AND (t.updatedAt IS NULL OR t.updatedAt < :before) ORDER BY t.id")
+    List<UUID> findIdsByStatusAndUpdatedAtBefore(
+        @Param("status") TaskStatus status,
+        @Param("before") Date before,
+        Pageable pageable
+    );
+
+    @Query("SELECT t.id FROM Task t WHERE t.status = :status AND t.id > :after "
+        + "AND (t.updatedAt IS NULL OR t.updatedAt < :before) ORDER BY t.id")
+    List<UUID> findIdsByStatusAndUpdatedAtBeforeAndIdAfter(
+        @Param("status") TaskStatus status,
+        @Param("before") Date before,
+        @Param("after") UUID after,
+        Pageable pageable
+    );
+
+    @Query("SELECT COUNT(t) AS count, MIN(t.updatedAt) AS updatedAt FROM Task t "
+        + "WHERE t.status = :status AND (t.updatedAt IS NULL OR t.updatedAt < :before)")
+    TaskArchiveBacklog findBacklogByStatusAndUpdatedAtBefore(
+        @Param("status") TaskStatus status,
+        @Param("before") Date before
+    );
+
+    // Postgres only, similarity() is from pg_trgm extension
+    @Query("SELECT t.id FROM Task t WHERE t.status <> com.fidev.todo.model.TaskStatus.DELETED "
+        + "AND LOWER(t.description) LIKE :pattern ESCAPE '!' "
+        + "ORDER BY CASE WHEN LOWER(t.description) LIKE :prefix ESCAPE '!' THEN 0 ELSE 1 END, "
+        + "FUNCTION('similarity', t.description, :text) DESC, t.id")
+    List<UUID> findIdsByDescriptionContaining(
+        @Param("pattern") String pattern,
+        @Param("prefix") String prefix,
+        @Param("text") String text,
+        Pageable pageable
+    );
+
+    @Query("SELECT t.status AS status, COUNT(t) AS count, COALESCE(SUM(t.duration), 0) AS duration, "
+        + "COALESCE(SUM(t.delay), 0) AS delay FROM Task t GROUP BY t.status")
+    List<TaskStatusTotals> findTotals();
+
+    @Query("SELECT t.status AS status, COUNT(t) AS count, COALESCE(SUM(t.duration), 0) AS duration, "
+        + "COALESCE(SUM(t.delay), 0) AS delay FROM Task t WHERE t.id IN :ids AND t.status = :status GROUP BY t.status")
+    List<TaskStatusTotals> findTotalsByIdInAndStatus(@Param("ids") Collection<UUID> ids, @Param("status") TaskStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Task t WHERE t.id IN :ids AND t.status = :status")
+    int deleteAllByIdInAndStatus(@Param("ids") Collection<UUID> ids, @Param("status") TaskStatus status);
+
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = AppConstants.STREAM_FETCH_SIZE),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Task> streamAllByStatus(TaskStatus status, Sort sort);
+
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = AppConstants.STREAM_FETCH_SIZE),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Task> streamAllByStatusNot(TaskStatus status, Sort sort);
+
 }
@@ -0,0 +1,28 @@
+package com.fidev.todo.repositories;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskDetails;
+import com.fidev.todo.util.TaskCursor;
+
+import org.springframework.data.domain.Sort.Direction;
+
+public interface TaskRepositoryCustom {
+
+    List<Task> findPageByStatus(TaskStatus status, String fieldName, Direction direction, TaskCursor after, int limit);
+
+    List<Task> findPageByStatusNot(TaskStatus status, String fieldName, Direction direction, TaskCursor after, int limit);
+
+    Optional<TaskDetails> updateDetailsReturningPrevious(UUID id, String description, float duration, TaskStatus status,
+        Long version);
+
+    Optional<TaskDetails> completeReturningPrevious(UUID id, float delay, Date finDate, TaskStatus status);
+
+    Optional<TaskDetails> updateStatusReturningPrevious(UUID id, TaskStatus status);
+
+}
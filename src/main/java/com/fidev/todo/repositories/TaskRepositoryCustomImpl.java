@@ -0,0 +1,207 @@
+package com.fidev.todo.repositories;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskDetails;
+import com.fidev.todo.util.TaskCursor;
+
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Sort.Direction;
+
+/**
+ * Keyset (seek) pagination over tasks. Rows are sorted by the requested field and then by task ID,
+ * so every page is located with an index seek instead of skipping the previous rows.
+ * Null values sort lowest on every database.
+ * <p>
+ * Single task transitions return the row as it was before the change, which stats deltas are computed from.
+ * On Postgres the row is locked, read and updated by one UPDATE ... RETURNING statement, other databases
+ * lock the row with a SELECT ... FOR UPDATE before the update.
+ */
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final Set<String> NULLABLE_FIELDS = Set.of("finDate");
+
+    // Row locked in the CTE, so previous values are the ones the update applies to
+    private static final String RETURNING_PREVIOUS = "WITH previous AS ("
+        + "SELECT task_id, description, duration, finalized_at, delay, status, version FROM task "
+        + "WHERE task_id = CAST(:id AS uuid) FOR UPDATE) "
+        + "UPDATE task t SET %s, version = t.version + 1, updated_at = CURRENT_TIMESTAMP FROM previous "
+        + "WHERE t.task_id = previous.task_id AND t.status <> :status%s "
+        + "RETURNING previous.description AS description, previous.duration AS duration, "
+        + "previous.finalized_at AS finalized_at, previous.delay AS delay, previous.status AS status, "
+        + "previous.version AS version";
+
+    private final TaskRepository repository; // JPQL updates of databases without RETURNING
+    private Boolean returning;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TaskRepositoryCustomImpl(@Lazy TaskRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public List<Task> findPageByStatus(TaskStatus status, String fieldName, Direction direction, TaskCursor after, int limit) {
+        return findPage(status, false, fieldName, direction, after, limit);
+    }
+
+    @Override
+    public List<Task> findPageByStatusNot(TaskStatus status, String fieldName, Direction direction, TaskCursor after, int limit) {
+        return findPage(status, true, fieldName, direction, after, limit);
+    }
+
+    private List<Task> findPage(TaskStatus status, boolean exclude, String fieldName, Direction direction,
+            TaskCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<Task> root = query.from(Task.class);
+        Path<Comparable<Object>> field = root.get(fieldName);
+        Path<UUID> id = root.get("id");
+        boolean asc = direction.isAscending();
+        boolean nullable = NULLABLE_FIELDS.contains(fieldName);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(exclude ? cb.notEqual(root.get("status"), status) : cb.equal(root.get("status"), status));
+        if (after != null) {
+            predicates.add(seek(cb, field, id, asc, nullable, after));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        if (nullable) { // Rank nulls below any value
+            Expression<Integer> nullRank = cb.<Integer>selectCase().when(cb.isNull(field), 0).otherwise(1);
+            orders.add(asc ? cb.asc(nullRank) : cb.desc(nullRank));
+        }
+        orders.add(asc ? cb.asc(field) : cb.desc(field));
+        orders.add(asc ? cb.asc(id) : cb.desc(id)); // Tie breaker
+
+        query.select(root).where(predicates.toArray(new Predicate[0])).orderBy(orders);
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Optional<TaskDetails> updateDetailsReturningPrevious(UUID id, String description, float duration,
+            TaskStatus status, Long version) {
+        if (!supportsReturning()) {
+            return lockAndUpdate(id, () -> (version == null)
+                ? repository.updateDetailsByIdAndStatusNot(id, description, duration, status)
+                : repository.updateDetailsByIdAndStatusNotAndVersion(id, description, duration, status, version));
+        }
+
+        NativeQuery<?> query = returningPrevious(id, "description = :description, duration = :duration", status,
+            (version == null) ? "" : " AND t.version = :version");
+        query.setParameter("description", description).setParameter("duration", duration);
+        if (version != null) {
+            query.setParameter("version", version);
+        }
+        return previous(id, query);
+    }
+
+    @Override
+    public Optional<TaskDetails> completeReturningPrevious(UUID id, float delay, Date finDate, TaskStatus status) {
+        if (!supportsReturning()) {
+            return lockAndUpdate(id, () -> repository.completeByIdAndStatusNot(id, delay, finDate, status));
+        }
+
+        NativeQuery<?> query = returningPrevious(id, "status = :newStatus, delay = :delay, finalized_at = :finDate",
+            status, "");
+        query.setParameter("newStatus", TaskStatus.COMPLETED.name()).setParameter("delay", delay)
+            .setParameter("finDate", finDate, StandardBasicTypes.TIMESTAMP);
+        return previous(id, query);
+    }
+
+    @Override
+    public Optional<TaskDetails> updateStatusReturningPrevious(UUID id, TaskStatus status) {
+        if (!supportsReturning()) {
+            return lockAndUpdate(id, () -> repository.updateStatusById(id, status));
+        }
+
+        NativeQuery<?> query = returningPrevious(id, "status = :newStatus", status, "");
+        query.setParameter("newStatus", status.name());
+        return previous(id, query);
+    }
+
+    private boolean supportsReturning() {
+        if (returning == null) {
+            returning = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQL81Dialect;
+        }
+        return returning;
+    }
+
+    private NativeQuery<?> returningPrevious(UUID id, String set, TaskStatus status, String condition) {
+        entityManager.flush(); // As the JPQL updates, pending changes are written first
+        return entityManager.createNativeQuery(String.format(RETURNING_PREVIOUS, set, condition))
+            .unwrap(NativeQuery.class)
+            .addScalar("description", StandardBasicTypes.STRING)
+            .addScalar("duration", StandardBasicTypes.FLOAT)
+            .addScalar("finalized_at", StandardBasicTypes.TIMESTAMP)
+            .addScalar("delay", StandardBasicTypes.FLOAT)
+            .addScalar("status", StandardBasicTypes.STRING)
+            .addScalar("version", StandardBasicTypes.LONG)
+            .setParameter("id", id.toString())
+            .setParameter("status", status.name());
+    }
+
+    private Optional<TaskDetails> previous(UUID id, NativeQuery<?> query) {
+        List<?> rows = query.getResultList();
+        entityManager.clear(); // Managed tasks are stale, as after the JPQL updates
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object[] row = (Object[]) rows.get(0);
+        return Optional.of(new TaskDetails(id, (String) row[0], (Float) row[1], (Date) row[2],
+            (row[3] == null) ? 0 : (Float) row[3], TaskStatus.valueOf((String) row[4]), (Long) row[5]));
+    }
+
+    private Optional<TaskDetails> lockAndUpdate(UUID id, IntSupplier update) {
+        Optional<TaskDetails> previous = repository.lockDetailsById(id);
+        return (previous.isPresent() && update.getAsInt() > 0) ? previous : Optional.empty();
+    }
+
+    /**
+     * Build predicate for rows located after the cursor: (field, id) > (value, lastId) in sort order
+     */
+    @SuppressWarnings("unchecked")
+    private Predicate seek(CriteriaBuilder cb, Path<Comparable<Object>> field, Path<UUID> id, boolean asc,
+            boolean nullable, TaskCursor after) {
+        Comparable<Object> value = (Comparable<Object>) after.getValue();
+        Predicate idAfter = asc ? cb.greaterThan(id, after.getId()) : cb.lessThan(id, after.getId());
+
+        if (value == null) { // Cursor is inside the null group
+            return asc
+                ? cb.or(cb.isNotNull(field), cb.and(cb.isNull(field), idAfter))
+                : cb.and(cb.isNull(field), idAfter);
+        }
+
+        Predicate seek = cb.or(
+            asc ? cb.greaterThan(field, value) : cb.lessThan(field, value),
+            cb.and(cb.equal(field, value), idAfter)
+        );
+        return (!asc && nullable) ? cb.or(seek, cb.isNull(field)) : seek;
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.fidev.todo.repositories;
+
+import java.util.List;
+
+import com.fidev.todo.model.TaskStats;
+import com.fidev.todo.model.TaskStatsId;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskStatusTotals;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface TaskStatsRepository extends JpaRepository<TaskStats, TaskStatsId> {
+
+    @Query("SELECT s.status AS status, SUM(s.count) AS count, SUM(s.duration) AS duration, SUM(s.delay) AS delay "
+        + "FROM TaskStats s GROUP BY s.status")
+    List<TaskStatusTotals> findTotals();
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TaskStats s SET s.count = s.count + :count, s.duration = s.duration + :duration, "
+        + "s.delay = s.delay + :delay WHERE s.status = :status AND s.slot = :slot")
+    int increment(
+        @Param("status") TaskStatus status,
+        @Param("slot") int slot,
+        @Param("count") long count,
+        @Param("duration") double duration,
+        @Param("delay") double delay
+    );
+
+}
@@ -0,0 +1,38 @@
+package com.fidev.todo.search;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Search served by Postgres with the pg_trgm GIN index on lower(description)
+ */
+
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+@ConditionalOnProperty(name = AppConstants.SEARCH_ENGINE_PROPERTY, havingValue = AppConstants.POSTGRES_SEARCH_ENGINE)
+public class PostgresTaskSearchIndex implements TaskSearchIndex {
+
+    private final TaskRepository repository;
+
+    public PostgresTaskSearchIndex(TaskRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public List<UUID> search(String text, int limit) {
+        String escaped = text.toLowerCase(Locale.ROOT)
+            .replace("!", "!!").replace("%", "!%").replace("_", "!_"); // Match wildcards literally
+        return repository.findIdsByDescriptionContaining(
+            "%" + escaped + "%", escaped + "%", text, PageRequest.of(0, limit));
+    }
+
+}
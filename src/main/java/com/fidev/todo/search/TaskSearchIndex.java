@@ -0,0 +1,21 @@
+package com.fidev.todo.search;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Case insensitive substring search over descriptions of tasks not deleted,
+ * answered from a trigram index instead of scanning every task
+ */
+public interface TaskSearchIndex {
+
+    /**
+     * Find tasks whose description contains a text, descriptions starting with it first,
+     * then by trigram similarity to it
+     * @param text Text to search, at least one trigram long
+     * @param limit Maximum number of tasks
+     * @return Task IDs in rank order
+     */
+    List<UUID> search(String text, int limit);
+
+}
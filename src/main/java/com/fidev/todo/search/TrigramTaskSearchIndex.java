@@ -0,0 +1,217 @@
+package com.fidev.todo.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import com.fidev.todo.events.TaskChangedEvent;
+import com.fidev.todo.events.TaskEventType;
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.replica.ReplicaContext;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.sharding.ShardRouter;
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process inverted index from each trigram of lowercase descriptions to the tasks that have it,
+ * for databases without trigram indexes. Loaded at startup and kept in sync with committed task changes,
+ * so it only sees writes made through this instance. A search intersects the posting lists of the
+ * text trigrams starting with the shortest, so it visits at most as many tasks as the rarest trigram has.
+ */
+
+@Slf4j
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+@ConditionalOnProperty(
+    name = AppConstants.SEARCH_ENGINE_PROPERTY,
+    havingValue = AppConstants.MEMORY_SEARCH_ENGINE,
+    matchIfMissing = true
+)
+public class TrigramTaskSearchIndex implements TaskSearchIndex {
+
+    private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+    private final Map<UUID, String> descriptions = new ConcurrentHashMap<>(); // Lowercase, guarded by this for writes
+    private final TaskRepository repository;
+    private final EntityManager entityManager;
+    private final ShardRouter shards;
+
+    public TrigramTaskSearchIndex(TaskRepository repository, EntityManager entityManager, ShardRouter shards) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.shards = shards;
+    }
+
+    /**
+     * Index every task not deleted, of every shard. Read from primary, later changes come from its commits
+     */
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try (ReplicaContext.Scope scope = ReplicaContext.usePrimary()) {
+            shards.fanOut(shard -> {
+                try (Stream<Task> tasks = repository.streamAllByStatusNot(TaskStatus.DELETED, Sort.by("id"))) {
+                    tasks.forEach(task -> {
+                        index(task.getId(), task.getDescription());
+                        entityManager.detach(task);
+                    });
+                }
+                return null;
+            });
+        }
+        log.info("Indexed {} task descriptions for search", descriptions.size());
+    }
+
+    /**
+     * Apply a committed task change
+     * @param event Task change
+     */
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        UUID id = UUID.fromString(event.getTask().getId());
+        if (event.getType() == TaskEventType.DELETED) {
+            remove(id);
+        } else {
+            index(id, event.getTask().getDesc());
+        }
+    }
+
+    @Override
+    public List<UUID> search(String text, int limit) {
+        String query = normalize(text);
+        Set<String> queryGrams = trigrams(query);
+
+        List<Set<UUID>> lists = new ArrayList<>();
+        for (String gram : queryGrams) {
+            Set<UUID> list = postings.get(gram);
+            if (list == null) {
+                return Collections.emptyList(); // No description has this trigram
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Match> matches = new ArrayList<>();
+        for (UUID id : lists.get(0)) {
+            String description = descriptions.get(id);
+            // Trigrams only narrow candidates, substring is confirmed on description
+            if (description == null || !description.contains(query) || !inAll(id, lists)) {
+                continue;
+            }
+            matches.add(new Match(id, description.startsWith(query), similarity(queryGrams, trigrams(description))));
+        }
+
+        matches.sort(Comparator.comparing((Match match) -> !match.prefix)
+            .thenComparing(match -> -match.similarity)
+            .thenComparing(match -> match.id));
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, matches.size()); i++) {
+            ids.add(matches.get(i).id);
+        }
+        return ids;
+    }
+
+    public int size() {
+        return descriptions.size();
+    }
+
+    private synchronized void index(UUID id, String description) {
+        String normalized = normalize(description);
+        String previous = descriptions.put(id, normalized);
+        if (normalized.equals(previous)) {
+            return;
+        }
+
+        Set<String> grams = trigrams(normalized);
+        if (previous != null) {
+            for (String gram : trigrams(previous)) {
+                if (!grams.contains(gram)) {
+                    unpost(gram, id);
+                }
+            }
+        }
+        grams.forEach(gram -> postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id));
+    }
+
+    private synchronized void remove(UUID id) {
+        String previous = descriptions.remove(id);
+        if (previous != null) {
+            trigrams(previous).forEach(gram -> unpost(gram, id));
+        }
+    }
+
+    private void unpost(String gram, UUID id) {
+        Set<UUID> list = postings.get(gram);
+        if (list != null) {
+            list.remove(id);
+            if (list.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static boolean inAll(UUID id, List<Set<UUID>> lists) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static double similarity(Set<String> query, Set<String> description) { // Shared over all trigrams
+        int shared = 0;
+        for (String gram : query) {
+            if (description.contains(gram)) {
+                shared++;
+            }
+        }
+        return (double) shared / (query.size() + description.size() - shared);
+    }
+
+    private static class Match {
+        private final UUID id;
+        private final boolean prefix;
+        private final double similarity;
+
+        Match(UUID id, boolean prefix, double similarity) {
+            this.id = id;
+            this.prefix = prefix;
+            this.similarity = similarity;
+        }
+    }
+
+}
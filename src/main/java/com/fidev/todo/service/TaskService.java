@@ -1,21 +1,50 @@
 package com.fidev.todo.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.views.TaskBatchResultDTO;
+import com.fidev.todo.views.TaskCompletionDTO;
 import com.fidev.todo.views.TaskDTO;
 import com.fidev.todo.views.TaskDetailsDTO;
+import com.fidev.todo.views.TaskPageDTO;
+import com.fidev.todo.views.TaskStatsDTO;
 
 public interface TaskService {
 
     TaskDetailsDTO saveNewTask(TaskDTO request) throws TodoException;
 
-    List<TaskDetailsDTO> searchTaskList(String status, String orderBy, String order);
+    List<TaskBatchResultDTO> saveNewTasks(List<TaskDTO> requests) throws TodoException;
+
+    List<TaskDetailsDTO> searchTaskList(String status, String orderBy, String order) throws TodoException;
+
+    TaskPageDTO searchTaskPage(String status, String orderBy, String order, Integer limit, String cursor)
+        throws TodoException;
+
+    String searchTaskListTag(String status) throws TodoException;
+
+    TaskDetailsDTO searchTaskByID(String id) throws TodoException;
+
+    long streamTaskList(String status, String orderBy, String order, Consumer<TaskDetailsDTO> consumer)
+        throws TodoException;
+
+    List<TaskDetailsDTO> searchTasksByText(String text, Integer limit) throws TodoException;
 
     TaskDetailsDTO updateTaskByID(String id, TaskDTO update) throws TodoException;
 
+    TaskDetailsDTO updateTaskByID(String id, TaskDTO update, Long version) throws TodoException;
+
     TaskDetailsDTO markTaskByIDAsCompleted(String id, Float delay) throws TodoException;
 
     TaskDetailsDTO markTaskByIDAsDeleted(String id) throws TodoException;
 
+    TaskDetailsDTO restoreTaskByID(String id) throws TodoException;
+
+    TaskStatsDTO searchTaskStats() throws TodoException;
+
+    List<TaskBatchResultDTO> markTasksAsCompleted(List<TaskCompletionDTO> requests) throws TodoException;
+
+    List<TaskBatchResultDTO> markTasksAsDeleted(List<String> ids) throws TodoException;
+
 }
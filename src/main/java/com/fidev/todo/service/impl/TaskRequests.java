@@ -0,0 +1,203 @@
+package com.fidev.todo.service.impl;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.util.TaskCursor;
+import com.fidev.todo.util.TaskIds;
+import com.fidev.todo.views.TaskDTO;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.HttpStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Validation and parsing of task requests, shared by blocking and reactive task services
+ */
+
+@Slf4j
+final class TaskRequests {
+
+    private TaskRequests() {
+    }
+
+    /**
+     * Parse task ID received from client
+     * @param id Task ID in string form
+     * @return Task ID
+     * @throws TodoException If ID is malformed, no task can have it
+     */
+    static UUID parseId(String id) throws TodoException {
+        UUID taskId = TaskIds.parse(id);
+        if (taskId == null) {
+            throw notFound(id);
+        }
+
+        return taskId;
+    }
+
+    /**
+     * Build error for a task that does not exist
+     * @param id Task ID
+     * @return Not found error
+     */
+    static TodoException notFound(String id) {
+        log.error("Not found any task by ID: {}", id);
+        return new TodoException(
+            AppConstants.NOT_FOUND_MESSAGE,
+            AppConstants.NOT_FOUND_CODE,
+            HttpStatus.NOT_FOUND
+        );
+    }
+
+    /**
+     * Build error for an update of a completed task
+     * @param id Task ID
+     * @return Conflict error
+     */
+    static TodoException completed(String id) {
+        log.error("Can't update task with ID: {}. It is completed", id);
+        return new TodoException(
+            HttpStatus.CONFLICT,
+            AppConstants.INVALID_ACTION_CODE,
+            AppConstants.INVALID_ACTION_MESSAGE
+        );
+    }
+
+    /**
+     * Validate size of batch request
+     * @param batch Batch items
+     * @throws TodoException
+     */
+    static void validateBatch(List<?> batch) throws TodoException {
+        if (batch == null || batch.isEmpty() || batch.size() > AppConstants.MAX_BATCH_SIZE) {
+            log.error("Invalid task batch size: [{}]", batch == null ? null : batch.size());
+            throw new TodoException(
+                AppConstants.INVALID_BATCH_MESSAGE,
+                AppConstants.INVALID_BATCH_CODE,
+                HttpStatus.BAD_REQUEST
+            );
+        }
+    }
+
+    /**
+     * Obtain field name to sort list, sort by status by default
+     * @param orderBy Sort param
+     * @return Entity field name
+     */
+    static String resolveSortField(String orderBy) {
+        return AppConstants.PARAMS.getOrDefault(orderBy, "status");
+    }
+
+    /**
+     * Obtain sort direction, sort by DESC direction by default
+     * @param order Direction param
+     * @return Sort direction
+     */
+    static Direction resolveSortDirection(String order) {
+        return (order != null && order.equalsIgnoreCase("ASC"))
+            ? Sort.Direction.ASC
+            : Sort.Direction.DESC;
+    }
+
+    /**
+     * Obtain task status to filter query
+     * @param status Status param
+     * @return Task status, null if param is invalid or is DELETED
+     */
+    static TaskStatus resolveStatusFilter(String status) {
+        TaskStatus taskStatus = null;
+        try {
+            taskStatus = TaskStatus.valueOf(status);
+        } catch (Exception e) {
+            log.warn(
+                "Status param is invalid: [{}]. Task list search without status filter\n ERROR: {}",
+                status,
+                e.getMessage()
+            );
+        }
+
+        return TaskStatus.DELETED.equals(taskStatus) ? null : taskStatus;
+    }
+
+    /**
+     * Decode pagination cursor and verify it belongs to the requested sort
+     * @param cursor Encoded cursor
+     * @param fieldName Entity field used to sort
+     * @param direction Sort direction
+     * @return Decoded cursor, null if cursor is empty
+     * @throws TodoException
+     */
+    static TaskCursor decodeCursor(String cursor, String fieldName, Direction direction) throws TodoException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            TaskCursor after = TaskCursor.decode(cursor);
+            if (after.matches(fieldName, direction)) {
+                return after;
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Malformed cursor: [{}] ERROR: {}", cursor, e.getMessage());
+        }
+
+        log.error("Invalid cursor for sort by {} {}: [{}]", fieldName, direction, cursor);
+        throw new TodoException(
+            AppConstants.INVALID_CURSOR_MESSAGE,
+            AppConstants.INVALID_CURSOR_CODE,
+            HttpStatus.BAD_REQUEST
+        );
+    }
+
+    /**
+     * Validate text to search in task descriptions
+     * @param query Text received from client
+     * @return Trimmed text
+     * @throws TodoException
+     */
+    static String validateSearchQuery(String query) throws TodoException {
+        String text = (query == null) ? "" : query.trim();
+        if (text.length() < AppConstants.MIN_SEARCH_LENGTH || text.length() > 100) {
+            log.error("Invalid search query: [{}]", query);
+            throw new TodoException(
+                AppConstants.INVALID_QUERY_MESSAGE,
+                AppConstants.INVALID_QUERY_CODE,
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        return text;
+    }
+
+    /**
+     * Validate task request, a missing task (null batch item) has an invalid description
+     * @param task Task details
+     * @throws TodoException
+     */
+    static void validateTask(TaskDTO task) throws TodoException {
+        if (task == null || task.getDesc() == null || task.getDesc().trim().isEmpty() || task.getDesc().trim().length() > 100) {
+            log.error("Invalid task description: [{}]", task == null ? null : task.getDesc());
+            throw new TodoException(
+                AppConstants.INVALID_DESC_MESSAGE,
+                AppConstants.INVALID_DESC_CODE,
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        if (task.getDuration() < 1) {
+            log.error("Invalid task duration: [{}]", task.getDuration());
+            throw new TodoException(
+                AppConstants.INVALID_DURATION_MESSAGE,
+                AppConstants.INVALID_DURATION_CODE,
+                HttpStatus.BAD_REQUEST
+            );
+        }
+    }
+
+}
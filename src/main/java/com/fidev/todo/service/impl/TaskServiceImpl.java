@@ -1,20 +1,54 @@
 package com.fidev.todo.service.impl;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+
+import com.fidev.todo.archive.TaskArchiver;
+import com.fidev.todo.cache.TaskListCache;
+import com.fidev.todo.cache.TaskListKey;
+import com.fidev.todo.events.TaskChangedEvent;
+import com.fidev.todo.events.TaskEventType;
 import com.fidev.todo.exceptions.TodoException;
 import com.fidev.todo.mappers.TaskMapper;
 import com.fidev.todo.model.Task;
 import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskDetails;
+import com.fidev.todo.projections.TaskListVersion;
 import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.search.TaskSearchIndex;
 import com.fidev.todo.service.TaskService;
+import com.fidev.todo.sharding.ShardMerge;
+import com.fidev.todo.sharding.ShardRouter;
+import com.fidev.todo.stats.TaskStatsCounter;
 import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.util.ETags;
+import com.fidev.todo.util.TaskCursor;
+import com.fidev.todo.util.TaskIds;
+import com.fidev.todo.views.TaskBatchResultDTO;
+import com.fidev.todo.views.TaskCompletionDTO;
 import com.fidev.todo.views.TaskDTO;
 import com.fidev.todo.views.TaskDetailsDTO;
+import com.fidev.todo.views.TaskPageDTO;
+import com.fidev.todo.views.TaskStatsDTO;
+import com.fidev.todo.writebehind.TaskEditBuffer;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.http.HttpStatus;
@@ -26,14 +60,33 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Service
 @Transactional
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
 public class TaskServiceImpl implements TaskService {
 
     private final TaskRepository repository;
     private final TaskMapper mapper;
+    private final EntityManager entityManager;
+    private final TaskListCache cache;
+    private final ApplicationEventPublisher publisher;
+    private final TaskArchiver archiver;
+    private final TaskStatsCounter stats;
+    private final TaskSearchIndex searchIndex;
+    private final TaskEditBuffer edits;
+    private final ShardRouter shards;
 
-    public TaskServiceImpl(TaskRepository repository, TaskMapper mapper) {
+    public TaskServiceImpl(TaskRepository repository, TaskMapper mapper, EntityManager entityManager,
+            TaskListCache cache, ApplicationEventPublisher publisher, TaskArchiver archiver, TaskStatsCounter stats,
+            TaskSearchIndex searchIndex, TaskEditBuffer edits, ShardRouter shards) {
         this.repository = repository;
         this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.cache = cache;
+        this.publisher = publisher;
+        this.archiver = archiver;
+        this.stats = stats;
+        this.searchIndex = searchIndex;
+        this.edits = edits;
+        this.shards = shards;
     }
 
     /**
@@ -44,14 +97,65 @@ public class TaskServiceImpl implements TaskService {
      */
     @Override
     public TaskDetailsDTO saveNewTask(TaskDTO request) throws TodoException {
-        validateTask(request); // Validate task request
+        TaskRequests.validateTask(request); // Validate task request
         request.setDesc(request.getDesc().trim());
-        log.info("Task details are valid");
+        log.debug("Task details are valid");
 
         Task newTask = new Task(request.getDesc(), request.getDuration());
-        newTask = this.repository.save(newTask); // Save task
+        newTask.setId(TaskIds.next()); // ID is known before any statement, to route it to its shard
+        shards.bind(newTask.getId());
+        entityManager.persist(newTask); // Save task
+
+        TaskDetailsDTO details = mapper.mapTaskToDetails(newTask);
+        recordStats(details, 1);
+        publisher.publishEvent(new TaskChangedEvent(TaskEventType.CREATED, details, null));
+        return details; // Return task details
+    }
+
+    /**
+     * Save a batch of new tasks in one transaction, invalid tasks are reported and skipped
+     * @param requests Task details to save
+     * @return Result of each task in request order
+     * @throws TodoException
+     */
+    @Override
+    public List<TaskBatchResultDTO> saveNewTasks(List<TaskDTO> requests) throws TodoException {
+        TaskRequests.validateBatch(requests);
+
+        TaskBatchResultDTO[] results = new TaskBatchResultDTO[requests.size()];
+        List<Task> newTasks = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TaskDTO request = requests.get(i);
+            try {
+                TaskRequests.validateTask(request);
+            } catch (TodoException e) {
+                results[i] = new TaskBatchResultDTO(i, null, e.getCode(), e.getMessage());
+                continue;
+            }
 
-        return mapper.mapTaskToDetails(newTask); // Return task details
+            Task task = new Task(request.getDesc().trim(), request.getDuration());
+            task.setId(TaskIds.next());
+            newTasks.add(task);
+            positions.add(i);
+        }
+
+        Map<Integer, List<Integer>> byShard = new TreeMap<>(); // Indexes of new tasks of each shard
+        for (int i = 0; i < newTasks.size(); i++) {
+            byShard.computeIfAbsent(shards.shardOf(newTasks.get(i).getId()), shard -> new ArrayList<>()).add(i);
+        }
+        byShard.forEach((shard, indexes) -> shards.inShard(shard, () -> {
+            for (int i : indexes) {
+                entityManager.persist(newTasks.get(i)); // Inserts are sent in JDBC batches on flush
+                TaskDetailsDTO details = mapper.mapTaskToDetails(newTasks.get(i));
+                results[positions.get(i)] = new TaskBatchResultDTO(positions.get(i), details, null, null);
+                recordStats(details, 1);
+                publisher.publishEvent(new TaskChangedEvent(TaskEventType.CREATED, details, null));
+            }
+        }));
+
+        log.debug("Saved {} of {} tasks in batch", newTasks.size(), requests.size());
+        return Arrays.asList(results);
     }
 
     /**
@@ -59,37 +163,178 @@ public class TaskServiceImpl implements TaskService {
      * @param status Status to filter tasks
      * @param orderBy Field name to sort list
      * @param order Direction to sort list
+     * @throws TodoException
      */
     @Override
-    public List<TaskDetailsDTO> searchTaskList(String status, String orderBy, String order) {
-        List<Task> tasks;
-
-        // Obtain field name to sort list, sort by status by default
-        String fieldName = AppConstants.PARAMS.getOrDefault(orderBy, "status");
-        // Obtaint sort direction, sort by DESC direction by default
-        Direction direction = (order != null && order.equalsIgnoreCase("ASC"))
-            ? Sort.Direction.ASC
-            : Sort.Direction.DESC;
-
-        TaskStatus taskStatus = null;
-        try { // Obtain task status to filter query
-            taskStatus = TaskStatus.valueOf(status);
-        } catch (Exception e) {
-            log.warn(
-                "Status param is invalid: [{}]. Task list search without status filter\n ERROR: {}",
-                status,
-                e.getMessage()
-            );
+    @Transactional(readOnly = true)
+    public List<TaskDetailsDTO> searchTaskList(String status, String orderBy, String order) throws TodoException {
+        String fieldName = TaskRequests.resolveSortField(orderBy);
+        Direction direction = TaskRequests.resolveSortDirection(order);
+        TaskStatus taskStatus = TaskRequests.resolveStatusFilter(status);
+
+        List<TaskDetailsDTO> list = cache.get(new TaskListKey(taskStatus, fieldName, direction), () -> {
+            if (shards.isEnabled()) { // Shards are read in keyset order, so their lists can be merged
+                List<Task> tasks = searchMergedPage(taskStatus, fieldName, direction, null, Integer.MAX_VALUE);
+                log.debug("Found {} tasks in {} shards with status: {} and order by {} {}",
+                    tasks.size(), shards.getShardCount(), taskStatus, fieldName, direction);
+                return tasks.stream().map(mapper::mapTaskToDetails).collect(Collectors.toList());
+            }
+
+            // Search task list
+            List<TaskDetails> tasks = (taskStatus != null) // If status param is invalid, ignore it
+                ? repository.findAllByStatus(taskStatus, Sort.by(direction, fieldName), TaskDetails.class)
+                // Not return task if is marked as deleted
+                : repository.findAllByStatusNot(TaskStatus.DELETED, Sort.by(direction, fieldName), TaskDetails.class);
+
+            log.debug("Found {} tasks with status: {} and order by {} {}", tasks.size(), taskStatus, fieldName, direction);
+            return tasks.stream().map(mapper::mapProjectionToDetails).collect(Collectors.toList());
+        });
+        return edits.overlay(list); // Cached list is shared, pending edits are merged on a copy
+    }
+
+    /**
+     * Consult a page of task list using keyset pagination
+     * @param status Status to filter tasks
+     * @param orderBy Field name to sort list
+     * @param order Direction to sort list
+     * @param limit Max number of tasks in page
+     * @param cursor Cursor returned with previous page, null to get first page
+     * @return Page of tasks and cursor to next page
+     * @throws TodoException
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TaskPageDTO searchTaskPage(String status, String orderBy, String order, Integer limit, String cursor)
+        throws TodoException {
+        String fieldName = TaskRequests.resolveSortField(orderBy);
+        Direction direction = TaskRequests.resolveSortDirection(order);
+        TaskStatus taskStatus = TaskRequests.resolveStatusFilter(status);
+        int pageSize = (limit == null)
+            ? AppConstants.DEFAULT_PAGE_LIMIT
+            : Math.max(1, Math.min(limit, AppConstants.MAX_PAGE_LIMIT));
+        TaskCursor after = TaskRequests.decodeCursor(cursor, fieldName, direction);
+
+        // Fetch one extra row to know if there is a next page
+        List<Task> tasks = searchMergedPage(taskStatus, fieldName, direction, after, pageSize + 1);
+
+        String nextCursor = null;
+        if (tasks.size() > pageSize) {
+            tasks = tasks.subList(0, pageSize);
+            nextCursor = TaskCursor.after(tasks.get(pageSize - 1), fieldName, direction).encode();
         }
 
-        // Search task list
-        tasks = (taskStatus != null && !taskStatus.equals(TaskStatus.DELETED)) // If status param is invalid, ignore it
-            ? repository.findAllByStatus(taskStatus, Sort.by(direction, fieldName), Task.class)
-            // Not return task if is marked as deleted
-            : repository.findAllByStatusNot(TaskStatus.DELETED, Sort.by(direction, fieldName), Task.class);
+        log.debug("Found page of {} tasks with status: {} and order by {} {}", tasks.size(), taskStatus, fieldName, direction);
+        return new TaskPageDTO(
+            edits.overlay(tasks.stream().map(mapper::mapTaskToDetails).collect(Collectors.toList())),
+            nextCursor
+        );
+    }
 
-        log.info("Found {} tasks with status: {} and order by {} {}", tasks.size(), taskStatus, fieldName, direction);
-        return tasks.stream().map(mapper::mapTaskToDetails).collect(Collectors.toList());
+    /**
+     * Obtain entity tag of task list, it changes when any task of list changes.
+     * The aggregate it is computed from is cached until a task of the list changes
+     * @param status Status to filter tasks
+     * @return Quoted entity tag
+     * @throws TodoException
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public String searchTaskListTag(String status) throws TodoException {
+        TaskStatus taskStatus = TaskRequests.resolveStatusFilter(status);
+        List<TaskListVersion> versions = cache.getVersions(taskStatus,
+            () -> shards.fanOut(shard -> (taskStatus != null)
+                ? repository.findListVersionByStatus(taskStatus)
+                : repository.findListVersionByStatusNot(TaskStatus.DELETED)));
+
+        return ETags.ofList(versions, edits.getPendingSequence());
+    }
+
+    /**
+     * Search task details by task ID
+     * @param id Task ID
+     * @return Task details
+     * @throws TodoException
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TaskDetailsDTO searchTaskByID(String id) throws TodoException {
+        UUID taskId = TaskRequests.parseId(id);
+        shards.bind(taskId);
+        return edits.overlay(searchTaskDetailsByID(taskId));
+    }
+
+    /**
+     * Consult task list row by row, without loading whole list in memory
+     * @param status Status to filter tasks
+     * @param orderBy Field name to sort list
+     * @param order Direction to sort list
+     * @param consumer Receive each task details in order
+     * @return Number of tasks streamed
+     * @throws TodoException
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long streamTaskList(String status, String orderBy, String order, Consumer<TaskDetailsDTO> consumer)
+        throws TodoException {
+        String fieldName = TaskRequests.resolveSortField(orderBy);
+        Direction direction = TaskRequests.resolveSortDirection(order);
+        TaskStatus taskStatus = TaskRequests.resolveStatusFilter(status);
+
+        if (shards.isEnabled()) {
+            return streamMergedPages(taskStatus, fieldName, direction, consumer);
+        }
+
+        long count = 0;
+        try (Stream<Task> tasks = (taskStatus != null)
+            ? repository.streamAllByStatus(taskStatus, Sort.by(direction, fieldName))
+            : repository.streamAllByStatusNot(TaskStatus.DELETED, Sort.by(direction, fieldName))) {
+            Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                Task task = iterator.next();
+                consumer.accept(edits.overlay(mapper.mapTaskToDetails(task)));
+                entityManager.detach(task); // Release task from persistence context
+                count++;
+            }
+        }
+
+        log.debug("Streamed {} tasks with status: {} and order by {} {}", count, taskStatus, fieldName, direction);
+        return count;
+    }
+
+    /**
+     * Search tasks not deleted whose description contains a text
+     * @param text Text to search, case insensitive
+     * @param limit Maximum number of tasks, null for default
+     * @return Tasks ranked by match, descriptions starting with text first
+     * @throws TodoException
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskDetailsDTO> searchTasksByText(String text, Integer limit) throws TodoException {
+        String query = TaskRequests.validateSearchQuery(text);
+        int size = (limit == null)
+            ? AppConstants.DEFAULT_SEARCH_LIMIT
+            : Math.max(1, Math.min(limit, AppConstants.MAX_PAGE_LIMIT));
+
+        List<UUID> ids = searchIndex.search(query, size);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Index can lag behind a concurrent delete, so status is checked again on loaded tasks
+        Map<Integer, List<UUID>> byShard = shards.groupByShard(ids);
+        Map<UUID, TaskDetails> found = shards.fanOut(shard -> byShard.containsKey(shard)
+                ? repository.findAllByIdIn(byShard.get(shard), TaskDetails.class)
+                : List.<TaskDetails>of())
+            .stream().flatMap(List::stream)
+            .filter(task -> task.getStatus() != TaskStatus.DELETED)
+            .collect(Collectors.toMap(TaskDetails::getId, task -> task));
+        List<TaskDetailsDTO> tasks = ids.stream().map(found::get).filter(Objects::nonNull)
+            .map(mapper::mapProjectionToDetails).collect(Collectors.toList());
+        tasks = edits.overlay(tasks);
+
+        log.debug("Found {} tasks with description containing: {}", tasks.size(), query);
+        return tasks;
     }
 
     /**
@@ -101,27 +346,64 @@ public class TaskServiceImpl implements TaskService {
      */
     @Override
     public TaskDetailsDTO updateTaskByID(String id, TaskDTO update) throws TodoException {
-        validateTask(update);
+        return updateTaskByID(id, update, null);
+    }
+
+    /**
+     * Update task details by task ID if it has the expected version.
+     * With write-behind enabled, unconditional updates are acknowledged and written later
+     * @param id Task ID
+     * @param update Task details to update
+     * @param version Expected task version, null to update any version
+     * @return Task updated
+     * @throws TodoException
+     */
+    @Override
+    public TaskDetailsDTO updateTaskByID(String id, TaskDTO update, Long version) throws TodoException {
+        TaskRequests.validateTask(update);
         update.setDesc(update.getDesc().trim());
+        UUID taskId = TaskRequests.parseId(id);
+        shards.bind(taskId);
+        if (version == null && edits.isEnabled()) {
+            TaskDetailsDTO details = edits.put(taskId, update.getDesc(), update.getDuration(), () -> {
+                TaskDetails stored = repository.findDetailsById(taskId, TaskDetails.class)
+                    .orElseThrow(() -> TaskRequests.notFound(id));
+                if (stored.getStatus().equals(TaskStatus.COMPLETED)) {
+                    throw TaskRequests.completed(id);
+                }
+                return mapper.mapProjectionToDetails(stored);
+            });
+            log.debug("Task with ID: {} update accepted for write-behind", id);
+            return details;
+        }
+
+        edits.flush(List.of(taskId)); // Conditional update is checked against acknowledged version
+        // Update task details only if it is not completed, values before update are kept for stats
+        Optional<TaskDetails> previous = repository.updateDetailsReturningPrevious(
+            taskId, update.getDesc(), update.getDuration(), TaskStatus.COMPLETED, version);
+        if (previous.isEmpty()) { // Read why only on failure
+            TaskDetails stored = repository.findDetailsById(taskId, TaskDetails.class)
+                .orElseThrow(() -> TaskRequests.notFound(id));
+            if (stored.getStatus().equals(TaskStatus.COMPLETED)) { // Can't update a completed task
+                throw TaskRequests.completed(id);
+            }
 
-        Task task = searchTaskByID(id);
-        if (task.getStatus().equals(TaskStatus.COMPLETED)) { // Can't update a completed task
-            log.error("Can't update task with ID: {}. It is completed", task.getId());
+            log.error("Can't update task with ID: {}. Expected version {} but is {}", id, version, stored.getVersion());
             throw new TodoException(
-                HttpStatus.CONFLICT,
-                AppConstants.INVALID_ACTION_CODE,
-                AppConstants.INVALID_ACTION_MESSAGE
+                AppConstants.VERSION_MISMATCH_MESSAGE,
+                AppConstants.VERSION_MISMATCH_CODE,
+                HttpStatus.PRECONDITION_FAILED
             );
         }
+        TaskDetails current = previous.get();
+        log.debug("Task with ID: {} updated successfully", id);
 
-        // Update task details
-        task.setDescription(update.getDesc());
-        task.setDuration(update.getDuration());
-
-        Task taskUpdated = repository.save(task); // Save changes in DB
-        log.info("Task with ID: {} updated successfully", task.getId());
-
-        return mapper.mapTaskToDetails(taskUpdated);
+        // Row is locked, task is the one updated with the changes applied
+        TaskDetailsDTO details = mapper.mapProjectionToDetails(new TaskDetails(taskId, update.getDesc(),
+            update.getDuration(), current.getFinDate(), current.getDelay(), current.getStatus(), current.getVersion() + 1));
+        stats.record(current.getStatus(), 0, update.getDuration() - current.getDuration(), 0);
+        publisher.publishEvent(new TaskChangedEvent(TaskEventType.UPDATED, details, current.getStatus()));
+        return details;
     }
 
     /**
@@ -133,16 +415,24 @@ public class TaskServiceImpl implements TaskService {
      */
     @Override
     public TaskDetailsDTO markTaskByIDAsCompleted(String id, Float delay) throws TodoException {
-        Task task = searchTaskByID(id); // Search task
+        // Update status and delay of task and set date finish, deleted tasks are not found
+        UUID taskId = TaskRequests.parseId(id);
+        shards.bind(taskId);
+        edits.flush(List.of(taskId)); // Pending edit is written first
+        Timestamp finDate = new Timestamp(System.currentTimeMillis()); // Same type as read back from database
+        // Status and delay before update are kept for stats
+        TaskDetails previous = repository.completeReturningPrevious(taskId, delay, finDate, TaskStatus.DELETED)
+            .orElseThrow(() -> TaskRequests.notFound(id));
+        log.debug("Task marked as completed successfully");
 
-        // Update status and delay of task and set date finish
-        task.setStatus(TaskStatus.COMPLETED);
-        task.setDelay(delay);
-        task.setFinDate(new Date());
-
-        Task taskCompleted = repository.save(task); // Update task in DB
-        log.info("Task marked as completed successfully");
-        return mapper.mapTaskToDetails(taskCompleted);
+        TaskDetails completed = new TaskDetails(taskId, previous.getDescription(), previous.getDuration(), finDate,
+            delay, TaskStatus.COMPLETED, previous.getVersion() + 1);
+        TaskDetailsDTO details = mapper.mapProjectionToDetails(completed);
+        recordStats(previous, -1);
+        recordStats(completed, 1);
+        // Task was PENDING, or COMPLETED and completed again
+        publisher.publishEvent(new TaskChangedEvent(TaskEventType.COMPLETED, details, TaskStatus.PENDING));
+        return details;
     }
 
     /**
@@ -153,58 +443,230 @@ public class TaskServiceImpl implements TaskService {
      */
     @Override
     public TaskDetailsDTO markTaskByIDAsDeleted(String id) throws TodoException {
-        Task task = searchTaskByID(id); // Search task
-
-        task.setStatus(TaskStatus.DELETED); //Mark task as deleted
-        Task taskDeleted = repository.save(task);
-        log.info("Task marked as deleted successfully");
+        UUID taskId = TaskRequests.parseId(id);
+        shards.bind(taskId);
+        edits.flush(List.of(taskId)); // Pending edit is written first
+        // Mark task as deleted, status before update is kept for stats
+        TaskDetails previous = repository.updateStatusReturningPrevious(taskId, TaskStatus.DELETED)
+            .orElseThrow(() -> TaskRequests.notFound(id));
+        log.debug("Task marked as deleted successfully");
 
-        return mapper.mapTaskToDetails(taskDeleted);
+        TaskDetails deleted = new TaskDetails(taskId, previous.getDescription(), previous.getDuration(),
+            previous.getFinDate(), previous.getDelay(), TaskStatus.DELETED, previous.getVersion() + 1);
+        recordStats(previous, -1);
+        recordStats(deleted, 1);
+        TaskDetailsDTO details = mapper.mapProjectionToDetails(deleted);
+        publisher.publishEvent(new TaskChangedEvent(TaskEventType.DELETED, details, previous.getStatus()));
+        return details;
     }
 
     /**
-     * Search optional task by ID
+     * Move an archived task back to task table, task stays deleted
      * @param id Task ID
-     * @return Task entity
+     * @return Restored task
      * @throws TodoException
      */
-    private Task searchTaskByID(String id) throws TodoException {
-        Optional<Task> optTask = repository.findById(id);
-        if (!optTask.isPresent()) {
-            log.error("Not found any task by ID: {}", id);
-            throw new TodoException(
-                AppConstants.NOT_FOUND_MESSAGE,
-                AppConstants.NOT_FOUND_CODE,
-                HttpStatus.NOT_FOUND
-            );
+    @Override
+    public TaskDetailsDTO restoreTaskByID(String id) throws TodoException {
+        UUID taskId = TaskRequests.parseId(id);
+        shards.bind(taskId);
+        if (!archiver.restore(taskId)) {
+            throw TaskRequests.notFound(id);
         }
+        log.debug("Task restored from archive successfully");
 
-        return optTask.get();
+        TaskDetailsDTO details = searchTaskDetailsByID(taskId);
+        recordStats(details, 1);
+        return details; // Not published, deleted tasks are not in any list
     }
 
     /**
-     * Validate task request
-     * @param task Task details
+     * Task counts and sums by status, read from stats counters
+     * @return Task stats
      * @throws TodoException
      */
-    private void validateTask(TaskDTO task) throws TodoException {
-        if (task.getDesc() == null || task.getDesc().trim().isEmpty() || task.getDesc().trim().length() > 100) {
-            log.error("Invalid task description: [{}]", task.getDesc());
-            throw new TodoException(
-                AppConstants.INVALID_DESC_MESSAGE,
-                AppConstants.INVALID_DESC_CODE,
-                HttpStatus.BAD_REQUEST
-            );
+    @Override
+    @Transactional(readOnly = true)
+    public TaskStatsDTO searchTaskStats() throws TodoException {
+        return stats.getStats();
+    }
+
+    /**
+     * Mark many tasks as completed in one transaction
+     * @param requests Task ID and delay of each task
+     * @return Result of each task in request order
+     * @throws TodoException
+     */
+    @Override
+    public List<TaskBatchResultDTO> markTasksAsCompleted(List<TaskCompletionDTO> requests) throws TodoException {
+        TaskRequests.validateBatch(requests);
+
+        TaskBatchResultDTO[] results = new TaskBatchResultDTO[requests.size()];
+        List<UUID> ids = new ArrayList<>();
+        Map<UUID, Float> delays = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TaskCompletionDTO request = requests.get(i);
+            if (request == null || (request.getId() != null && request.getDelay() == null)) {
+                log.error("Missing delay of task with ID: {}", request == null ? null : request.getId());
+                results[i] = new TaskBatchResultDTO(
+                    i, null, AppConstants.INVALID_DELAY_CODE, AppConstants.INVALID_DELAY_MESSAGE);
+                ids.add(null);
+                continue;
+            }
+
+            UUID id = TaskIds.parse(request.getId()); // Malformed IDs are not found
+            ids.add(id);
+            if (id != null) {
+                delays.put(id, request.getDelay()); // Last delay wins for repeated IDs
+            }
         }
 
-        if (task.getDuration() < 1) {
-            log.error("Invalid task duration: [{}]", task.getDuration());
-            throw new TodoException(
-                AppConstants.INVALID_DURATION_MESSAGE,
-                AppConstants.INVALID_DURATION_CODE,
-                HttpStatus.BAD_REQUEST
-            );
+        Date finDate = new Date();
+        return transitionTasks(ids, results, TaskEventType.COMPLETED, TaskStatus.PENDING, found -> {
+            // One UPDATE ... IN per distinct delay value
+            Map<Float, List<UUID>> idsByDelay = found.stream().collect(Collectors.groupingBy(delays::get));
+            idsByDelay.forEach((delay, group) -> repository.completeAllByIdIn(group, delay, finDate));
+        });
+    }
+
+    /**
+     * Mark many tasks as deleted in one transaction
+     * @param ids Task IDs
+     * @return Result of each task in request order
+     * @throws TodoException
+     */
+    @Override
+    public List<TaskBatchResultDTO> markTasksAsDeleted(List<String> ids) throws TodoException {
+        TaskRequests.validateBatch(ids);
+
+        List<UUID> taskIds = ids.stream().map(TaskIds::parse).collect(Collectors.toList()); // Malformed IDs are not found
+        return transitionTasks(taskIds, new TaskBatchResultDTO[ids.size()], TaskEventType.DELETED, null,
+            found -> repository.updateStatusByIdIn(found, TaskStatus.DELETED));
+    }
+
+    /**
+     * Apply a status transition to tasks in chunks. Rows are locked in ID order before the set-based update,
+     * so the outcome of each ID is exact and concurrent bulk requests do not deadlock.
+     * With sharding, tasks of each shard change in a transaction of that shard
+     * @param ids Task IDs in request order, null for items already rejected or malformed
+     * @param results Result of each item, rejected items are already filled
+     * @param type Change applied to tasks
+     * @param previousStatus Status of tasks before change, null if it is unknown
+     * @param update Set-based update of found task IDs
+     * @return Result of each task in request order
+     */
+    private List<TaskBatchResultDTO> transitionTasks(List<UUID> ids, TaskBatchResultDTO[] results,
+            TaskEventType type, TaskStatus previousStatus, Consumer<List<UUID>> update) {
+        List<UUID> distinct = ids.stream().filter(Objects::nonNull).distinct().sorted(TaskIds.ORDER)
+            .collect(Collectors.toList());
+
+        Map<UUID, TaskDetailsDTO> changed = new HashMap<>();
+        shards.groupByShard(distinct).forEach((shard, shardIds) -> shards.inShard(shard, () -> {
+            edits.flush(shardIds); // Pending edits are written first
+            for (int from = 0; from < shardIds.size(); from += AppConstants.BULK_CHUNK_SIZE) {
+                List<UUID> chunk = shardIds.subList(from, Math.min(from + AppConstants.BULK_CHUNK_SIZE, shardIds.size()));
+                // Deleted tasks are not found, values before update are kept for stats
+                List<TaskDetails> previous = repository.lockAllByIdInAndStatusNot(chunk, TaskStatus.DELETED);
+                if (previous.isEmpty()) {
+                    continue;
+                }
+
+                List<UUID> found = previous.stream().map(TaskDetails::getId).collect(Collectors.toList());
+                update.accept(found);
+                previous.forEach(task -> recordStats(task, -1));
+                repository.findAllByIdIn(found, TaskDetails.class).forEach(task -> {
+                    recordStats(task, 1);
+                    TaskDetailsDTO details = mapper.mapProjectionToDetails(task);
+                    changed.put(task.getId(), details);
+                    publisher.publishEvent(new TaskChangedEvent(type, details, previousStatus));
+                });
+            }
+        }));
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+
+            TaskDetailsDTO details = changed.get(ids.get(i));
+            results[i] = (details != null)
+                ? new TaskBatchResultDTO(i, details, null, null)
+                : new TaskBatchResultDTO(i, null, AppConstants.NOT_FOUND_CODE, AppConstants.NOT_FOUND_MESSAGE);
+        }
+
+        log.debug("Tasks changed to {}: {} of {}", type, changed.size(), ids.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Read a keyset page from every shard and merge them
+     * @param status Status to filter tasks, null for tasks not deleted
+     * @param fieldName Entity field used to sort
+     * @param direction Sort direction
+     * @param after Cursor of previous page, null for first page
+     * @param limit Max number of tasks
+     * @return Tasks in keyset order
+     */
+    private List<Task> searchMergedPage(TaskStatus status, String fieldName, Direction direction, TaskCursor after,
+            int limit) {
+        List<List<Task>> pages = shards.fanOut(shard -> (status != null)
+            ? repository.findPageByStatus(status, fieldName, direction, after, limit)
+            : repository.findPageByStatusNot(TaskStatus.DELETED, fieldName, direction, after, limit));
+        return ShardMerge.merge(pages, TaskCursor.order(fieldName, direction), limit);
+    }
+
+    /**
+     * Stream task list of every shard as a sequence of merged keyset pages, so memory stays bounded.
+     * Each page is read at its own point in time
+     * @param status Status to filter tasks, null for tasks not deleted
+     * @param fieldName Entity field used to sort
+     * @param direction Sort direction
+     * @param consumer Receive each task details in order
+     * @return Number of tasks streamed
+     */
+    private long streamMergedPages(TaskStatus status, String fieldName, Direction direction,
+            Consumer<TaskDetailsDTO> consumer) {
+        int pageSize = Integer.parseInt(AppConstants.STREAM_FETCH_SIZE);
+        long count = 0;
+        TaskCursor after = null;
+        List<Task> page;
+        do {
+            page = searchMergedPage(status, fieldName, direction, after, pageSize);
+            for (Task task : page) {
+                consumer.accept(edits.overlay(mapper.mapTaskToDetails(task)));
+                count++;
+            }
+            if (!page.isEmpty()) {
+                after = TaskCursor.after(page.get(page.size() - 1), fieldName, direction);
+            }
+        } while (page.size() == pageSize);
+
+        log.debug("Streamed {} tasks from {} shards with status: {} and order by {} {}",
+            count, shards.getShardCount(), status, fieldName, direction);
+        return count;
+    }
+
+    private void recordStats(TaskDetails task, int sign) {
+        stats.record(task.getStatus(), sign, sign * task.getDuration(), sign * task.getDelay());
+    }
+
+    private void recordStats(TaskDetailsDTO task, int sign) {
+        stats.record(TaskStatus.valueOf(task.getStatus()), sign, sign * task.getDuration(), sign * task.getDelay());
+    }
+
+    /**
+     * Search task details by ID without loading entity
+     * @param id Task ID
+     * @return Task details
+     * @throws TodoException
+     */
+    private TaskDetailsDTO searchTaskDetailsByID(UUID id) throws TodoException {
+        Optional<TaskDetails> optTask = repository.findDetailsById(id, TaskDetails.class);
+        if (!optTask.isPresent()) {
+            throw TaskRequests.notFound(id.toString());
         }
+
+        return mapper.mapProjectionToDetails(optTask.get());
     }
 
 }
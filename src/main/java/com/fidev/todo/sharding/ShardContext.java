@@ -0,0 +1,50 @@
+package com.fidev.todo.sharding;
+
+/**
+ * Shard used by the current thread, read by {@link ShardRoutingDataSource} when a transaction
+ * sends its first statement. A transaction keeps the connection of that shard until it ends.
+ */
+public class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Shard of current thread
+     * @return Shard index, null if none is bound
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Use a shard until returned scope is closed, previous shard is restored then
+     * @param shard Shard index
+     * @return Scope to close
+     */
+    public static Scope use(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return () -> set(previous);
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+
+    /**
+     * Shard binding of a block of code
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+}
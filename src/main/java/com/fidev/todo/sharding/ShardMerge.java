@@ -0,0 +1,61 @@
+package com.fidev.todo.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of lists read from each shard, every list already sorted in the same order
+ */
+public class ShardMerge {
+
+    private ShardMerge() {
+    }
+
+    /**
+     * Merge sorted lists, visiting only the items returned
+     * @param lists Sorted list of each shard
+     * @param order Order of every list
+     * @param limit Maximum number of items
+     * @return First items of all lists in order
+     */
+    public static <T> List<T> merge(List<List<T>> lists, Comparator<? super T> order, int limit) {
+        if (lists.size() == 1) {
+            List<T> only = lists.get(0);
+            return only.size() > limit ? only.subList(0, limit) : only;
+        }
+
+        // Head item of each list, smallest first
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, lists.size()),
+            (left, right) -> order.compare(left.item, right.item));
+        for (List<T> list : lists) {
+            Iterator<T> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head<>(iterator.next(), iterator));
+            }
+        }
+
+        List<T> merged = new ArrayList<>();
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.item);
+            if (head.rest.hasNext()) {
+                heads.add(new Head<>(head.rest.next(), head.rest));
+            }
+        }
+        return merged;
+    }
+
+    private static class Head<T> {
+        private final T item;
+        private final Iterator<T> rest;
+
+        Head(T item, Iterator<T> rest) {
+            this.item = item;
+            this.rest = rest;
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.fidev.todo.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import javax.annotation.PreDestroy;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Place of each task in the shards configured by todo.sharding.urls: shard is a hash of task ID.
+ * A transaction reads and writes one shard, bound before its first statement. Work over many shards
+ * runs one transaction per shard: reads in parallel, writes one shard after another.
+ * With sharding disabled there is a single shard and work runs in the caller's transaction.
+ * <p>
+ * Shard count can't change once tasks are saved, tasks are not moved between shards.
+ */
+
+@Slf4j
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+public class ShardRouter {
+
+    private final boolean enabled;
+    private final int count;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final ExecutorService executor;
+
+    public ShardRouter(
+        PlatformTransactionManager transactionManager,
+        @Value("${todo.sharding.enabled:false}") boolean enabled,
+        @Value("${todo.sharding.urls:}") List<String> urls,
+        @Value("${todo.sharding.fan-out-threads:16}") int fanOutThreads
+    ) {
+        this.enabled = enabled;
+        this.count = enabled ? urls.size() : 1;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        if (enabled) {
+            AtomicInteger threads = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(fanOutThreads, runnable -> {
+                Thread thread = new Thread(runnable, "task-shard-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            log.info("Tasks are sharded across {} databases", count);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getShardCount() {
+        return count;
+    }
+
+    /**
+     * Shard of a task, stable for the life of the task
+     * @param id Task ID
+     * @return Shard index
+     */
+    public int shardOf(UUID id) {
+        if (!enabled) {
+            return 0;
+        }
+
+        long hash = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL; // Mix all bits, timestamp bits alone are not uniform
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) Math.floorMod(hash ^ (hash >>> 33), (long) count);
+    }
+
+    /**
+     * Group task IDs by shard, keeping their order
+     * @param ids Task IDs
+     * @return IDs of each shard that has any, in shard order
+     */
+    public Map<Integer, List<UUID>> groupByShard(Collection<UUID> ids) {
+        Map<Integer, List<UUID>> groups = new TreeMap<>();
+        ids.forEach(id -> groups.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id));
+        return groups;
+    }
+
+    /**
+     * Route current transaction to the shard of a task, before it sends any statement
+     * @param id Task ID
+     * @throws IllegalStateException If transaction already uses another shard
+     */
+    public void bind(UUID id) {
+        if (!enabled) {
+            return;
+        }
+
+        int shard = shardOf(id);
+        Integer bound = ShardContext.current();
+        if (bound != null) {
+            if (bound != shard) {
+                throw new IllegalStateException("Task " + id + " is in shard " + shard + ", not in shard " + bound);
+            }
+            return;
+        }
+
+        ShardContext.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ShardContext.set(null);
+            }
+        });
+    }
+
+    /**
+     * Route work of current thread to a shard. Transactions started inside use it
+     * @param shard Shard index
+     * @return Scope to close when work is done
+     */
+    public ShardContext.Scope use(int shard) {
+        return enabled ? ShardContext.use(shard) : () -> { };
+    }
+
+    /**
+     * Write to a shard in its own transaction, or in caller's transaction without sharding
+     * @param shard Shard index
+     * @param work Work to run
+     */
+    public void inShard(int shard, Runnable work) {
+        if (!enabled) {
+            work.run();
+            return;
+        }
+
+        try (ShardContext.Scope scope = ShardContext.use(shard)) {
+            writeTemplate.executeWithoutResult(status -> work.run());
+        }
+    }
+
+    /**
+     * Read every shard in parallel, each in its own read-only transaction.
+     * Without sharding the only shard is read in caller's transaction
+     * @param work Read of a shard
+     * @return Result of each shard in shard order
+     */
+    public <T> List<T> fanOut(IntFunction<T> work) {
+        if (!enabled) {
+            return Collections.singletonList(work.apply(0));
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (int shard = 0; shard < count; shard++) {
+            int index = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try (ShardContext.Scope scope = ShardContext.use(index)) {
+                    return readTemplate.execute(status -> work.apply(index));
+                }
+            }, executor));
+        }
+
+        List<T> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+}
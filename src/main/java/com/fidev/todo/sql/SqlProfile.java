@@ -0,0 +1,80 @@
+package com.fidev.todo.sql;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * Statements run by one request: count, time, rows read or changed, and executions of each SQL.
+ * Bound to the request thread by {@link SqlProfileFilter}, statements run by other threads
+ * (shard fan-out, streamed responses) are not counted.
+ */
+
+@Getter
+public class SqlProfile {
+
+    public static final String ATTRIBUTE = SqlProfile.class.getName();
+
+    private static final ThreadLocal<SqlProfile> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+    private long rows;
+    private final Map<String, Integer> executions = new LinkedHashMap<>(); // In order of first execution
+
+    /**
+     * Profile of current thread
+     * @return Profile, null outside a request
+     */
+    static SqlProfile current() {
+        return CURRENT.get();
+    }
+
+    static SqlProfile start() {
+        SqlProfile profile = new SqlProfile();
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    void record(String sql, long nanos, long rows) {
+        this.statements++;
+        this.nanos += nanos;
+        this.rows += rows;
+        this.executions.merge(sql, 1, Integer::sum);
+    }
+
+    void addRows(long rows) {
+        this.rows += rows;
+    }
+
+    public long getMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    public Map<String, Integer> getExecutions() {
+        return Collections.unmodifiableMap(executions);
+    }
+
+    /**
+     * Statements run more than a number of times, usually a query per row of a previous query (N+1)
+     * @param threshold Executions allowed for the same SQL
+     * @return Executions of each SQL over threshold
+     */
+    public Map<String, Integer> getRepeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executions.forEach((sql, count) -> {
+            if (count > threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+}
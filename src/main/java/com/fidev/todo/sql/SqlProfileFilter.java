@@ -0,0 +1,97 @@
+package com.fidev.todo.sql;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Profile statements of each request, kept in request attribute {@link SqlProfile#ATTRIBUTE}.
+ * Statement count, time and rows are recorded per endpoint, and a SQL run more than
+ * todo.sql-profiler.repeat-threshold times in one request is logged as a possible N+1.
+ * Runs inside the request log filter, which writes the profile in its line.
+ */
+
+@Slf4j
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+@ConditionalOnProperty(name = "todo.sql-profiler.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SqlProfileFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_SUMMARY = "todo.sql.statements";
+    public static final String ROWS_SUMMARY = "todo.sql.rows";
+    public static final String TIMER_NAME = "todo.sql.time";
+
+    private final MeterRegistry registry;
+    private final int repeatThreshold;
+
+    public SqlProfileFilter(
+        MeterRegistry registry,
+        @Value("${todo.sql-profiler.repeat-threshold:3}") int repeatThreshold
+    ) {
+        this.registry = registry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        SqlProfile profile = SqlProfile.start();
+        request.setAttribute(SqlProfile.ATTRIBUTE, profile);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlProfile.stop();
+            record(request, profile);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlProfile profile) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+
+        DistributionSummary.builder(STATEMENTS_SUMMARY)
+            .description("Statements run by a request")
+            .tag("method", method)
+            .tag("uri", uri)
+            .register(registry)
+            .record(profile.getStatements());
+        DistributionSummary.builder(ROWS_SUMMARY)
+            .description("Rows read or changed by a request")
+            .tag("method", method)
+            .tag("uri", uri)
+            .register(registry)
+            .record(profile.getRows());
+        Timer.builder(TIMER_NAME)
+            .description("Statement time of a request")
+            .tag("method", method)
+            .tag("uri", uri)
+            .register(registry)
+            .record(profile.getNanos(), TimeUnit.NANOSECONDS);
+
+        profile.getRepeated(repeatThreshold).forEach((sql, count) ->
+            log.warn("Statement ran {} times in {} {}, possible N+1: {}", count, method, uri, sql));
+    }
+
+}
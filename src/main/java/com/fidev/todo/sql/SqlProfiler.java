@@ -0,0 +1,94 @@
+package com.fidev.todo.sql;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+
+/**
+ * Listener of the proxied task DataSource: times each statement, logs those slower than
+ * todo.sql-profiler.slow-threshold with their bound parameters, and adds them to the profile of the
+ * current request. Rows are those changed by updates and those read with ResultSet.next().
+ */
+
+@Slf4j
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+@ConditionalOnProperty(name = "todo.sql-profiler.enabled", havingValue = "true")
+public class SqlProfiler implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final String START = "start";
+
+    private final long slowThreshold;
+    private final DefaultQueryLogEntryCreator entries = new DefaultQueryLogEntryCreator();
+
+    public SqlProfiler(@Value("${todo.sql-profiler.slow-threshold:100ms}") Duration slowThreshold) {
+        this.slowThreshold = slowThreshold.toNanos();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        execution.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        long nanos = System.nanoTime() - execution.getCustomValue(START, Long.class);
+        if (nanos >= slowThreshold) {
+            log.warn("Slow statement took {} ms: {}", nanos / 1_000_000, entries.getLogEntry(execution, queries, false, false));
+        }
+
+        SqlProfile profile = SqlProfile.current();
+        if (profile != null) {
+            String sql = queries.size() == 1
+                ? queries.get(0).getQuery()
+                : queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+            profile.record(sql, nanos, changedRows(execution.getResult()));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext context) {
+        // Rows are counted once read
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext context) {
+        if (context.getTarget() instanceof ResultSet && Boolean.TRUE.equals(context.getResult())
+            && "next".equals(context.getMethod().getName())) {
+            SqlProfile profile = SqlProfile.current();
+            if (profile != null) {
+                profile.addRows(1);
+            }
+        }
+    }
+
+    private static long changedRows(Object result) {
+        if (result instanceof Number) {
+            return Math.max(0, ((Number) result).longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[]) { // Batch, negative counts are unknown
+            for (int count : (int[]) result) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+}
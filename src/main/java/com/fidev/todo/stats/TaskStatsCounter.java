@@ -0,0 +1,265 @@
+package com.fidev.todo.stats;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import com.fidev.todo.model.TaskStats;
+import com.fidev.todo.model.TaskStatsId;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskStatusTotals;
+import com.fidev.todo.replica.ReplicaContext;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.repositories.TaskStatsRepository;
+import com.fidev.todo.sharding.ShardContext;
+import com.fidev.todo.sharding.ShardRouter;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskStatsDTO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Task counts and sums by status kept in task_stats, so reading them does not scan task table.
+ * Changes recorded in a transaction are added up in memory and written with one UPDATE per status
+ * right before commit, so stats rows are locked only at the end of each transaction.
+ * A periodic reconciliation corrects drift from writes made outside TaskService.
+ * With sharding, each shard counts its own tasks and stats are summed over shards.
+ */
+
+@Slf4j
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+public class TaskStatsCounter {
+
+    public static final String DRIFT_COUNTER = "todo.stats.drift";
+
+    private final TaskStatsRepository statsRepository;
+    private final TaskRepository taskRepository;
+    private final ShardRouter shards;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final Counter drift;
+    private final int slots;
+
+    public TaskStatsCounter(
+        TaskStatsRepository statsRepository,
+        TaskRepository taskRepository,
+        ShardRouter shards,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry registry,
+        @Value("${todo.stats.slots:8}") int slots
+    ) {
+        this.statsRepository = statsRepository;
+        this.taskRepository = taskRepository;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.slots = Math.max(1, slots);
+        this.drift = Counter.builder(DRIFT_COUNTER)
+            .description("Task count corrected by stats reconciliation")
+            .register(registry);
+    }
+
+    /**
+     * Add a change to stats of a status, written when current transaction commits
+     * @param status Task status
+     * @param count Tasks added, negative when removed
+     * @param duration Duration added
+     * @param delay Delay added
+     */
+    public void record(TaskStatus status, long count, double duration, double delay) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(status, ThreadLocalRandom.current().nextInt(slots), count, duration, delay);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<TaskStatus, Change> changes = (Map<TaskStatus, Change>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new EnumMap<>(TaskStatus.class); // Iterated in status order, so stats rows are locked in order
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new StatsWriter(changes));
+        }
+
+        Change change = changes.computeIfAbsent(status, key -> new Change());
+        change.count += count;
+        change.duration += duration;
+        change.delay += delay;
+    }
+
+    /**
+     * Current stats, summed from a few rows whatever the number of tasks
+     * @return Task stats
+     */
+    public TaskStatsDTO getStats() {
+        Map<TaskStatus, Change> totals = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            totals.put(status, new Change());
+        }
+        shards.fanOut(shard -> statsRepository.findTotals()).forEach(shardTotals -> shardTotals.forEach(total -> {
+            Change sum = totals.get(total.getStatus());
+            sum.count += total.getCount();
+            sum.duration += total.getDuration();
+            sum.delay += total.getDelay();
+        }));
+        Change pending = totals.get(TaskStatus.PENDING);
+        Change completed = totals.get(TaskStatus.COMPLETED);
+
+        return new TaskStatsDTO(
+            pending.count,
+            completed.count,
+            totals.get(TaskStatus.DELETED).count,
+            pending.duration + completed.duration,
+            completed.count == 0 ? 0 : completed.delay / completed.count
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(
+        initialDelayString = "${todo.stats.reconcile-interval-ms:3600000}",
+        fixedDelayString = "${todo.stats.reconcile-interval-ms:3600000}"
+    )
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Task stats reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Correct stats with totals of task table. Both are read from the same snapshot, where every
+     * committed task change already has its stats change, and the difference is added as an increment,
+     * so writes made meanwhile are not lost and no lock is held while task table is scanned
+     * @return Task count corrected
+     */
+    public long reconcile() {
+        long corrected = 0;
+        try (ReplicaContext.Scope primary = ReplicaContext.usePrimary()) { // Corrections apply to primary state
+            for (int shard = 0; shard < shards.getShardCount(); shard++) {
+                try (ShardContext.Scope scope = shards.use(shard)) {
+                    corrected += reconcileShard();
+                }
+            }
+        }
+
+        drift.increment(corrected);
+        if (corrected > 0) {
+            log.warn("Task stats reconciled, count was off by {}", corrected);
+        }
+        return corrected;
+    }
+
+    private long reconcileShard() {
+        createMissingSlots();
+
+        List<List<TaskStatusTotals>> snapshot = snapshotTemplate.execute(status ->
+            List.of(statsRepository.findTotals(), taskRepository.findTotals()));
+        Map<TaskStatus, TaskStatusTotals> recorded = snapshot.get(0).stream()
+            .collect(Collectors.toMap(TaskStatusTotals::getStatus, total -> total));
+        Map<TaskStatus, TaskStatusTotals> actual = snapshot.get(1).stream()
+            .collect(Collectors.toMap(TaskStatusTotals::getStatus, total -> total));
+
+        long corrected = 0;
+        for (TaskStatus status : TaskStatus.values()) {
+            TaskStatusTotals from = recorded.get(status);
+            TaskStatusTotals to = actual.get(status);
+            long count = count(to) - count(from);
+            double duration = (to == null ? 0 : to.getDuration()) - (from == null ? 0 : from.getDuration());
+            double delay = (to == null ? 0 : to.getDelay()) - (from == null ? 0 : from.getDelay());
+            if (count != 0 || duration != 0 || delay != 0) {
+                transactionTemplate.executeWithoutResult(tx -> increment(status, 0, count, duration, delay));
+                corrected += Math.abs(count);
+            }
+        }
+        return corrected;
+    }
+
+    private void createMissingSlots() {
+        Set<TaskStatsId> existing = statsRepository.findAll().stream()
+            .map(stats -> new TaskStatsId(stats.getStatus(), stats.getSlot()))
+            .collect(Collectors.toSet());
+        List<TaskStats> missing = new ArrayList<>();
+        for (TaskStatus status : TaskStatus.values()) {
+            for (int slot = 0; slot < slots; slot++) {
+                if (!existing.contains(new TaskStatsId(status, slot))) {
+                    missing.add(new TaskStats(status, slot));
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> statsRepository.saveAll(missing));
+            } catch (DataIntegrityViolationException e) { // Created by another instance
+                log.info("Task stats slots already created");
+            }
+        }
+    }
+
+    private void increment(TaskStatus status, int slot, long count, double duration, double delay) {
+        if (statsRepository.increment(status, slot, count, duration, delay) == 0) {
+            log.warn("Missing task stats slot {} of {}, fixed by next reconciliation", slot, status);
+        }
+    }
+
+    private static long count(TaskStatusTotals totals) {
+        return totals == null ? 0 : totals.getCount();
+    }
+
+    private class StatsWriter implements TransactionSynchronization {
+
+        private final Map<TaskStatus, Change> changes;
+
+        StatsWriter(Map<TaskStatus, Change> changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            int slot = ThreadLocalRandom.current().nextInt(slots);
+            changes.forEach((status, change) -> {
+                if (change.count != 0 || change.duration != 0 || change.delay != 0) {
+                    increment(status, slot, change.count, change.duration, change.delay);
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TaskStatsCounter.this);
+        }
+    }
+
+    private static class Change { // Stats change of a status in one transaction
+        private long count;
+        private double duration;
+        private double delay;
+    }
+
+}
@@ -28,6 +28,44 @@ public class AppConstants {
     public static final String INVALID_DESC_MESSAGE = "La descripción de la tarea no es valida";
     public static final String NOT_FOUND_CODE = "NOT_FOUND";
     public static final String NOT_FOUND_MESSAGE = "No se encontró la tarea con el ID solicitado";
+    public static final String INVALID_CURSOR_CODE = "INVALID_CURSOR";
+    public static final String INVALID_CURSOR_MESSAGE = "El cursor de paginación no es valido";
+    public static final String INVALID_BATCH_CODE = "INVALID_BATCH";
+    public static final String INVALID_BATCH_MESSAGE = "El lote debe contener entre 1 y 500 tareas";
+    public static final String VERSION_MISMATCH_CODE = "VERSION_MISMATCH";
+    public static final String VERSION_MISMATCH_MESSAGE = "La tarea fue modificada por otra solicitud";
+    public static final String INVALID_DELAY_CODE = "INVALID_DELAY";
+    public static final String INVALID_DELAY_MESSAGE = "El tiempo dedicado a la tarea es requerido";
+    public static final String OVERLOADED_CODE = "OVERLOADED";
+    public static final String OVERLOADED_MESSAGE = "El servicio está saturado, intente de nuevo más tarde";
+    public static final String INVALID_QUERY_CODE = "INVALID_QUERY";
+    public static final String INVALID_QUERY_MESSAGE = "El texto a buscar debe tener entre 3 y 100 caracteres";
+
+    public static final int DEFAULT_PAGE_LIMIT = 50;
+    public static final int MAX_PAGE_LIMIT = 500;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final int BULK_CHUNK_SIZE = 100;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int MIN_SEARCH_LENGTH = 3; // One trigram
+
+    public static final String STREAM_FETCH_SIZE = "500";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String PROTOBUF_MEDIA_TYPE = "application/x-protobuf";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    public static final String ERROR_CODE_ATTRIBUTE = "com.fidev.todo.errorCode";
+    public static final String SUCCESS_OUTCOME = "SUCCESS";
+    public static final String ERROR_OUTCOME = "ERROR";
+    public static final String NONE_CODE = "NONE";
+
+    public static final String READ_LIMIT = "read";
+    public static final String WRITE_LIMIT = "write";
+
+    public static final String REACTIVE_PROFILE = "reactive"; // WebFlux and R2DBC instead of MVC and JPA
+    public static final String SEARCH_ENGINE_PROPERTY = "todo.search.engine";
+    public static final String MEMORY_SEARCH_ENGINE = "memory";
+    public static final String POSTGRES_SEARCH_ENGINE = "postgres";
 
     public static final Map<String, String> PARAMS = new HashMap<>();
 }
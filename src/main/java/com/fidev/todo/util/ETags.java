@@ -0,0 +1,73 @@
+package com.fidev.todo.util;
+
+import java.util.List;
+
+import com.fidev.todo.projections.TaskListVersion;
+
+/**
+ * Entity tags of task responses. Task tags are strong, they are matched by If-Match. List tags are weak:
+ * a list is served in several formats and encodings, and a strong tag would stop it from being compressed
+ */
+public class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Tag of a single task
+     * @param version Task version
+     * @return Quoted entity tag
+     */
+    public static String ofVersion(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Tag of a task list, computed from aggregate of tasks instead of response body
+     * @param list Count, sum of versions and last update of tasks in list
+     * @return Weak entity tag
+     */
+    public static String ofList(TaskListVersion list) {
+        return ofList(List.of(list), 0);
+    }
+
+    /**
+     * Tag of a task list read from several shards, with edits not yet written
+     * @param shards Count, sum of versions and last update of tasks in list of each shard
+     * @param edits Sequence of pending edits, 0 if there are none
+     * @return Weak entity tag
+     */
+    public static String ofList(List<TaskListVersion> shards, long edits) {
+        long count = 0;
+        long versions = 0;
+        long updatedAt = 0;
+        for (TaskListVersion list : shards) {
+            count += list.getCount();
+            versions += list.getVersions();
+            updatedAt = Math.max(updatedAt, list.getUpdatedAt() == null ? 0 : list.getUpdatedAt().getTime());
+        }
+
+        return "W/\"" + Long.toHexString(count)
+            + "-" + Long.toHexString(versions)
+            + "-" + Long.toHexString(updatedAt)
+            + (edits == 0 ? "" : "-" + Long.toHexString(edits)) + "\"";
+    }
+
+    /**
+     * Read task version from If-Match header
+     * @param tag Header value
+     * @return Task version, null if header is empty or matches any version
+     * @throws IllegalArgumentException If tag is not a task version
+     */
+    public static Long parseVersion(String tag) {
+        if (tag == null || tag.isBlank() || tag.trim().equals("*")) {
+            return null;
+        }
+
+        String value = tag.trim();
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            throw new IllegalArgumentException("Invalid entity tag: " + tag);
+        }
+        return Long.parseLong(value.substring(1, value.length() - 1));
+    }
+}
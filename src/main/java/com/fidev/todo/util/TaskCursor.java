@@ -0,0 +1,195 @@
+package com.fidev.todo.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.UUID;
+
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Opaque keyset cursor: last sort key and task ID of a page
+ */
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class TaskCursor {
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte FLOAT_VALUE = 2;
+    private static final byte DATE_VALUE = 3;
+    private static final byte STATUS_VALUE = 4;
+
+    private String fieldName;
+    private Direction direction;
+    private Comparable<?> value;
+    private UUID id;
+
+    /**
+     * Build cursor that points after the given task
+     * @param task Last task of page
+     * @param fieldName Entity field used to sort
+     * @param direction Sort direction
+     * @return Cursor to next page
+     */
+    public static TaskCursor after(Task task, String fieldName, Direction direction) {
+        return new TaskCursor(fieldName, direction, sortValue(task, fieldName), task.getId());
+    }
+
+    /**
+     * Read sort value of a task
+     * @param task Task entity
+     * @param fieldName Entity field used to sort
+     * @return Field value
+     */
+    public static Comparable<?> sortValue(Task task, String fieldName) {
+        switch (fieldName) {
+            case "description":
+                return task.getDescription();
+            case "finDate":
+                return task.getFinDate() == null ? null : new Timestamp(task.getFinDate().getTime());
+            case "duration":
+                return task.getDuration();
+            case "delay":
+                return task.getDelay();
+            case "status":
+                return task.getStatus();
+            default:
+                throw new IllegalArgumentException("Unknown sort field: " + fieldName);
+        }
+    }
+
+    /**
+     * Order of keyset pages in memory, to merge pages read from several databases: nulls lowest,
+     * then field value and task ID, reversed for descending order. Status is compared by its stored name
+     * and descriptions by code point, like a database with C collation
+     * @param fieldName Entity field used to sort
+     * @param direction Sort direction
+     * @return Task comparator
+     */
+    @SuppressWarnings("unchecked")
+    public static Comparator<Task> order(String fieldName, Direction direction) {
+        Comparator<Task> ascending = Comparator
+            .comparing((Task task) -> {
+                Comparable<?> value = sortValue(task, fieldName);
+                return (Comparable<Object>) (value instanceof TaskStatus ? ((TaskStatus) value).name() : value);
+            }, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Task::getId, TaskIds.ORDER);
+        return direction.isAscending() ? ascending : ascending.reversed();
+    }
+
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(fieldName);
+            out.writeUTF(direction.name());
+            if (value == null) {
+                out.writeByte(NULL_VALUE);
+            } else if (value instanceof String) {
+                out.writeByte(STRING_VALUE);
+                out.writeUTF((String) value);
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT_VALUE);
+                out.writeFloat((Float) value);
+            } else if (value instanceof Date) {
+                out.writeByte(DATE_VALUE);
+                out.writeLong(((Date) value).getTime());
+            } else {
+                out.writeByte(STATUS_VALUE);
+                out.writeUTF(((TaskStatus) value).name());
+            }
+            out.writeLong(id.getMostSignificantBits());
+            out.writeLong(id.getLeastSignificantBits());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decode cursor received from client
+     * @param cursor Encoded cursor
+     * @return Decoded cursor
+     * @throws IllegalArgumentException If cursor is malformed
+     */
+    public static TaskCursor decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            String fieldName = in.readUTF();
+            Direction direction = Direction.valueOf(in.readUTF());
+            Comparable<?> value;
+            byte type = in.readByte();
+            switch (type) {
+                case NULL_VALUE:
+                    value = null;
+                    break;
+                case STRING_VALUE:
+                    value = in.readUTF();
+                    break;
+                case FLOAT_VALUE:
+                    value = in.readFloat();
+                    break;
+                case DATE_VALUE:
+                    value = new Timestamp(in.readLong());
+                    break;
+                case STATUS_VALUE:
+                    value = TaskStatus.valueOf(in.readUTF());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown cursor value type: " + type);
+            }
+            UUID id = new UUID(in.readLong(), in.readLong());
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("Trailing bytes in cursor");
+            }
+
+            return new TaskCursor(fieldName, direction, value, id);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * Check that cursor was issued for the given sort and its value matches the field type
+     * @param fieldName Entity field used to sort
+     * @param direction Sort direction
+     * @return True if cursor can be used to seek
+     */
+    public boolean matches(String fieldName, Direction direction) {
+        if (!this.fieldName.equals(fieldName) || this.direction != direction) {
+            return false;
+        }
+        if (value == null) {
+            return "finDate".equals(fieldName);
+        }
+
+        switch (fieldName) {
+            case "description":
+                return value instanceof String;
+            case "finDate":
+                return value instanceof Date;
+            case "duration":
+            case "delay":
+                return value instanceof Float;
+            case "status":
+                return value instanceof TaskStatus;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.fidev.todo.util;
+
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered task IDs in UUID version 7 layout: 48 bit Unix milliseconds, 12 bit counter and 62 random bits.
+ * IDs generated by one instance are strictly increasing, so inserts append to the right edge of the primary key
+ * index instead of splitting random pages.
+ */
+public class TaskIds {
+
+    /** Same order as the database: unsigned comparison of the 16 bytes */
+    public static final Comparator<UUID> ORDER = Comparator
+        .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+        .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final int COUNTER_BITS = 12;
+    private static final AtomicLong LAST_STAMP = new AtomicLong(); // Milliseconds and counter of last ID
+
+    private TaskIds() {
+    }
+
+    /**
+     * Generate a new ID. The counter is incremented for IDs in the same millisecond and carries
+     * into the timestamp when it overflows, so order is kept even if the clock goes back
+     * @return Time-ordered UUID
+     */
+    public static UUID next() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        long stamp = LAST_STAMP.updateAndGet(last -> Math.max(last + 1, now));
+
+        long msb = (stamp >>> COUNTER_BITS) << 16 // unix_ts_ms
+            | 0x7000L // version 7
+            | (stamp & 0xFFFL); // rand_a used as counter
+        long lsb = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL
+            | 0x8000000000000000L; // RFC 4122 variant
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Parse ID received from client
+     * @param id ID in string form
+     * @return ID, null if it is missing or malformed
+     */
+    public static UUID parse(String id) {
+        if (id == null) {
+            return null;
+        }
+
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.fidev.todo.views;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskBatchResultDTO {
+    private int index; // Position of task in request
+    private TaskDetailsDTO task; // Task saved, null if it is invalid
+    private String code; // Error code, null if task was saved
+    private String message;
+}
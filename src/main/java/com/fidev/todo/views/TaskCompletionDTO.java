@@ -0,0 +1,17 @@
+package com.fidev.todo.views;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Setter
+@Getter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskCompletionDTO {
+    private String id;
+    private Float delay;
+}
@@ -1,5 +1,7 @@
 package com.fidev.todo.views;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,6 +16,9 @@ public class TaskDetailsDTO {
     private String desc;
     private float duration;
     private String finalDate;
+    @JsonIgnore // Served instead of finalDate with todo.api.epoch-dates and in binary formats
+    private Long finalTime; // Epoch milliseconds
     private float delay;
     private String status;
+    private long version;
 }
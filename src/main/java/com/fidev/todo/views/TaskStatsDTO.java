@@ -0,0 +1,18 @@
+package com.fidev.todo.views;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskStatsDTO {
+    private long pending;
+    private long completed;
+    private long deleted;
+    private double totalDuration; // Planned minutes of pending and completed tasks
+    private double averageDelay; // Of completed tasks
+}
@@ -0,0 +1,18 @@
+package com.fidev.todo.writebehind;
+
+import java.util.UUID;
+
+import com.fidev.todo.views.TaskDetailsDTO;
+
+import lombok.Value;
+
+/**
+ * Last description and duration accepted for a task and not yet written,
+ * with the state acknowledged to client
+ */
+
+@Value
+public class TaskEdit {
+    UUID id;
+    TaskDetailsDTO task;
+}
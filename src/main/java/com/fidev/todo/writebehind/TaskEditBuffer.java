@@ -0,0 +1,380 @@
+package com.fidev.todo.writebehind;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import com.fidev.todo.events.TaskChangedEvent;
+import com.fidev.todo.events.TaskEventType;
+import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.mappers.TaskMapper;
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.sharding.ShardContext;
+import com.fidev.todo.sharding.ShardRouter;
+import com.fidev.todo.stats.TaskStatsCounter;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.util.TaskIds;
+import com.fidev.todo.views.TaskDetailsDTO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional write-behind of task description edits (todo.write-behind.enabled). An edit is validated
+ * and acknowledged right away with the state the task will have once written, then kept in memory,
+ * where later edits of the same task replace it. Pending edits are written every flush interval,
+ * or sooner when max pending tasks is reached, in chunks of one transaction each.
+ * <p>
+ * Guarantees:
+ * <ul>
+ * <li>Durability: an acknowledged edit is lost if the process dies before next flush (at most one
+ * flush interval of edits). Pending edits are written on graceful shutdown.</li>
+ * <li>Ordering: last edit accepted for a task wins. Any other write to the same task through TaskService
+ * (complete, delete, conditional update, batches) writes its pending edit first, in its own transaction.
+ * A new edit of the task waits until that transaction completes, so it acknowledges the version after it.
+ * Edits of different tasks have no order between them.</li>
+ * <li>Read your writes: task reads, lists, pages, streams and searches of this instance return pending
+ * edits merged over stored tasks. List order, cursors, search matching and other instances see an edit
+ * once it is written.</li>
+ * <li>An edit of a task completed elsewhere before it is written is discarded, like a direct update.</li>
+ * </ul>
+ */
+
+@Slf4j
+@Component
+@Profile("!" + AppConstants.REACTIVE_PROFILE)
+public class TaskEditBuffer {
+
+    public static final String PENDING_GAUGE = "todo.write-behind.pending";
+    public static final String EDITS_COUNTER = "todo.write-behind.edits";
+    public static final String WRITES_COUNTER = "todo.write-behind.writes";
+    public static final String DISCARDED_COUNTER = "todo.write-behind.discarded";
+
+    /**
+     * Read stored task to edit, fails if it can't be edited
+     */
+    @FunctionalInterface
+    public interface TaskLoader {
+        TaskDetailsDTO load() throws TodoException;
+    }
+
+    private final Map<UUID, TaskEdit> pending = new ConcurrentHashMap<>();
+    // Edits are accepted under read lock and written under write lock, so an edit never reads
+    // a task that is being written and acknowledges the version it will get
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Tasks whose edit is written by a transaction not completed yet, edits of them wait for its outcome
+    private final Map<UUID, CompletableFuture<Void>> writing = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong(); // Edits accepted, part of list tags while pending
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final TaskRepository repository;
+    private final TaskMapper mapper;
+    private final ApplicationEventPublisher publisher;
+    private final TaskStatsCounter stats;
+    private final ShardRouter shards;
+    private final TransactionTemplate joinTemplate;
+    private final TransactionTemplate newTemplate;
+    private final boolean enabled;
+    private final int maxPending;
+    private final ScheduledExecutorService flusher;
+
+    private final Counter edits;
+    private final Counter writes;
+    private final Counter discarded;
+
+    public TaskEditBuffer(
+        TaskRepository repository,
+        TaskMapper mapper,
+        ApplicationEventPublisher publisher,
+        TaskStatsCounter stats,
+        ShardRouter shards,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry registry,
+        @Value("${todo.write-behind.enabled:false}") boolean enabled,
+        @Value("${todo.write-behind.flush-interval-ms:200}") long flushInterval,
+        @Value("${todo.write-behind.max-pending:500}") int maxPending
+    ) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.publisher = publisher;
+        this.stats = stats;
+        this.shards = shards;
+        this.joinTemplate = new TransactionTemplate(transactionManager);
+        this.newTemplate = new TransactionTemplate(transactionManager);
+        this.newTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+
+        Gauge.builder(PENDING_GAUGE, pending, Map::size)
+            .description("Tasks with an edit not yet written")
+            .register(registry);
+        this.edits = Counter.builder(EDITS_COUNTER)
+            .description("Task edits accepted for write-behind")
+            .register(registry);
+        this.writes = Counter.builder(WRITES_COUNTER)
+            .description("Task updates written for coalesced edits")
+            .register(registry);
+        this.discarded = Counter.builder(DISCARDED_COUNTER)
+            .description("Task edits discarded because task was completed or archived before write")
+            .register(registry);
+
+        if (enabled) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.flusher.scheduleWithFixedDelay(this::scheduledFlush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accept an edit of description and duration
+     * @param id Task ID
+     * @param description Validated description
+     * @param duration Validated duration
+     * @param loader Read stored task when it has no pending edit
+     * @return State task will have once edit is written
+     * @throws TodoException If loader fails
+     */
+    public TaskDetailsDTO put(UUID id, String description, float duration, TaskLoader loader) throws TodoException {
+        TaskDetailsDTO merged;
+        while (true) {
+            CompletableFuture<Void> written;
+            lock.readLock().lock();
+            try {
+                written = writing.get(id);
+                if (written == null) {
+                    merged = merge(id, description, duration, loader);
+                    break;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            written.join(); // Version of pending edit is spent or not once transaction completes
+        }
+
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::scheduledFlush);
+        }
+        return merged;
+    }
+
+    private TaskDetailsDTO merge(UUID id, String description, float duration, TaskLoader loader)
+            throws TodoException {
+        TaskEdit previous = pending.get(id);
+        // Burst of edits of one task reads it once, it can't change here without writing pending edit first
+        TaskDetailsDTO base = (previous != null) ? previous.getTask() : loader.load();
+        long version = (previous != null) ? base.getVersion() : base.getVersion() + 1; // One update per write
+        TaskDetailsDTO merged = new TaskDetailsDTO(base.getId(), description, duration, base.getFinalDate(),
+            base.getFinalTime(), base.getDelay(), base.getStatus(), version);
+        pending.put(id, new TaskEdit(id, merged));
+        sequence.incrementAndGet();
+        edits.increment();
+        return merged;
+    }
+
+    /**
+     * Merge pending edit over a stored task
+     * @param task Stored task details
+     * @return Task details with pending edit, same instance if it has none
+     */
+    public TaskDetailsDTO overlay(TaskDetailsDTO task) {
+        if (pending.isEmpty()) {
+            return task;
+        }
+
+        TaskEdit edit = pending.get(TaskIds.parse(task.getId()));
+        if (edit == null || task.getVersion() >= edit.getTask().getVersion()) { // Already written
+            return task;
+        }
+        return new TaskDetailsDTO(task.getId(), edit.getTask().getDesc(), edit.getTask().getDuration(),
+            task.getFinalDate(), task.getFinalTime(), task.getDelay(), task.getStatus(), edit.getTask().getVersion());
+    }
+
+    /**
+     * Merge pending edits over stored tasks
+     * @param tasks Stored task details, not modified
+     * @return Task details with pending edits, same list if there are none
+     */
+    public List<TaskDetailsDTO> overlay(List<TaskDetailsDTO> tasks) {
+        if (pending.isEmpty()) {
+            return tasks;
+        }
+        return tasks.stream().map(this::overlay).collect(Collectors.toList());
+    }
+
+    /**
+     * Edits accepted so far while some are pending, 0 when all are written
+     * @return Edit sequence
+     */
+    public long getPendingSequence() {
+        return pending.isEmpty() ? 0 : sequence.get();
+    }
+
+    /**
+     * Write pending edits of tasks in current transaction, before another write to them.
+     * Edits are released once it commits, and written again later if it rolls back.
+     * Meanwhile new edits of these tasks wait for the transaction to complete
+     * @param ids Task IDs
+     */
+    public void flush(Collection<UUID> ids) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<TaskEdit> selected = ids.stream().filter(id -> id != null).map(pending::get)
+            .filter(edit -> edit != null).collect(Collectors.toList());
+        if (selected.isEmpty()) {
+            return;
+        }
+
+        boolean synchronizedWrite = TransactionSynchronizationManager.isSynchronizationActive();
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        lock.writeLock().lock();
+        try {
+            joinTemplate.executeWithoutResult(status -> write(selected));
+            if (synchronizedWrite) {
+                selected.forEach(edit -> writing.put(edit.getId(), written));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (synchronizedWrite) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        release(selected);
+                    }
+                    selected.forEach(edit -> writing.remove(edit.getId(), written));
+                    written.complete(null);
+                }
+            });
+        } else {
+            release(selected);
+        }
+    }
+
+    /**
+     * Write every pending edit, in chunks of one transaction each, chunks hold edits of a single shard
+     * @return Edits written or discarded
+     */
+    public int flushAll() {
+        int done = 0;
+        lock.writeLock().lock();
+        try {
+            Map<Integer, List<UUID>> byShard = shards.groupByShard(new ArrayList<>(pending.keySet()));
+            for (Map.Entry<Integer, List<UUID>> group : byShard.entrySet()) {
+                List<TaskEdit> selected = group.getValue().stream().map(pending::get).collect(Collectors.toList());
+                try (ShardContext.Scope scope = shards.use(group.getKey())) {
+                    for (int from = 0; from < selected.size(); from += AppConstants.BULK_CHUNK_SIZE) {
+                        List<TaskEdit> chunk = selected.subList(from, Math.min(from + AppConstants.BULK_CHUNK_SIZE, selected.size()));
+                        newTemplate.executeWithoutResult(status -> write(chunk));
+                        release(chunk);
+                        done += chunk.size();
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return done;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        int written = flushAll();
+        log.info("Wrote {} pending task edits on shutdown", written);
+    }
+
+    private void scheduledFlush() {
+        flushRequested.set(false);
+        try {
+            flushAll();
+        } catch (RuntimeException e) { // Edits stay pending and are written on next flush
+            log.error("Can't write {} pending task edits", pending.size(), e);
+        }
+    }
+
+    private void write(List<TaskEdit> chunk) {
+        Map<UUID, TaskEdit> byId = chunk.stream().collect(Collectors.toMap(TaskEdit::getId, edit -> edit));
+        List<Task> tasks = repository.findAllByIdInOrderById(byId.keySet()); // Locked in ID order, no deadlocks
+        List<Task> updated = new ArrayList<>();
+        for (Task task : tasks) {
+            TaskEdit edit = byId.get(task.getId());
+            if (task.getStatus() == TaskStatus.COMPLETED) { // Same rule as a direct update
+                log.warn("Discard edit of task with ID: {}. It is completed", task.getId());
+                discarded.increment();
+                continue;
+            }
+
+            stats.record(task.getStatus(), 0, edit.getTask().getDuration() - task.getDuration(), 0);
+            if (task.getDescription().equals(edit.getTask().getDesc()) && task.getDuration() == edit.getTask().getDuration()) {
+                task.setUpdatedAt(new Date()); // Still one new version, the one acknowledged
+            }
+            task.setDescription(edit.getTask().getDesc());
+            task.setDuration(edit.getTask().getDuration());
+            updated.add(task);
+        }
+        discarded.increment(chunk.size() - tasks.size()); // Archived meanwhile
+        repository.flush(); // Updates are sent in JDBC batches
+
+        for (Task task : updated) {
+            TaskDetailsDTO details = mapper.mapTaskToDetails(task);
+            publisher.publishEvent(new TaskChangedEvent(TaskEventType.UPDATED, details, task.getStatus()));
+        }
+        writes.increment(updated.size());
+        log.info("Wrote {} of {} pending task edits", updated.size(), chunk.size());
+    }
+
+    private void release(List<TaskEdit> written) {
+        written.forEach(edit -> pending.remove(edit.getId(), edit)); // Kept if replaced by a newer edit
+    }
+
+}
@@ -0,0 +1,23 @@
+-- Migrate text task IDs to native uuid, existing values are canonical UUID strings.
+-- Body is single quoted so the script splitter keeps it as one statement
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+            WHERE table_name = ''task'' AND column_name = ''task_id'' AND data_type = ''character varying'') THEN
+        ALTER TABLE task ALTER COLUMN task_id TYPE uuid USING task_id::uuid;
+    END IF;
+END';
+
+-- Default task list (not deleted) sorted by each field, deleted tasks are left out of the index
+CREATE INDEX IF NOT EXISTS idx_task_live_status ON task (status, task_id) WHERE status <> 'DELETED';
+CREATE INDEX IF NOT EXISTS idx_task_live_description ON task (description, task_id) WHERE status <> 'DELETED';
+CREATE INDEX IF NOT EXISTS idx_task_live_finalized_at ON task (finalized_at, task_id) WHERE status <> 'DELETED';
+CREATE INDEX IF NOT EXISTS idx_task_live_duration ON task (duration, task_id) WHERE status <> 'DELETED';
+CREATE INDEX IF NOT EXISTS idx_task_live_delay ON task (delay, task_id) WHERE status <> 'DELETED';
+
+-- Deleted tasks walked in task ID order by archiver
+CREATE INDEX IF NOT EXISTS idx_task_deleted ON task (task_id) WHERE status = 'DELETED';
+
+-- Substring search over task descriptions, pg_trgm must be available to the database
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_task_description_trgm ON task USING gin (lower(description) gin_trgm_ops);
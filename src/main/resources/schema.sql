@@ -1,9 +1,52 @@
 CREATE TABLE IF NOT EXISTS task (
-    task_id VARCHAR(36) NOT NULL,
+    task_id UUID NOT NULL,
     delay REAL,
     description VARCHAR(100) NOT NULL,
     duration REAL NOT NULL,
     finalized_at TIMESTAMP,
     status VARCHAR(10) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    updated_at TIMESTAMP,
     PRIMARY KEY (task_id)
 );
+
+-- Columns added to tables created before task versioning
+ALTER TABLE task ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE task ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+
+-- Task list filtered by status and sorted by each field (task_id breaks ties for keyset pagination)
+CREATE INDEX IF NOT EXISTS idx_task_status_description ON task (status, description, task_id);
+CREATE INDEX IF NOT EXISTS idx_task_status_finalized_at ON task (status, finalized_at, task_id);
+CREATE INDEX IF NOT EXISTS idx_task_status_duration ON task (status, duration, task_id);
+CREATE INDEX IF NOT EXISTS idx_task_status_delay ON task (status, delay, task_id);
+
+-- Deleted tasks moved out of task table by archiver
+CREATE TABLE IF NOT EXISTS task_archive (
+    task_id UUID NOT NULL,
+    delay REAL,
+    description VARCHAR(100) NOT NULL,
+    duration REAL NOT NULL,
+    finalized_at TIMESTAMP,
+    status VARCHAR(10) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (task_id)
+);
+
+-- Task counts and sums by status, kept up to date by task writes
+CREATE TABLE IF NOT EXISTS task_stats (
+    status VARCHAR(10) NOT NULL,
+    slot INT NOT NULL,
+    task_count BIGINT DEFAULT 0 NOT NULL,
+    total_duration DOUBLE PRECISION DEFAULT 0 NOT NULL,
+    total_delay DOUBLE PRECISION DEFAULT 0 NOT NULL,
+    PRIMARY KEY (status, slot)
+);
+
+-- Checksum of schema scripts last applied, read when todo.schema.skip-if-current is set
+CREATE TABLE IF NOT EXISTS task_schema (
+    checksum VARCHAR(64) NOT NULL,
+    applied_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (checksum)
+);
@@ -0,0 +1,79 @@
+package com.fidev.todo.config;
+
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskArchive;
+import com.fidev.todo.model.TaskStats;
+import com.fidev.todo.model.TaskStatsId;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskArchiveBacklog;
+import com.fidev.todo.projections.TaskDetails;
+import com.fidev.todo.projections.TaskID;
+import com.fidev.todo.projections.TaskListVersion;
+import com.fidev.todo.projections.TaskStatusTotals;
+import com.fidev.todo.views.TaskBatchResultDTO;
+import com.fidev.todo.views.TaskCompletionDTO;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskDetailsDTO;
+import com.fidev.todo.views.TaskPageDTO;
+import com.fidev.todo.views.TaskStatsDTO;
+import com.fidev.todo.views.proto.TaskProto;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.nativex.hint.JdkProxyHint;
+import org.springframework.nativex.hint.NativeHint;
+import org.springframework.nativex.hint.ResourceHint;
+import org.springframework.nativex.hint.TypeAccess;
+import org.springframework.nativex.hint.TypeHint;
+
+/**
+ * Reflection and proxy hints of the native image (native Maven profile), for what Spring AOT can't infer:
+ * entities hydrated by Hibernate and built by JPQL constructor expressions, Lombok DTOs read and written by
+ * Jackson, interface projections of TaskRepository, protobuf messages and JDBC proxies of the SQL profiler.
+ */
+
+@Configuration(proxyBeanMethods = false)
+@NativeHint(
+    types = {
+        @TypeHint(types = {
+            Task.class, TaskArchive.class, TaskStats.class, TaskStatsId.class, TaskStatus.class, TaskDetails.class
+        }, access = {
+            TypeAccess.DECLARED_CONSTRUCTORS, TypeAccess.DECLARED_FIELDS, TypeAccess.DECLARED_METHODS
+        }),
+        @TypeHint(types = {
+            TaskDTO.class, TaskDetailsDTO.class, TaskPageDTO.class, TaskBatchResultDTO.class,
+            TaskCompletionDTO.class, TaskStatsDTO.class, SerializationConfig.EpochDates.class
+        }, access = {
+            TypeAccess.DECLARED_CONSTRUCTORS, TypeAccess.DECLARED_FIELDS, TypeAccess.PUBLIC_METHODS
+        }),
+        @TypeHint(types = {
+            TaskProto.TaskDetails.class, TaskProto.TaskDetails.Builder.class,
+            TaskProto.TaskDetailsList.class, TaskProto.TaskDetailsList.Builder.class
+        }, access = TypeAccess.PUBLIC_METHODS)
+    },
+    jdkProxies = {
+        @JdkProxyHint(types = TaskID.class, typeNames = {
+            "org.springframework.data.projection.TargetAware", "org.springframework.aop.SpringProxy",
+            "org.springframework.core.DecoratingProxy"
+        }),
+        @JdkProxyHint(types = TaskListVersion.class, typeNames = {
+            "org.springframework.data.projection.TargetAware", "org.springframework.aop.SpringProxy",
+            "org.springframework.core.DecoratingProxy"
+        }),
+        @JdkProxyHint(types = TaskStatusTotals.class, typeNames = {
+            "org.springframework.data.projection.TargetAware", "org.springframework.aop.SpringProxy",
+            "org.springframework.core.DecoratingProxy"
+        }),
+        @JdkProxyHint(types = TaskArchiveBacklog.class, typeNames = {
+            "org.springframework.data.projection.TargetAware", "org.springframework.aop.SpringProxy",
+            "org.springframework.core.DecoratingProxy"
+        }),
+        @JdkProxyHint(typeNames = {"net.ttddyy.dsproxy.proxy.ProxyJdbcObject", "java.sql.Connection"}),
+        @JdkProxyHint(typeNames = {"net.ttddyy.dsproxy.proxy.ProxyJdbcObject", "java.sql.Statement"}),
+        @JdkProxyHint(typeNames = {"net.ttddyy.dsproxy.proxy.ProxyJdbcObject", "java.sql.PreparedStatement"}),
+        @JdkProxyHint(typeNames = {"net.ttddyy.dsproxy.proxy.ProxyJdbcObject", "java.sql.CallableStatement"}),
+        @JdkProxyHint(typeNames = {"net.ttddyy.dsproxy.proxy.ProxyJdbcObject", "java.sql.ResultSet"})
+    },
+    resources = @ResourceHint(patterns = {"schema.*\\.sql", "logback-spring.xml"})
+)
+public class NativeHints {
+}
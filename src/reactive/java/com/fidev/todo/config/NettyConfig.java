@@ -0,0 +1,23 @@
+package com.fidev.todo.config;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Serve reactive profile on Netty, otherwise Spring Boot picks Tomcat that is also in classpath
+ */
+
+@Configuration
+@Profile(AppConstants.REACTIVE_PROFILE)
+public class NettyConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory(); // Port and other server.* properties applied by customizers
+    }
+
+}
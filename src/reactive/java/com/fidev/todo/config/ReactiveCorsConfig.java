@@ -0,0 +1,21 @@
+package com.fidev.todo.config;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+@Configuration
+@Profile(AppConstants.REACTIVE_PROFILE)
+public class ReactiveCorsConfig implements WebFluxConfigurer {
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping("/**").allowedMethods("GET", "POST","PUT", "DELETE")
+            .exposedHeaders(AppConstants.NEXT_CURSOR_HEADER, HttpHeaders.ETAG);
+    }
+
+}
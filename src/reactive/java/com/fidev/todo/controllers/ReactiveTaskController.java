@@ -0,0 +1,178 @@
+package com.fidev.todo.controllers;
+
+import java.util.List;
+
+import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.logging.ReactiveRequestLogFilter;
+import com.fidev.todo.service.ReactiveTaskService;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.util.ETags;
+import com.fidev.todo.views.TaskBatchResultDTO;
+import com.fidev.todo.views.TaskCompletionDTO;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskDetailsDTO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same /task contract as TaskController with non-blocking handlers, except the endpoints backed by JPA or
+ * servlet only components, that answer 404 in this profile: /events (SSE broadcaster), /search (text index),
+ * /stats (stats counters written in JPA transactions) and /{id}/restore (archive).
+ */
+
+@Slf4j
+@RestController
+@RequestMapping("/task")
+@Profile(AppConstants.REACTIVE_PROFILE)
+public class ReactiveTaskController {
+
+    private ReactiveTaskService service;
+
+    @Autowired
+    public void setTaskService(ReactiveTaskService service) {
+        this.service = service;
+    }
+
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping // Save task
+    public Mono<TaskDetailsDTO> saveNewTask(@RequestBody TaskDTO request, ServerWebExchange exchange) {
+        log.debug("Save new task: {}", request.getDesc());
+
+        return service.saveNewTask(request)
+            .doOnNext(task -> ReactiveRequestLogFilter.setTaskId(exchange, task.getId()));
+    }
+
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping("/batch") // Save task batch
+    public Mono<List<TaskBatchResultDTO>> saveNewTasks(@RequestBody List<TaskDTO> requests) {
+        log.debug("Save batch of {} tasks", requests.size());
+
+        return service.saveNewTasks(requests);
+    }
+
+    @GetMapping // Search task list
+    public Mono<ResponseEntity<List<TaskDetailsDTO>>> searchTaskList(
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) String orderBy,
+        @RequestParam(required = false) String order,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor,
+        ServerWebExchange exchange
+    ) {
+        // Tag is computed before list, so a list changed meanwhile is returned again on next request
+        return service.searchTaskListTag(status).flatMap(etag -> {
+            if (exchange.checkNotModified(etag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build());
+            }
+
+            if (limit == null && cursor == null) {
+                log.debug("Search task list by status: {} and sort by: {} {}", status, orderBy, order);
+
+                return service.searchTaskList(status, orderBy, order).collectList()
+                    .map(tasks -> ResponseEntity.ok().eTag(etag).body(tasks));
+            }
+
+            log.debug("Search task page by status: {} and sort by: {} {} limit: {}", status, orderBy, order, limit);
+            return service.searchTaskPage(status, orderBy, order, limit, cursor).map(page -> {
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+                if (page.getNextCursor() != null) { // Cursor to request next page
+                    response.header(AppConstants.NEXT_CURSOR_HEADER, page.getNextCursor());
+                }
+                return response.body(page.getTasks());
+            });
+        });
+    }
+
+    @GetMapping(value = "/stream", produces = AppConstants.NDJSON_MEDIA_TYPE) // Stream task list as NDJSON
+    public Flux<TaskDetailsDTO> streamTaskList(
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) String orderBy,
+        @RequestParam(required = false) String order
+    ) {
+        log.debug("Stream task list by status: {} and sort by: {} {}", status, orderBy, order);
+
+        return service.searchTaskList(status, orderBy, order);
+    }
+
+    @GetMapping("/{id}") // Search task by TaskID
+    public Mono<ResponseEntity<TaskDetailsDTO>> searchTaskByID(@PathVariable String id) {
+        log.debug("Search task with id: {}", id);
+
+        // 304 Not Modified is answered by WebFlux when If-None-Match has the same tag
+        return service.searchTaskByID(id)
+            .map(task -> ResponseEntity.ok().eTag(ETags.ofVersion(task.getVersion())).body(task));
+    }
+
+    @PutMapping("/{id}") // Update task by TaskID
+    public Mono<ResponseEntity<TaskDetailsDTO>> updateTaskByID(
+        @PathVariable String id,
+        @RequestBody TaskDTO update,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        log.debug("Update task with id: {}", id);
+
+        Long version;
+        try { // Reject lost updates if client sends the version it modified
+            version = ETags.parseVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid If-Match header: [{}]", ifMatch);
+            return Mono.error(new TodoException(
+                AppConstants.VERSION_MISMATCH_MESSAGE,
+                AppConstants.VERSION_MISMATCH_CODE,
+                HttpStatus.PRECONDITION_FAILED
+            ));
+        }
+
+        return service.updateTaskByID(id, update, version)
+            .map(task -> ResponseEntity.ok().eTag(ETags.ofVersion(task.getVersion())).body(task));
+    }
+
+    @PutMapping("/{id}/status") // Mark task as completed
+    public Mono<TaskDetailsDTO> markTaskAsCompleted(@PathVariable String id, @RequestParam(required = true) Float delay) {
+        log.debug("Mark task with id: {} as completed in {} minutes", id, delay);
+
+        return service.markTaskByIDAsCompleted(id, delay);
+    }
+
+    @DeleteMapping("/{id}/status") // Mark task as deleted
+    public Mono<TaskDetailsDTO> markTaskAsDeleted(@PathVariable String id) {
+        log.debug("Mark task with ID: {} as deleted", id);
+
+        return service.markTaskByIDAsDeleted(id);
+    }
+
+    @PutMapping("/batch/status") // Mark many tasks as completed
+    public Mono<List<TaskBatchResultDTO>> markTasksAsCompleted(@RequestBody List<TaskCompletionDTO> requests) {
+        log.debug("Mark batch of {} tasks as completed", requests.size());
+
+        return service.markTasksAsCompleted(requests);
+    }
+
+    @DeleteMapping("/batch/status") // Mark many tasks as deleted
+    public Mono<List<TaskBatchResultDTO>> markTasksAsDeleted(@RequestBody List<String> ids) {
+        log.debug("Mark batch of {} tasks as deleted", ids.size());
+
+        return service.markTasksAsDeleted(ids);
+    }
+
+}
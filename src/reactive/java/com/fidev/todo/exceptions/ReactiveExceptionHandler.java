@@ -0,0 +1,22 @@
+package com.fidev.todo.exceptions;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+
+@ControllerAdvice
+@Profile(AppConstants.REACTIVE_PROFILE)
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(TodoException.class)
+    public HttpEntity<Object> handleTodoException(TodoException e, ServerWebExchange exchange) {
+        exchange.getAttributes().put(AppConstants.ERROR_CODE_ATTRIBUTE, e.getCode()); // Code of request log line
+        return new ResponseEntity<>(e.toResponse(), e.getStatus());
+    }
+
+}
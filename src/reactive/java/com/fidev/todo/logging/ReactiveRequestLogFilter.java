@@ -0,0 +1,117 @@
+package com.fidev.todo.logging;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.fidev.todo.util.AppConstants;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Line of RequestLogFilter for the reactive profile, with the same todo.logging.requests settings.
+ * There is no SQL profile, R2DBC statements don't go through the proxied DataSource.
+ */
+
+@Component
+@Profile(AppConstants.REACTIVE_PROFILE)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveRequestLogFilter implements WebFilter {
+
+    private static final Logger requests = LoggerFactory.getLogger(RequestLogFilter.LOGGER);
+    private static final String TASK_ID_ATTRIBUTE = ReactiveRequestLogFilter.class.getName() + ".TASK_ID";
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThreshold;
+
+    public ReactiveRequestLogFilter(
+        @Value("${todo.logging.requests.enabled:true}") boolean enabled,
+        @Value("${todo.logging.requests.sample-rate:0.1}") double sampleRate,
+        @Value("${todo.logging.requests.slow-threshold:1s}") Duration slowThreshold
+    ) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThreshold = slowThreshold.toNanos();
+    }
+
+    /**
+     * Task of the exchange when it is not a path variable, e.g. a new task
+     * @param exchange Current exchange
+     * @param id Task ID
+     */
+    public static void setTaskId(ServerWebExchange exchange, Object id) {
+        exchange.getAttributes().put(TASK_ID_ATTRIBUTE, id);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled || !requests.isWarnEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+            .doOnError(e -> write(exchange, status(e), start)) // Answered after the filter by the error handler
+            .doFinally(signal -> {
+                if (signal != SignalType.ON_ERROR) { // Streams are written when they end or the client leaves
+                    Integer status = exchange.getResponse().getRawStatusCode();
+                    write(exchange, status == null ? HttpStatus.OK.value() : status, start);
+                }
+            });
+    }
+
+    private void write(ServerWebExchange exchange, int status, long start) {
+        long duration = System.nanoTime() - start;
+        boolean error = status >= 400;
+        if (!error && duration < slowThreshold && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        Object[] fields = {
+            exchange.getRequest().getMethodValue(),
+            exchange.getRequest().getPath().value(),
+            status,
+            TimeUnit.NANOSECONDS.toMillis(duration),
+            taskId(exchange),
+            RequestLogFilter.valueOf(exchange.getAttribute(AppConstants.ERROR_CODE_ATTRIBUTE))
+        };
+        if (error) {
+            requests.warn(RequestLogFilter.FORMAT, fields);
+        } else {
+            requests.info(RequestLogFilter.FORMAT, fields);
+        }
+    }
+
+    private static int status(Throwable e) {
+        return e instanceof ResponseStatusException
+            ? ((ResponseStatusException) e).getRawStatusCode()
+            : HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    private static Object taskId(ServerWebExchange exchange) {
+        Object id = exchange.getAttribute(TASK_ID_ATTRIBUTE);
+        if (id == null) {
+            Object variables = exchange.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            id = variables instanceof Map ? ((Map<?, ?>) variables).get("id") : null;
+        }
+        return RequestLogFilter.valueOf(id);
+    }
+
+}
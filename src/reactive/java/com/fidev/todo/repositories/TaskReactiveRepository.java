@@ -0,0 +1,330 @@
+package com.fidev.todo.repositories;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskListVersion;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.util.TaskCursor;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.Statement;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC counterpart of TaskRepository for the reactive profile. Statements mirror the JPQL ones:
+ * conditional updates bump version and update time in a single statement, bulk transitions lock rows
+ * in ID order and pages are located by keyset with null values ranked lowest.
+ */
+
+@Repository
+@Profile(AppConstants.REACTIVE_PROFILE)
+public class TaskReactiveRepository {
+
+    private static final Map<String, String> COLUMNS = Map.of(
+        "description", "description",
+        "finDate", "finalized_at",
+        "duration", "duration",
+        "delay", "delay",
+        "status", "status"
+    );
+    private static final Set<String> NULLABLE_FIELDS = Set.of("finDate");
+    private static final String SELECT_TASK =
+        "SELECT task_id, description, duration, finalized_at, delay, status, version, updated_at FROM task ";
+    private static final String INSERT_TASK = "INSERT INTO task "
+        + "(task_id, description, duration, finalized_at, delay, status, version, updated_at) "
+        + "VALUES ($1, $2, $3, $4, $5, $6, $7, $8)";
+    private static final String BUMP_VERSION = "version = version + 1, updated_at = CURRENT_TIMESTAMP";
+
+    private final DatabaseClient client;
+
+    public TaskReactiveRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Insert new tasks in a single batched statement
+     * @param tasks Tasks with ID already assigned
+     * @return Number of rows inserted
+     */
+    public Mono<Integer> saveAll(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return Mono.just(0);
+        }
+
+        return client.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_TASK);
+            for (int i = 0; i < tasks.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                bindTask(statement, tasks.get(i));
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        }).reduce(0, Integer::sum);
+    }
+
+    public Flux<Task> findAllByStatus(TaskStatus status, String fieldName, Direction direction) {
+        return findAll(status, false, fieldName, direction);
+    }
+
+    public Flux<Task> findAllByStatusNot(TaskStatus status, String fieldName, Direction direction) {
+        return findAll(status, true, fieldName, direction);
+    }
+
+    public Flux<Task> findPageByStatus(TaskStatus status, String fieldName, Direction direction, TaskCursor after,
+            int limit) {
+        return findPage(status, false, fieldName, direction, after, limit);
+    }
+
+    public Flux<Task> findPageByStatusNot(TaskStatus status, String fieldName, Direction direction, TaskCursor after,
+            int limit) {
+        return findPage(status, true, fieldName, direction, after, limit);
+    }
+
+    public Mono<Task> findById(UUID id) {
+        return client.sql(SELECT_TASK + "WHERE task_id = :id")
+            .bind("id", id)
+            .map((row, metadata) -> mapTask(row))
+            .one();
+    }
+
+    public Flux<Task> findAllByIdIn(Collection<UUID> ids) {
+        return client.sql(SELECT_TASK + "WHERE task_id IN (:ids)")
+            .bind("ids", ids)
+            .map((row, metadata) -> mapTask(row))
+            .all();
+    }
+
+    public Mono<TaskListVersion> findListVersionByStatus(TaskStatus status) {
+        return findListVersion("status = :status", status);
+    }
+
+    public Mono<TaskListVersion> findListVersionByStatusNot(TaskStatus status) {
+        return findListVersion("status <> :status", status);
+    }
+
+    public Mono<Integer> updateDetailsByIdAndStatusNot(UUID id, String description, float duration, TaskStatus status) {
+        return client.sql("UPDATE task SET " + BUMP_VERSION + ", description = :description, duration = :duration "
+                + "WHERE task_id = :id AND status <> :status")
+            .bind("id", id)
+            .bind("description", description)
+            .bind("duration", duration)
+            .bind("status", status.name())
+            .fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> updateDetailsByIdAndStatusNotAndVersion(UUID id, String description, float duration,
+            TaskStatus status, long version) {
+        return client.sql("UPDATE task SET " + BUMP_VERSION + ", description = :description, duration = :duration "
+                + "WHERE task_id = :id AND status <> :status AND version = :version")
+            .bind("id", id)
+            .bind("description", description)
+            .bind("duration", duration)
+            .bind("status", status.name())
+            .bind("version", version)
+            .fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> completeByIdAndStatusNot(UUID id, float delay, Date finDate, TaskStatus status) {
+        return client.sql("UPDATE task SET " + BUMP_VERSION + ", status = :completed, delay = :delay, "
+                + "finalized_at = :finDate WHERE task_id = :id AND status <> :status")
+            .bind("id", id)
+            .bind("completed", TaskStatus.COMPLETED.name())
+            .bind("delay", delay)
+            .bind("finDate", toLocalDateTime(finDate))
+            .bind("status", status.name())
+            .fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> updateStatusById(UUID id, TaskStatus status) {
+        return client.sql("UPDATE task SET " + BUMP_VERSION + ", status = :status "
+                + "WHERE task_id = :id AND status <> :status")
+            .bind("id", id)
+            .bind("status", status.name())
+            .fetch().rowsUpdated();
+    }
+
+    /**
+     * Lock rows of tasks in ID order, must run inside a transaction
+     * @param ids Task IDs
+     * @param status Status of tasks to skip
+     * @return IDs of locked tasks
+     */
+    public Flux<UUID> lockIdsByIdInAndStatusNot(Collection<UUID> ids, TaskStatus status) {
+        return client.sql("SELECT task_id FROM task WHERE task_id IN (:ids) AND status <> :status "
+                + "ORDER BY task_id FOR UPDATE")
+            .bind("ids", ids)
+            .bind("status", status.name())
+            .map((row, metadata) -> row.get("task_id", UUID.class))
+            .all();
+    }
+
+    public Mono<Integer> completeAllByIdIn(Collection<UUID> ids, float delay, Date finDate) {
+        return client.sql("UPDATE task SET " + BUMP_VERSION + ", status = :completed, delay = :delay, "
+                + "finalized_at = :finDate WHERE task_id IN (:ids)")
+            .bind("ids", ids)
+            .bind("completed", TaskStatus.COMPLETED.name())
+            .bind("delay", delay)
+            .bind("finDate", toLocalDateTime(finDate))
+            .fetch().rowsUpdated();
+    }
+
+    public Mono<Integer> updateStatusByIdIn(Collection<UUID> ids, TaskStatus status) {
+        return client.sql("UPDATE task SET " + BUMP_VERSION + ", status = :status WHERE task_id IN (:ids)")
+            .bind("ids", ids)
+            .bind("status", status.name())
+            .fetch().rowsUpdated();
+    }
+
+    private Flux<Task> findAll(TaskStatus status, boolean exclude, String fieldName, Direction direction) {
+        String column = column(fieldName);
+        return client.sql(SELECT_TASK + "WHERE status " + (exclude ? "<>" : "=") + " :status "
+                + "ORDER BY " + column + " " + direction.name())
+            .bind("status", status.name())
+            .map((row, metadata) -> mapTask(row))
+            .all();
+    }
+
+    private Flux<Task> findPage(TaskStatus status, boolean exclude, String fieldName, Direction direction,
+            TaskCursor after, int limit) {
+        String column = column(fieldName);
+        boolean asc = direction.isAscending();
+        boolean nullable = NULLABLE_FIELDS.contains(fieldName);
+
+        StringBuilder sql = new StringBuilder(SELECT_TASK)
+            .append("WHERE status ").append(exclude ? "<>" : "=").append(" :status");
+        if (after != null) {
+            sql.append(" AND ").append(seek(column, asc, nullable, after));
+        }
+
+        sql.append(" ORDER BY ");
+        if (nullable) { // Rank nulls below any value
+            sql.append("CASE WHEN ").append(column).append(" IS NULL THEN 0 ELSE 1 END ").append(direction.name())
+                .append(", ");
+        }
+        sql.append(column).append(' ').append(direction.name())
+            .append(", task_id ").append(direction.name()) // Tie breaker
+            .append(" LIMIT :limit");
+
+        GenericExecuteSpec spec = client.sql(sql.toString())
+            .bind("status", status.name())
+            .bind("limit", limit);
+        if (after != null) {
+            spec = spec.bind("lastId", after.getId());
+            if (after.getValue() != null) {
+                spec = spec.bind("lastValue", toParameter(after.getValue()));
+            }
+        }
+        return spec.map((row, metadata) -> mapTask(row)).all();
+    }
+
+    /**
+     * Build predicate for rows located after the cursor: (field, id) > (value, lastId) in sort order
+     */
+    private String seek(String column, boolean asc, boolean nullable, TaskCursor after) {
+        String idAfter = "task_id " + (asc ? ">" : "<") + " :lastId";
+
+        if (after.getValue() == null) { // Cursor is inside the null group
+            return asc
+                ? "(" + column + " IS NOT NULL OR (" + column + " IS NULL AND " + idAfter + "))"
+                : "(" + column + " IS NULL AND " + idAfter + ")";
+        }
+
+        String seek = "(" + column + (asc ? " > " : " < ") + ":lastValue OR ("
+            + column + " = :lastValue AND " + idAfter + "))";
+        return (!asc && nullable) ? "(" + seek + " OR " + column + " IS NULL)" : seek;
+    }
+
+    private Mono<TaskListVersion> findListVersion(String condition, TaskStatus status) {
+        return client.sql("SELECT COUNT(*) AS count, COALESCE(SUM(version), 0) AS versions, "
+                + "MAX(updated_at) AS updated_at FROM task WHERE " + condition)
+            .bind("status", status.name())
+            .map((row, metadata) -> (TaskListVersion) new ListVersion(
+                row.get("count", Long.class),
+                ((Number) row.get("versions")).longValue(), // SUM type differs between databases
+                toDate(row.get("updated_at", LocalDateTime.class))
+            ))
+            .one();
+    }
+
+    private static String column(String fieldName) {
+        String column = COLUMNS.get(fieldName);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown sort field: " + fieldName);
+        }
+        return column;
+    }
+
+    private static void bindTask(Statement statement, Task task) {
+        statement.bind(0, task.getId())
+            .bind(1, task.getDescription())
+            .bind(2, task.getDuration());
+        if (task.getFinDate() == null) {
+            statement.bindNull(3, LocalDateTime.class);
+        } else {
+            statement.bind(3, toLocalDateTime(task.getFinDate()));
+        }
+        statement.bind(4, task.getDelay())
+            .bind(5, task.getStatus().name())
+            .bind(6, task.getVersion())
+            .bind(7, toLocalDateTime(task.getUpdatedAt()));
+    }
+
+    private static Task mapTask(Row row) {
+        Float delay = row.get("delay", Float.class);
+        Task task = new Task(
+            row.get("description", String.class),
+            row.get("duration", Float.class),
+            toDate(row.get("finalized_at", LocalDateTime.class)),
+            delay == null ? 0 : delay,
+            TaskStatus.valueOf(row.get("status", String.class))
+        );
+        task.setId(row.get("task_id", UUID.class));
+        task.setVersion(row.get("version", Long.class));
+        task.setUpdatedAt(toDate(row.get("updated_at", LocalDateTime.class)));
+        return task;
+    }
+
+    private static Object toParameter(Comparable<?> value) {
+        if (value instanceof Date) {
+            return toLocalDateTime((Date) value);
+        }
+        return (value instanceof TaskStatus) ? ((TaskStatus) value).name() : value;
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return new Timestamp(date.getTime()).toLocalDateTime();
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime); // Same type JPA returns
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ListVersion implements TaskListVersion {
+        private final long count;
+        private final long versions;
+        private final Date updatedAt;
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.fidev.todo.service;
+
+import java.util.List;
+
+import com.fidev.todo.views.TaskBatchResultDTO;
+import com.fidev.todo.views.TaskCompletionDTO;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskDetailsDTO;
+import com.fidev.todo.views.TaskPageDTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of TaskService, errors are signaled as TodoException
+ */
+public interface ReactiveTaskService {
+
+    Mono<TaskDetailsDTO> saveNewTask(TaskDTO request);
+
+    Mono<List<TaskBatchResultDTO>> saveNewTasks(List<TaskDTO> requests);
+
+    Flux<TaskDetailsDTO> searchTaskList(String status, String orderBy, String order);
+
+    Mono<TaskPageDTO> searchTaskPage(String status, String orderBy, String order, Integer limit, String cursor);
+
+    Mono<String> searchTaskListTag(String status);
+
+    Mono<TaskDetailsDTO> searchTaskByID(String id);
+
+    Mono<TaskDetailsDTO> updateTaskByID(String id, TaskDTO update, Long version);
+
+    Mono<TaskDetailsDTO> markTaskByIDAsCompleted(String id, Float delay);
+
+    Mono<TaskDetailsDTO> markTaskByIDAsDeleted(String id);
+
+    Mono<List<TaskBatchResultDTO>> markTasksAsCompleted(List<TaskCompletionDTO> requests);
+
+    Mono<List<TaskBatchResultDTO>> markTasksAsDeleted(List<String> ids);
+
+}
@@ -0,0 +1,440 @@
+package com.fidev.todo.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.mappers.TaskMapper;
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.repositories.TaskReactiveRepository;
+import com.fidev.todo.service.ReactiveTaskService;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.util.ETags;
+import com.fidev.todo.util.TaskCursor;
+import com.fidev.todo.util.TaskIds;
+import com.fidev.todo.views.TaskBatchResultDTO;
+import com.fidev.todo.views.TaskCompletionDTO;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskDetailsDTO;
+import com.fidev.todo.views.TaskPageDTO;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive task service over R2DBC. Validation, sorting and error codes are the ones of TaskServiceImpl.
+ * Task changes are not published as application events, the task list cache and event stream
+ * are only available in the servlet stack.
+ */
+
+@Slf4j
+@Service
+@Transactional
+@Profile(AppConstants.REACTIVE_PROFILE)
+public class ReactiveTaskServiceImpl implements ReactiveTaskService {
+
+    private final TaskReactiveRepository repository;
+    private final TaskMapper mapper;
+
+    public ReactiveTaskServiceImpl(TaskReactiveRepository repository, TaskMapper mapper) {
+        this.repository = repository;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Save new task
+     * @param request Task details to save
+     * @return New task saved details
+     */
+    @Override
+    public Mono<TaskDetailsDTO> saveNewTask(TaskDTO request) {
+        return Mono.defer(() -> {
+            try {
+                TaskRequests.validateTask(request);
+            } catch (TodoException e) {
+                return Mono.error(e);
+            }
+
+            Task newTask = newTask(request);
+            return repository.saveAll(List.of(newTask)).thenReturn(mapper.mapTaskToDetails(newTask));
+        });
+    }
+
+    /**
+     * Save a batch of new tasks in one transaction, invalid tasks are reported and skipped
+     * @param requests Task details to save
+     * @return Result of each task in request order
+     */
+    @Override
+    public Mono<List<TaskBatchResultDTO>> saveNewTasks(List<TaskDTO> requests) {
+        return Mono.defer(() -> {
+            try {
+                TaskRequests.validateBatch(requests);
+            } catch (TodoException e) {
+                return Mono.error(e);
+            }
+
+            TaskBatchResultDTO[] results = new TaskBatchResultDTO[requests.size()];
+            List<Task> newTasks = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                TaskDTO request = requests.get(i);
+                try {
+                    TaskRequests.validateTask(request);
+                } catch (TodoException e) {
+                    results[i] = new TaskBatchResultDTO(i, null, e.getCode(), e.getMessage());
+                    continue;
+                }
+
+                Task newTask = newTask(request);
+                newTasks.add(newTask);
+                results[i] = new TaskBatchResultDTO(i, mapper.mapTaskToDetails(newTask), null, null);
+            }
+
+            return repository.saveAll(newTasks) // Inserts are sent in one batched statement
+                .doOnNext(saved -> log.debug("Saved {} of {} tasks in batch", saved, requests.size()))
+                .thenReturn(Arrays.asList(results));
+        });
+    }
+
+    /**
+     * Consult task list
+     * @param status Status to filter tasks
+     * @param orderBy Field name to sort list
+     * @param order Direction to sort list
+     * @return Tasks in order, emitted as rows arrive
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<TaskDetailsDTO> searchTaskList(String status, String orderBy, String order) {
+        return Flux.defer(() -> {
+            String fieldName = TaskRequests.resolveSortField(orderBy);
+            Direction direction = TaskRequests.resolveSortDirection(order);
+            TaskStatus taskStatus = TaskRequests.resolveStatusFilter(status);
+
+            Flux<Task> tasks = (taskStatus != null) // If status param is invalid, ignore it
+                ? repository.findAllByStatus(taskStatus, fieldName, direction)
+                // Not return task if is marked as deleted
+                : repository.findAllByStatusNot(TaskStatus.DELETED, fieldName, direction);
+            return tasks.map(mapper::mapTaskToDetails);
+        });
+    }
+
+    /**
+     * Consult a page of task list using keyset pagination
+     * @param status Status to filter tasks
+     * @param orderBy Field name to sort list
+     * @param order Direction to sort list
+     * @param limit Max number of tasks in page
+     * @param cursor Cursor returned with previous page, null to get first page
+     * @return Page of tasks and cursor to next page
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<TaskPageDTO> searchTaskPage(String status, String orderBy, String order, Integer limit,
+            String cursor) {
+        return Mono.defer(() -> {
+            String fieldName = TaskRequests.resolveSortField(orderBy);
+            Direction direction = TaskRequests.resolveSortDirection(order);
+            TaskStatus taskStatus = TaskRequests.resolveStatusFilter(status);
+            int pageSize = (limit == null)
+                ? AppConstants.DEFAULT_PAGE_LIMIT
+                : Math.max(1, Math.min(limit, AppConstants.MAX_PAGE_LIMIT));
+            TaskCursor after;
+            try {
+                after = TaskRequests.decodeCursor(cursor, fieldName, direction);
+            } catch (TodoException e) {
+                return Mono.error(e);
+            }
+
+            // Fetch one extra row to know if there is a next page
+            Flux<Task> tasks = (taskStatus != null)
+                ? repository.findPageByStatus(taskStatus, fieldName, direction, after, pageSize + 1)
+                : repository.findPageByStatusNot(TaskStatus.DELETED, fieldName, direction, after, pageSize + 1);
+            return tasks.collectList().map(page -> {
+                String nextCursor = null;
+                if (page.size() > pageSize) {
+                    page = page.subList(0, pageSize);
+                    nextCursor = TaskCursor.after(page.get(pageSize - 1), fieldName, direction).encode();
+                }
+                return new TaskPageDTO(
+                    page.stream().map(mapper::mapTaskToDetails).collect(Collectors.toList()),
+                    nextCursor
+                );
+            });
+        });
+    }
+
+    /**
+     * Obtain entity tag of task list, it changes when any task of list changes
+     * @param status Status to filter tasks
+     * @return Quoted entity tag
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<String> searchTaskListTag(String status) {
+        return Mono.defer(() -> {
+            TaskStatus taskStatus = TaskRequests.resolveStatusFilter(status);
+            return (taskStatus != null)
+                ? repository.findListVersionByStatus(taskStatus)
+                : repository.findListVersionByStatusNot(TaskStatus.DELETED);
+        }).map(ETags::ofList);
+    }
+
+    /**
+     * Search task details by task ID
+     * @param id Task ID
+     * @return Task details
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<TaskDetailsDTO> searchTaskByID(String id) {
+        return parseId(id).flatMap(taskId -> searchTaskDetailsByID(taskId, id));
+    }
+
+    /**
+     * Update task details by task ID if it has the expected version
+     * @param id Task ID
+     * @param update Task details to update
+     * @param version Expected task version, null to update any version
+     * @return Task updated
+     */
+    @Override
+    public Mono<TaskDetailsDTO> updateTaskByID(String id, TaskDTO update, Long version) {
+        return Mono.defer(() -> {
+            try {
+                TaskRequests.validateTask(update);
+            } catch (TodoException e) {
+                return Mono.error(e);
+            }
+            update.setDesc(update.getDesc().trim());
+
+            return parseId(id).flatMap(taskId -> {
+                // Update task details only if it is not completed, in a single statement
+                Mono<Integer> updated = (version == null)
+                    ? repository.updateDetailsByIdAndStatusNot(
+                        taskId, update.getDesc(), update.getDuration(), TaskStatus.COMPLETED)
+                    : repository.updateDetailsByIdAndStatusNotAndVersion(
+                        taskId, update.getDesc(), update.getDuration(), TaskStatus.COMPLETED, version);
+                return updated.flatMap(count -> (count > 0)
+                    ? searchTaskDetailsByID(taskId, id)
+                    : repository.findById(taskId)
+                        .switchIfEmpty(Mono.defer(() -> Mono.error(TaskRequests.notFound(id))))
+                        .flatMap(current -> Mono.error(updateRejected(id, version, current))));
+            });
+        });
+    }
+
+    /**
+     * Mark task as completed by task ID
+     * @param id Task ID
+     * @param delay Task time delay
+     * @return Task marked as completed
+     */
+    @Override
+    public Mono<TaskDetailsDTO> markTaskByIDAsCompleted(String id, Float delay) {
+        // Update status and delay of task and set date finish, deleted tasks are not found
+        return parseId(id).flatMap(taskId -> repository
+            .completeByIdAndStatusNot(taskId, delay, new Date(), TaskStatus.DELETED)
+            .flatMap(updated -> (updated > 0)
+                ? searchTaskDetailsByID(taskId, id)
+                : Mono.error(TaskRequests.notFound(id))));
+    }
+
+    /**
+     * Mark task as deleted by task ID
+     * @param id Task ID
+     * @return Task marked as deleted
+     */
+    @Override
+    public Mono<TaskDetailsDTO> markTaskByIDAsDeleted(String id) {
+        return parseId(id).flatMap(taskId -> repository
+            .updateStatusById(taskId, TaskStatus.DELETED)
+            .flatMap(updated -> (updated > 0)
+                ? searchTaskDetailsByID(taskId, id)
+                : Mono.error(TaskRequests.notFound(id))));
+    }
+
+    /**
+     * Mark many tasks as completed in one transaction
+     * @param requests Task ID and delay of each task
+     * @return Result of each task in request order
+     */
+    @Override
+    public Mono<List<TaskBatchResultDTO>> markTasksAsCompleted(List<TaskCompletionDTO> requests) {
+        return Mono.defer(() -> {
+            try {
+                TaskRequests.validateBatch(requests);
+            } catch (TodoException e) {
+                return Mono.error(e);
+            }
+
+            TaskBatchResultDTO[] results = new TaskBatchResultDTO[requests.size()];
+            List<UUID> ids = new ArrayList<>();
+            Map<UUID, Float> delays = new HashMap<>();
+            for (int i = 0; i < requests.size(); i++) {
+                TaskCompletionDTO request = requests.get(i);
+                if (request == null || (request.getId() != null && request.getDelay() == null)) {
+                    log.error("Missing delay of task with ID: {}", request == null ? null : request.getId());
+                    results[i] = new TaskBatchResultDTO(
+                        i, null, AppConstants.INVALID_DELAY_CODE, AppConstants.INVALID_DELAY_MESSAGE);
+                    ids.add(null);
+                    continue;
+                }
+
+                UUID id = TaskIds.parse(request.getId()); // Malformed IDs are not found
+                ids.add(id);
+                if (id != null) {
+                    delays.put(id, request.getDelay()); // Last delay wins for repeated IDs
+                }
+            }
+
+            Date finDate = new Date();
+            return transitionTasks(ids, results, found -> Flux
+                // One UPDATE ... IN per distinct delay value
+                .fromIterable(found.stream().collect(Collectors.groupingBy(delays::get)).entrySet())
+                .concatMap(group -> repository.completeAllByIdIn(group.getValue(), group.getKey(), finDate))
+                .then());
+        });
+    }
+
+    /**
+     * Mark many tasks as deleted in one transaction
+     * @param ids Task IDs
+     * @return Result of each task in request order
+     */
+    @Override
+    public Mono<List<TaskBatchResultDTO>> markTasksAsDeleted(List<String> ids) {
+        return Mono.defer(() -> {
+            try {
+                TaskRequests.validateBatch(ids);
+            } catch (TodoException e) {
+                return Mono.error(e);
+            }
+
+            List<UUID> taskIds = ids.stream().map(TaskIds::parse).collect(Collectors.toList()); // Malformed IDs are not found
+            return transitionTasks(taskIds, new TaskBatchResultDTO[ids.size()],
+                found -> repository.updateStatusByIdIn(found, TaskStatus.DELETED).then());
+        });
+    }
+
+    /**
+     * Apply a status transition to tasks in chunks, locking rows in ID order before the set-based update
+     * @param ids Task IDs in request order, null for items already rejected or malformed
+     * @param results Result of each item, rejected items are already filled
+     * @param update Set-based update of found task IDs
+     * @return Result of each task in request order
+     */
+    private Mono<List<TaskBatchResultDTO>> transitionTasks(List<UUID> ids, TaskBatchResultDTO[] results,
+            Function<List<UUID>, Mono<Void>> update) {
+        List<UUID> distinct = ids.stream().filter(Objects::nonNull).distinct().sorted(TaskIds.ORDER)
+            .collect(Collectors.toList());
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += AppConstants.BULK_CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + AppConstants.BULK_CHUNK_SIZE, distinct.size())));
+        }
+
+        Map<UUID, TaskDetailsDTO> changed = new HashMap<>(); // Chunks are processed one after another
+        return Flux.fromIterable(chunks)
+            .concatMap(chunk -> repository.lockIdsByIdInAndStatusNot(chunk, TaskStatus.DELETED) // Deleted tasks are not found
+                .collectList()
+                .filter(found -> !found.isEmpty())
+                .flatMapMany(found -> update.apply(found).thenMany(repository.findAllByIdIn(found))))
+            .doOnNext(task -> changed.put(task.getId(), mapper.mapTaskToDetails(task)))
+            .then(Mono.fromSupplier(() -> {
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i] != null) {
+                        continue;
+                    }
+
+                    TaskDetailsDTO details = changed.get(ids.get(i));
+                    results[i] = (details != null)
+                        ? new TaskBatchResultDTO(i, details, null, null)
+                        : new TaskBatchResultDTO(i, null, AppConstants.NOT_FOUND_CODE, AppConstants.NOT_FOUND_MESSAGE);
+                }
+
+                log.debug("Tasks changed: {} of {}", changed.size(), ids.size());
+                return Arrays.asList(results);
+            }));
+    }
+
+    /**
+     * Search task details by ID
+     * @param taskId Task ID
+     * @param id Task ID as received from client
+     * @return Task details
+     */
+    private Mono<TaskDetailsDTO> searchTaskDetailsByID(UUID taskId, String id) {
+        return repository.findById(taskId)
+            .map(mapper::mapTaskToDetails)
+            .switchIfEmpty(Mono.defer(() -> Mono.error(TaskRequests.notFound(id))));
+    }
+
+    /**
+     * Parse task ID received from client
+     * @param id Task ID in string form
+     * @return Task ID, not found error if it is malformed
+     */
+    private Mono<UUID> parseId(String id) {
+        return Mono.defer(() -> {
+            try {
+                return Mono.just(TaskRequests.parseId(id));
+            } catch (TodoException e) {
+                return Mono.error(e);
+            }
+        });
+    }
+
+    /**
+     * Build error for an update that matched no row of an existing task
+     * @param id Task ID
+     * @param version Expected task version
+     * @param current Current task
+     * @return Conflict if task is completed, version mismatch otherwise
+     */
+    private TodoException updateRejected(String id, Long version, Task current) {
+        if (current.getStatus().equals(TaskStatus.COMPLETED)) { // Can't update a completed task
+            log.error("Can't update task with ID: {}. It is completed", id);
+            return new TodoException(
+                HttpStatus.CONFLICT,
+                AppConstants.INVALID_ACTION_CODE,
+                AppConstants.INVALID_ACTION_MESSAGE
+            );
+        }
+
+        log.error("Can't update task with ID: {}. Expected version {} but is {}", id, version, current.getVersion());
+        return new TodoException(
+            AppConstants.VERSION_MISMATCH_MESSAGE,
+            AppConstants.VERSION_MISMATCH_CODE,
+            HttpStatus.PRECONDITION_FAILED
+        );
+    }
+
+    /**
+     * Build new task entity, ID and update time are assigned here since there is no persistence context
+     * @param request Valid task request
+     * @return Task to insert
+     */
+    private Task newTask(TaskDTO request) {
+        Task task = new Task(request.getDesc().trim(), request.getDuration());
+        task.setId(TaskIds.next());
+        task.setUpdatedAt(new Date());
+        return task;
+    }
+
+}
@@ -0,0 +1,557 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.fidev.todo.logging.RequestLogFilter;
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.repositories.TaskReactiveRepository;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.util.TaskIds;
+import com.fidev.todo.views.TaskCompletionDTO;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskDetailsDTO;
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+/**
+ * Scenarios of TaskControllerTest run against the reactive profile, except the event stream.
+ * Reactive transactions can't be rolled back by the test framework, so data is seeded before each test.
+ */
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive") // Resolved before profile files are read
+@AutoConfigureWebTestClient
+@ActiveProfiles({ AppConstants.REACTIVE_PROFILE, "test" })
+class ReactiveTaskControllerTest {
+    private static final String UNKNOWN_ID = "f72094de-3228-4e55-9018-5280a6c341d3";
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private TaskReactiveRepository repository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setup() {
+        final Date theDate = new Date();
+        List<Task> tasks = new ArrayList<>(); // Task list to save in DB for test
+        tasks.add(new Task("A", 20, new Date(theDate.getTime() + 10), 30, TaskStatus.COMPLETED));
+        tasks.add(new Task("B", 25, new Date(theDate.getTime() + 30000), 20, TaskStatus.COMPLETED));
+        tasks.add(new Task("C", 50, null, 0, TaskStatus.PENDING));
+        tasks.add(new Task("D", 55, new Date(theDate.getTime() + 2000), 57, TaskStatus.COMPLETED));
+        tasks.add(new Task("E", 78, null, 0, TaskStatus.PENDING));
+        tasks.add(new Task("F", 100, null, 0, TaskStatus.PENDING));
+        tasks.add(new Task("G", 102, new Date(theDate.getTime() + 1000), 98, TaskStatus.COMPLETED));
+        tasks.add(new Task("H", 120, new Date(theDate.getTime() + 50), 115, TaskStatus.DELETED));
+        tasks.add(new Task("I", 130, null, 0, TaskStatus.DELETED));
+        tasks.forEach(task -> {
+            task.setId(TaskIds.next());
+            task.setUpdatedAt(theDate);
+        });
+
+        databaseClient.sql("DELETE FROM task").then()
+            .then(repository.saveAll(tasks))
+            .block();
+    }
+
+    @Test // Response with 400 by invalid desc
+    void saveTaskWithInvalidValuesTest() {
+        client.post().uri("/task")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TaskDTO("", 120))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(AppConstants.INVALID_DESC_CODE)
+                .jsonPath("$.message").isEqualTo(AppConstants.INVALID_DESC_MESSAGE);
+    }
+
+    @Test // Success task created
+    void saveTaskSuccessfullyTest() {
+        client.post().uri("/task")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TaskDTO("Hacer mi tarea", 120))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").exists()
+                .jsonPath("$.desc").isEqualTo("Hacer mi tarea")
+                .jsonPath("$.duration").isEqualTo(120.0)
+                .jsonPath("$.status").isEqualTo(AppConstants.PENDING_STATUS);
+    }
+
+    @Test // Save valid tasks of batch and report invalid ones by position
+    void saveTaskBatchTest() {
+        List<TaskDTO> batch = List.of(
+            new TaskDTO("Lavar los platos", 15),
+            new TaskDTO(" ", 10),
+            new TaskDTO("Sacar la basura", 0),
+            new TaskDTO("Regar las plantas", 5)
+        );
+        client.post().uri("/task/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(4)
+                .jsonPath("$[0].task.id").exists()
+                .jsonPath("$[0].task.desc").isEqualTo("Lavar los platos")
+                .jsonPath("$[1].index").isEqualTo(1)
+                .jsonPath("$[1].code").isEqualTo(AppConstants.INVALID_DESC_CODE)
+                .jsonPath("$[2].code").isEqualTo(AppConstants.INVALID_DURATION_CODE)
+                .jsonPath("$[3].task.status").isEqualTo(AppConstants.PENDING_STATUS);
+
+        assertThat(idsByStatus(TaskStatus.PENDING)).hasSize(5);
+
+        client.post().uri("/task/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(AppConstants.INVALID_BATCH_CODE);
+
+        client.post().uri("/task/batch") // Null item is an invalid task
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[null]")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$[0].index").isEqualTo(0)
+                .jsonPath("$[0].code").isEqualTo(AppConstants.INVALID_DESC_CODE);
+    }
+
+    @Test // New task IDs are UUIDv7 strings ordered by creation, malformed IDs are not found
+    void taskIdsAreTimeOrderedTest() {
+        List<TaskDTO> batch = List.of(new TaskDTO("Primera", 1), new TaskDTO("Segunda", 2), new TaskDTO("Tercera", 3));
+        String response = client.post().uri("/task/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        List<String> ids = JsonPath.read(response, "$[*].task.id");
+        assertThat(ids).hasSize(3).isSorted();
+        assertThat(ids).allSatisfy(id -> assertThat(UUID.fromString(id).version()).isEqualTo(7));
+
+        client.get().uri("/task/{id}", ids.get(0)).exchange().expectStatus().isOk();
+        client.get().uri("/task/{id}", "no-es-un-id").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(AppConstants.NOT_FOUND_CODE);
+    }
+
+    @Test // Can search tasks without filters, return all tasks by default
+    void findTaskListWithoutFiltersTest() throws Exception {
+        List<TaskDetailsDTO> list = getList("/task");
+        // Return completed and pending task (7)
+        assertThat(list).hasSize(7);
+        // Verify that it does not return deleted task
+        assertThat(list.stream().anyMatch(task -> task.getStatus().equals(TaskStatus.DELETED.toString()))).isFalse();
+    }
+
+    @Test // Consult task list by each status, order by status by default
+    void findTaskListOnlyByStatusTest() throws Exception {
+        String[] status = new String[] { AppConstants.PENDING_STATUS, AppConstants.COMPLETED_STATUS };
+
+        for (String state : status) {
+            List<TaskDetailsDTO> list = getList("/task?status=" + state); // Just return the requested state
+            assertThat(list).isNotEmpty();
+            assertThat(list.stream().anyMatch(task -> !task.getStatus().equals(state))).isFalse();
+        }
+    }
+
+    @Test // Consult sorted task list
+    void findTaskListSortedTest() throws Exception {
+        List<TaskDetailsDTO> list = getList("/task?orderBy=desc&order=DESC");
+        assertThat(list.get(0).getDesc()).isEqualTo("G"); // First task in order by description DESC
+        assertThat(list.get(list.size()-1).getDesc()).isEqualTo("A"); // Last task in order by description DESC
+
+        list = getList("/task?orderBy=date&order=ASC");
+        assertThat(list.get(0).getFinalDate()).isNull(); // First task in order by date ASC is a pending task (date null)
+        assertThat(list.get(list.size()-1).getDesc()).isEqualTo("B"); // Last task in order by date ASC is task B
+    }
+
+    @Test // Consult task list sorted by status PENDING
+    void findTaskListByStatusAndFiltersAndOrderTest() throws Exception {
+        List<TaskDetailsDTO> list = getList("/task?status=PENDING&orderBy=duration&order=DESC");
+        assertThat(list.get(0).getDesc()).isEqualTo("F"); // First pending task task sorted by duration DESC
+        assertThat(list.get(list.size()-1).getDesc()).isEqualTo("C"); // Last pending task sorted by duration DESC
+    }
+
+    @Test // Page through task list sorted by a field with ties, each task appears once in stable order
+    void findTaskPagesWithTiedSortValuesTest() throws Exception {
+        List<TaskDetailsDTO> pages = fetchAllPages("status", "DESC", 2);
+        assertThat(pages).hasSize(7);
+        assertThat(pages.stream().map(TaskDetailsDTO::getId).distinct().count()).isEqualTo(7);
+        assertThat(pages).isSortedAccordingTo(
+            Comparator.comparing(TaskDetailsDTO::getStatus).thenComparing(TaskDetailsDTO::getId).reversed());
+
+        pages = fetchAllPages("delay", "ASC", 3); // Pending tasks have the same delay
+        assertThat(pages).hasSize(7);
+        assertThat(pages).isSortedAccordingTo(
+            Comparator.comparing(TaskDetailsDTO::getDelay).thenComparing(TaskDetailsDTO::getId));
+    }
+
+    @Test // Page through task list sorted by a nullable field
+    void findTaskPagesSortedByDateTest() throws Exception {
+        List<TaskDetailsDTO> pages = fetchAllPages("date", "ASC", 2);
+        assertThat(pages).hasSize(7);
+        assertThat(pages.stream().map(TaskDetailsDTO::getId).distinct().count()).isEqualTo(7);
+        assertThat(pages.subList(0, 3)).allMatch(task -> task.getFinalDate() == null); // Pending tasks first
+        assertThat(pages.subList(0, 3)).isSortedAccordingTo(Comparator.comparing(TaskDetailsDTO::getId));
+        assertThat(pages.get(pages.size()-1).getDesc()).isEqualTo("B");
+
+        pages = fetchAllPages("date", "DESC", 2);
+        assertThat(pages).hasSize(7);
+        assertThat(pages.get(0).getDesc()).isEqualTo("B");
+        assertThat(pages.subList(4, 7)).allMatch(task -> task.getFinalDate() == null); // Pending tasks last
+    }
+
+    @Test // Reject malformed cursor and cursor issued for another sort
+    void findTaskPageWithInvalidCursorTest() {
+        client.get().uri("/task?limit=2&cursor=not-a-cursor").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(AppConstants.INVALID_CURSOR_CODE);
+
+        String cursor = client.get().uri("/task?orderBy=desc&limit=2").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2)
+                .returnResult().getResponseHeaders().getFirst(AppConstants.NEXT_CURSOR_HEADER);
+        client.get().uri("/task?orderBy=duration&limit=2&cursor={cursor}", cursor).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(AppConstants.INVALID_CURSOR_CODE);
+    }
+
+    @Test // Stream task list as one JSON document per line
+    void streamTaskListTest() throws Exception {
+        String ndjson = client.get().uri("/task/stream?orderBy=desc&order=ASC")
+                .accept(MediaType.parseMediaType(AppConstants.NDJSON_MEDIA_TYPE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(AppConstants.NDJSON_MEDIA_TYPE)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        List<TaskDetailsDTO> list = JsonUtil.fromJson("[" + String.join(",", ndjson.trim().split("\n")) + "]");
+        assertThat(list).hasSize(7); // Does not return deleted tasks
+        assertThat(list.get(0).getDesc()).isEqualTo("A");
+        assertThat(list.get(list.size()-1).getDesc()).isEqualTo("G");
+
+        ndjson = client.get().uri("/task/stream?status=PENDING")
+                .accept(MediaType.parseMediaType(AppConstants.NDJSON_MEDIA_TYPE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertThat(ndjson.trim().split("\n")).hasSize(3)
+            .allMatch(line -> line.contains(AppConstants.PENDING_STATUS));
+    }
+
+    @Test // Try to update task with a invalid delay value
+    void updateTaskWithAnInvalidDurationValueTest() {
+        client.put().uri("/task/{id}", firstIdByStatus(TaskStatus.PENDING))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TaskDTO("Alguna descripción", -1))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(AppConstants.INVALID_DURATION_CODE)
+                .jsonPath("$.message").isEqualTo(AppConstants.INVALID_DURATION_MESSAGE);
+    }
+
+    @Test // Update task by invalid ID
+    void updateTaskWithAnInvalidIDTest() {
+        client.put().uri("/task/{id}", UNKNOWN_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TaskDTO("Alguna descripción", 5))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(AppConstants.NOT_FOUND_CODE)
+                .jsonPath("$.message").isEqualTo(AppConstants.NOT_FOUND_MESSAGE);
+    }
+
+    @Test // Errors write the line of RequestLogFilter with their task and code
+    void requestLogTest() {
+        Logger logger = (Logger) LoggerFactory.getLogger(RequestLogFilter.LOGGER);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            client.get().uri("/task/{id}", UNKNOWN_ID).exchange()
+                    .expectStatus().isNotFound();
+        } finally {
+            logger.detachAppender(appender);
+        }
+
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getLevel()).isEqualTo(Level.WARN);
+        assertThat(appender.list.get(0).getFormattedMessage())
+            .startsWith("method=GET path=/task/" + UNKNOWN_ID + " status=404 duration_ms=")
+            .endsWith("task_id=" + UNKNOWN_ID + " code=" + AppConstants.NOT_FOUND_CODE);
+    }
+
+    @Test // Update completed task
+    void updateCompletedTaskTest() {
+        client.put().uri("/task/{id}", firstIdByStatus(TaskStatus.COMPLETED))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TaskDTO("Alguna descripción", 5))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(AppConstants.INVALID_ACTION_CODE)
+                .jsonPath("$.message").isEqualTo(AppConstants.INVALID_ACTION_MESSAGE);
+    }
+
+    @Test // Update task successfully
+    void updateTaskSuccessfully() {
+        String id = firstIdByStatus(TaskStatus.PENDING);
+        String description = "Hacer mi tarea de física";
+        client.put().uri("/task/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TaskDTO(description, 120))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(id)
+                .jsonPath("$.desc").isEqualTo(description)
+                .jsonPath("$.duration").isEqualTo(120.0)
+                .jsonPath("$.status").isEqualTo(AppConstants.PENDING_STATUS);
+    }
+
+    @Test // Mark task as completed without delay param
+    void markTaskAsCompletedWithoutDelayParamTest() {
+        client.put().uri("/task/{id}/status", firstIdByStatus(TaskStatus.PENDING)).exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test // Mark task as completed by invalid ID
+    void markTaskAsCompletedByInvalidIDTest() {
+        client.put().uri("/task/{id}/status?delay=120", UNKNOWN_ID).exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(AppConstants.NOT_FOUND_CODE)
+                .jsonPath("$.message").isEqualTo(AppConstants.NOT_FOUND_MESSAGE);
+    }
+
+    @Test // Mark task as completed
+    void markTaskAsCompletedSuccessfullyTest() {
+        String id = firstIdByStatus(TaskStatus.PENDING);
+        client.put().uri("/task/{id}/status?delay=120", id).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(id)
+                .jsonPath("$.desc").exists()
+                .jsonPath("$.duration").exists()
+                .jsonPath("$.finalDate").exists()
+                .jsonPath("$.delay").isEqualTo(120.0)
+                .jsonPath("$.status").isEqualTo(AppConstants.COMPLETED_STATUS);
+    }
+
+    @Test // Mark task as deleted by invalid ID
+    void markTaskAsDeletedByInvalidIDTest() {
+        client.delete().uri("/task/{id}/status", UNKNOWN_ID).exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo(AppConstants.NOT_FOUND_CODE)
+                .jsonPath("$.message").isEqualTo(AppConstants.NOT_FOUND_MESSAGE);
+    }
+
+    @Test // Mark task as deleted
+    void markTaskAsDeletedSuccessfullyTest() {
+        String id = firstIdByStatus(TaskStatus.COMPLETED);
+        client.delete().uri("/task/{id}/status", id).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(id)
+                .jsonPath("$.status").isEqualTo(AppConstants.DELETED_STATUS);
+    }
+
+    @Test // Deleted tasks can't be completed or deleted again
+    void changeStatusOfDeletedTaskTest() {
+        String id = firstIdByStatus(TaskStatus.DELETED);
+        client.put().uri("/task/{id}/status?delay=120", id).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.code").isEqualTo(AppConstants.NOT_FOUND_CODE);
+        client.delete().uri("/task/{id}/status", id).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.code").isEqualTo(AppConstants.NOT_FOUND_CODE);
+    }
+
+    @Test // Mark many tasks as completed and report each ID outcome
+    void markTasksAsCompletedInBatchTest() {
+        List<String> pending = idsByStatus(TaskStatus.PENDING);
+        List<TaskCompletionDTO> batch = Arrays.asList(
+            new TaskCompletionDTO(pending.get(0), 30f),
+            new TaskCompletionDTO(pending.get(1), 45f),
+            new TaskCompletionDTO(firstIdByStatus(TaskStatus.DELETED), 10f),
+            new TaskCompletionDTO(UNKNOWN_ID, 10f),
+            new TaskCompletionDTO(pending.get(2), null),
+            null
+        );
+        client.put().uri("/task/batch/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(6)
+                .jsonPath("$[0].task.status").isEqualTo(AppConstants.COMPLETED_STATUS)
+                .jsonPath("$[0].task.delay").isEqualTo(30.0)
+                .jsonPath("$[0].task.finalDate").exists()
+                .jsonPath("$[1].task.delay").isEqualTo(45.0)
+                .jsonPath("$[2].code").isEqualTo(AppConstants.NOT_FOUND_CODE)
+                .jsonPath("$[3].code").isEqualTo(AppConstants.NOT_FOUND_CODE)
+                .jsonPath("$[4].code").isEqualTo(AppConstants.INVALID_DELAY_CODE)
+                .jsonPath("$[5].index").isEqualTo(5)
+                .jsonPath("$[5].code").isEqualTo(AppConstants.INVALID_DELAY_CODE);
+
+        assertThat(idsByStatus(TaskStatus.PENDING)).hasSize(1);
+    }
+
+    @Test // Mark many tasks as deleted and report each ID outcome
+    void markTasksAsDeletedInBatchTest() {
+        List<String> completed = idsByStatus(TaskStatus.COMPLETED);
+        List<String> ids = List.of(completed.get(0), completed.get(1), UNKNOWN_ID);
+        client.method(org.springframework.http.HttpMethod.DELETE).uri("/task/batch/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ids)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].task.id").isEqualTo(ids.get(0))
+                .jsonPath("$[0].task.status").isEqualTo(AppConstants.DELETED_STATUS)
+                .jsonPath("$[1].task.status").isEqualTo(AppConstants.DELETED_STATUS)
+                .jsonPath("$[2].code").isEqualTo(AppConstants.NOT_FOUND_CODE);
+
+        assertThat(idsByStatus(TaskStatus.COMPLETED)).hasSize(2);
+    }
+
+    @Test // Unchanged list and task respond 304, list tag changes when a task changes
+    void conditionalRequestsWithETagTest() {
+        String listTag = client.get().uri("/task").exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .returnResult(String.class).getResponseHeaders().getETag();
+        client.get().uri("/task").header(HttpHeaders.IF_NONE_MATCH, listTag).exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        String id = firstIdByStatus(TaskStatus.PENDING);
+        String taskTag = client.get().uri("/task/{id}", id).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(id)
+                .returnResult().getResponseHeaders().getETag();
+        client.get().uri("/task/{id}", id).header(HttpHeaders.IF_NONE_MATCH, taskTag).exchange()
+                .expectStatus().isNotModified();
+
+        client.put().uri("/task/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TaskDTO("Nueva descripción", 10))
+                .exchange()
+                .expectStatus().isOk();
+        String newListTag = client.get().uri("/task").header(HttpHeaders.IF_NONE_MATCH, listTag).exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        assertThat(newListTag).isNotEqualTo(listTag);
+    }
+
+    @Test // Update with If-Match is rejected if task was modified after it was read
+    void updateTaskWithStaleVersionTest() {
+        String id = firstIdByStatus(TaskStatus.PENDING);
+        String taskTag = client.get().uri("/task/{id}", id).exchange()
+                .returnResult(String.class).getResponseHeaders().getETag();
+
+        String newTag = client.put().uri("/task/{id}", id)
+                .header(HttpHeaders.IF_MATCH, taskTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TaskDTO("Primera edición", 10))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        assertThat(newTag).isNotEqualTo(taskTag);
+
+        client.put().uri("/task/{id}", id)
+                .header(HttpHeaders.IF_MATCH, taskTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TaskDTO("Edición perdida", 10))
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectBody().jsonPath("$.code").isEqualTo(AppConstants.VERSION_MISMATCH_CODE);
+
+        client.get().uri("/task/{id}", id).exchange()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, newTag)
+                .expectBody().jsonPath("$.desc").isEqualTo("Primera edición");
+    }
+
+    private List<TaskDetailsDTO> getList(String uri) throws Exception {
+        String json = client.get().uri(uri).exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        return JsonUtil.fromJson(json);
+    }
+
+    private List<TaskDetailsDTO> fetchAllPages(String orderBy, String order, int limit) throws Exception {
+        List<TaskDetailsDTO> tasks = new ArrayList<>();
+        String cursor = null;
+        do {
+            String uri = "/task?orderBy=" + orderBy + "&order=" + order + "&limit=" + limit
+                + (cursor != null ? "&cursor=" + cursor : "");
+            EntityExchangeResult<String> response = client.get().uri(uri).exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class).returnResult();
+            List<TaskDetailsDTO> page = JsonUtil.fromJson(response.getResponseBody());
+            assertThat(page.size()).isLessThanOrEqualTo(limit);
+            tasks.addAll(page);
+            cursor = response.getResponseHeaders().getFirst(AppConstants.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        return tasks;
+    }
+
+    private String firstIdByStatus(TaskStatus status) {
+        return idsByStatus(status).get(0);
+    }
+
+    private List<String> idsByStatus(TaskStatus status) { // Sorted by ID
+        return repository.findAllByStatus(status, "status", Direction.ASC)
+            .map(Task::getId)
+            .sort(TaskIds.ORDER)
+            .map(UUID::toString)
+            .collect(Collectors.toList())
+            .block();
+    }
+
+}
@@ -19,4 +19,8 @@ class JsonUtil {
     static List<TaskDetailsDTO> fromJson(String json) throws IOException { // Convert JSON to List DTO
         return mapper.readValue(json, new TypeReference<List<TaskDetailsDTO>>(){});
     }
+
+    static <T> T fromJson(String json, Class<T> type) throws IOException { // Convert JSON to DTO
+        return mapper.readValue(json, type);
+    }
 }
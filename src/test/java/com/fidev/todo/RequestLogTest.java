@@ -0,0 +1,106 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletResponse;
+
+import com.fidev.todo.logging.RequestLogFilter;
+import com.fidev.todo.views.TaskDTO;
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+@SpringBootTest(properties = "todo.logging.requests.sample-rate=1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestLogTest {
+    @Autowired
+    private MockMvc mvc;
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RequestLogFilter.LOGGER);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    public void attach() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void detach() {
+        logger.detachAppender(appender);
+    }
+
+    @Test // Each request writes one line with its task, errors are warnings with their code
+    void oneLinePerRequestTest() throws Exception {
+        String body = mvc.perform(post("/task")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO("Comprar pan", 10))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(body, "$.id");
+        mvc.perform(get("/task/{id}", "f72094de-3228-4e55-9018-5280a6c341d3"))
+            .andExpect(status().isNotFound());
+
+        assertThat(lines()).hasSize(2);
+        assertThat(lines().get(0))
+            .startsWith("method=POST path=/task status=201 duration_ms=")
+            .contains("task_id=" + id + " code=- sql_count=");
+        assertThat(appender.list.get(0).getLevel()).isEqualTo(Level.INFO);
+        assertThat(lines().get(1))
+            .startsWith("method=GET path=/task/f72094de-3228-4e55-9018-5280a6c341d3 status=404")
+            .contains("task_id=f72094de-3228-4e55-9018-5280a6c341d3");
+        assertThat(appender.list.get(1).getLevel()).isEqualTo(Level.WARN);
+    }
+
+    @Test // Successes are sampled, errors and slow requests are always written
+    void successesAreSampledTest() throws Throwable {
+        RequestLogFilter sampled = new RequestLogFilter(true, 0, Duration.ofHours(1));
+
+        sampled.doFilter(new MockHttpServletRequest("GET", "/task"), new MockHttpServletResponse(),
+            (request, response) -> { });
+        assertThat(lines()).isEmpty();
+
+        sampled.doFilter(new MockHttpServletRequest("PUT", "/task/1"), new MockHttpServletResponse(),
+            (request, response) -> ((HttpServletResponse) response).setStatus(409));
+        assertThatThrownBy(() -> sampled.doFilter(new MockHttpServletRequest("GET", "/task/2"),
+            new MockHttpServletResponse(), (request, response) -> {
+                throw new IllegalStateException("Fallo");
+            })).isInstanceOf(IllegalStateException.class);
+        new RequestLogFilter(true, 0, Duration.ZERO).doFilter(new MockHttpServletRequest("GET", "/task/stats"),
+            new MockHttpServletResponse(), (request, response) -> { });
+
+        assertThat(lines()).hasSize(3);
+        assertThat(lines().get(0)).contains("path=/task/1 status=409");
+        assertThat(lines().get(1)).contains("path=/task/2 status=500");
+        assertThat(lines().get(2)).contains("path=/task/stats status=200");
+    }
+
+    private List<String> lines() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+    }
+}
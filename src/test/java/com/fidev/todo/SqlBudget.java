@@ -0,0 +1,52 @@
+package com.fidev.todo;
+
+import java.util.Map;
+
+import com.fidev.todo.sql.SqlProfile;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Statement budgets of MockMvc requests, read from the SQL profile of the request.
+ * Writes are only sent on flush: measure them outside a test transaction.
+ */
+class SqlBudget {
+
+    static ResultMatcher atMost(int statements) { // Fail when request runs more statements
+        return result -> {
+            SqlProfile profile = profile(result);
+            if (profile.getStatements() > statements) {
+                throw new AssertionError("Request ran " + profile.getStatements() + " statements, budget is "
+                    + statements + describe(profile.getExecutions()));
+            }
+        };
+    }
+
+    static ResultMatcher noRepeats() { // Fail when the same SQL runs twice, e.g. once per row (N+1)
+        return repeatsAtMost(1);
+    }
+
+    static ResultMatcher repeatsAtMost(int times) { // Fail when the same SQL runs more times
+        return result -> {
+            Map<String, Integer> repeated = profile(result).getRepeated(times);
+            if (!repeated.isEmpty()) {
+                throw new AssertionError("Request repeated statements" + describe(repeated));
+            }
+        };
+    }
+
+    private static SqlProfile profile(MvcResult result) {
+        SqlProfile profile = (SqlProfile) result.getRequest().getAttribute(SqlProfile.ATTRIBUTE);
+        if (profile == null) {
+            throw new AssertionError("Request has no SQL profile, is todo.sql-profiler.enabled set?");
+        }
+        return profile;
+    }
+
+    private static String describe(Map<String, Integer> executions) {
+        StringBuilder description = new StringBuilder(":");
+        executions.forEach((sql, count) -> description.append("\n  ").append(count).append("x ").append(sql));
+        return description.toString();
+    }
+}
@@ -0,0 +1,158 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import com.fidev.todo.archive.TaskArchiver;
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskArchive;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.repositories.TaskArchiveRepository;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.sharding.ShardRouter;
+import com.fidev.todo.stats.TaskStatsCounter;
+import com.fidev.todo.util.AppConstants;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@Transactional
+@SpringBootTest(properties = { "todo.archive.batch-size=2", "todo.archive.max-rows-per-second=0" })
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("test")
+class TaskArchiverTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TaskArchiver archiver;
+
+    @Autowired
+    private TaskRepository repository;
+
+    @Autowired
+    private TaskArchiveRepository archiveRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskStatsCounter stats;
+
+    @Autowired
+    private ShardRouter shards;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private List<UUID> oldDeleted;
+    private UUID newDeleted;
+    private UUID oldPending;
+
+    @BeforeEach
+    public void setup() {
+        List<Task> tasks = new ArrayList<>();
+        for (String desc : new String[] { "A", "B", "C" }) {
+            tasks.add(new Task(desc, 10, null, 0, TaskStatus.DELETED));
+        }
+        tasks.add(new Task("D", 10, null, 0, TaskStatus.DELETED));
+        tasks.add(new Task("E", 10, null, 0, TaskStatus.PENDING));
+        repository.saveAllAndFlush(tasks);
+
+        oldDeleted = Arrays.asList(tasks.get(0).getId(), tasks.get(1).getId(), tasks.get(2).getId());
+        newDeleted = tasks.get(3).getId();
+        oldPending = tasks.get(4).getId();
+
+        Date longAgo = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(40)); // Past 30 days minimum age
+        entityManager.createQuery("UPDATE Task t SET t.updatedAt = :updatedAt WHERE t.id IN :ids")
+            .setParameter("updatedAt", longAgo)
+            .setParameter("ids", Arrays.asList(oldDeleted.get(0), oldDeleted.get(1), oldDeleted.get(2), oldPending))
+            .executeUpdate();
+    }
+
+    @Test // Only deleted tasks older than minimum age are moved, in batches
+    void archiveOldDeletedTasksTest() throws Exception {
+        double archived = registry.get(TaskArchiver.ARCHIVED_COUNTER).counter().count();
+        double batches = registry.get(TaskArchiver.BATCHES_COUNTER).counter().count();
+
+        assertThat(archiver.archive()).isEqualTo(3);
+
+        for (UUID id : oldDeleted) {
+            assertThat(repository.findById(id)).isEmpty();
+            TaskArchive archive = archiveRepository.findById(id).orElseThrow();
+            assertThat(archive.getStatus()).isEqualTo(TaskStatus.DELETED);
+            assertThat(archive.getArchivedAt()).isNotNull();
+        }
+        assertThat(repository.findById(newDeleted)).isPresent();
+        assertThat(repository.findById(oldPending)).isPresent();
+        mvc.perform(get("/task/{id}", oldDeleted.get(0)))
+            .andExpect(status().isNotFound());
+
+        assertThat(registry.get(TaskArchiver.ARCHIVED_COUNTER).counter().count()).isEqualTo(archived + 3);
+        assertThat(registry.get(TaskArchiver.BATCHES_COUNTER).counter().count()).isEqualTo(batches + 2);
+        assertThat(registry.get(TaskArchiver.PENDING_GAUGE).gauge().value()).isZero();
+        assertThat(registry.get(TaskArchiver.LAG_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test // Restored task is deleted again and not archived before minimum age
+    void restoreArchivedTaskTest() throws Exception {
+        archiver.archive();
+        UUID id = oldDeleted.get(0);
+
+        mvc.perform(post("/task/{id}/restore", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(id.toString()))
+            .andExpect(jsonPath("$.status").value(AppConstants.DELETED_STATUS));
+        assertThat(archiveRepository.findById(id)).isEmpty();
+        mvc.perform(get("/task/{id}", id))
+            .andExpect(status().isOk());
+
+        mvc.perform(post("/task/{id}/restore", id))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.code").value(AppConstants.NOT_FOUND_CODE));
+        assertThat(archiver.archive()).isZero();
+    }
+
+    @Test // A run stops at its row cap and reports what is left and how late it is
+    void runCapLeavesBacklogTest() {
+        MeterRegistry meters = new SimpleMeterRegistry();
+        TaskArchiver capped = new TaskArchiver(repository, archiveRepository, transactionTemplate, stats, shards, meters,
+            true, Duration.ofDays(30), 2, 0, 2);
+
+        assertThat(capped.archive()).isEqualTo(2);
+        assertThat(meters.get(TaskArchiver.PENDING_GAUGE).gauge().value()).isEqualTo(1);
+        assertThat(meters.get(TaskArchiver.LAG_GAUGE).gauge().value())
+            .isGreaterThanOrEqualTo(TimeUnit.DAYS.toSeconds(10) - 60);
+
+        assertThat(capped.archive()).isEqualTo(1);
+        assertThat(meters.get(TaskArchiver.PENDING_GAUGE).gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,191 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fidev.todo.config.SerializationConfig;
+import com.fidev.todo.mappers.TaskMapper;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.stats.TaskStatsCounter;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskDetailsDTO;
+import com.fidev.todo.views.proto.TaskProto;
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Not transactional, compression is only applied by the server, so it runs on a random port
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskContentNegotiationTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TaskRepository repository;
+
+    @Autowired
+    private TaskStatsCounter stats;
+
+    @Autowired
+    private TaskMapper mapper;
+
+    @LocalServerPort
+    private int port;
+
+    private final List<String> created = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() {
+        repository.deleteAllById(created.stream().map(UUID::fromString).collect(Collectors.toList()));
+        created.clear();
+        stats.reconcile();
+    }
+
+    @Test // JSON stays the default, with completion date as text
+    void jsonIsDefaultTest() throws Exception {
+        String id = saveCompletedTask("Tarea en JSON");
+
+        mvc.perform(get("/task/{id}", id).accept(MediaType.ALL))
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+            .andExpect(jsonPath("$.finalDate").isString());
+    }
+
+    @Test // CBOR and Smile carry the same fields, completion date as epoch milliseconds
+    void jacksonBinaryFormatsTest() throws Exception {
+        String id = saveCompletedTask("Tarea binaria");
+        long finalTime = repository.findById(UUID.fromString(id)).get().getFinDate().getTime();
+
+        byte[] cbor = mvc.perform(get("/task").accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+            .andReturn().getResponse().getContentAsByteArray();
+        JsonNode task = new ObjectMapper(new CBORFactory()).readTree(cbor).get(0);
+        assertThat(task.get("id").asText()).isEqualTo(id);
+        assertThat(task.get("desc").asText()).isEqualTo("Tarea binaria");
+        assertThat(task.get("finalDate").isIntegralNumber()).isTrue();
+        assertThat(task.get("finalDate").asLong()).isEqualTo(finalTime);
+        assertThat(task.has("finalTime")).isFalse();
+
+        byte[] smile = mvc.perform(get("/task/{id}", id).accept("application/x-jackson-smile"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(smile).get("finalDate").asLong()).isEqualTo(finalTime);
+    }
+
+    @Test // Protobuf messages of task.proto, date is absent until task is completed
+    void protobufTest() throws Exception {
+        String completed = saveCompletedTask("Tarea completada");
+        String pending = saveTask("Tarea pendiente");
+
+        byte[] body = mvc.perform(get("/task").param("orderBy", "desc").param("order", "asc")
+                .accept(AppConstants.PROTOBUF_MEDIA_TYPE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(AppConstants.PROTOBUF_MEDIA_TYPE))
+            .andReturn().getResponse().getContentAsByteArray();
+        List<TaskProto.TaskDetails> tasks = TaskProto.TaskDetailsList.parseFrom(body).getTasksList();
+        assertThat(tasks).extracting(TaskProto.TaskDetails::getId).containsExactly(completed, pending);
+        assertThat(tasks.get(0).hasFinalDate()).isTrue();
+        assertThat(tasks.get(0).getStatus()).isEqualTo(AppConstants.COMPLETED_STATUS);
+        assertThat(tasks.get(1).hasFinalDate()).isFalse();
+
+        body = mvc.perform(get("/task/{id}", pending).accept(AppConstants.PROTOBUF_MEDIA_TYPE))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray();
+        assertThat(TaskProto.TaskDetails.parseFrom(body).getDesc()).isEqualTo("Tarea pendiente");
+
+        mvc.perform(get("/task/stats").accept(AppConstants.PROTOBUF_MEDIA_TYPE)) // Not a task.proto message
+            .andExpect(status().isNotAcceptable());
+    }
+
+    @Test // Large lists are gzipped, small payloads are not
+    void largeResponsesAreCompressedTest() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            saveTask("Tarea para comprimir número " + i);
+        }
+        HttpClient client = HttpClient.newHttpClient();
+
+        HttpResponse<byte[]> list = client.send(request("/task"), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(list.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        byte[] json = new GZIPInputStream(new ByteArrayInputStream(list.body())).readAllBytes();
+        assertThat(JsonPath.<List<String>>read(new String(json), "$[*].id")).containsAll(created);
+        assertThat(list.body().length).isLessThan(json.length);
+
+        HttpResponse<byte[]> task = client.send(request("/task/" + created.get(0)), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(task.statusCode()).isEqualTo(200);
+        assertThat(task.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+    }
+
+    @Test // Epoch milliseconds are an option of JSON payloads
+    void jsonEpochDatesOptionTest() throws Exception {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new SerializationConfig(mapper, true).epochDatesCustomizer().customize(builder);
+        TaskDetailsDTO task = new TaskDetailsDTO("id", "Tarea", 10, "Sat Oct 17 10:00:00 UTC 2026", 1792216800000L, 0,
+            AppConstants.COMPLETED_STATUS, 1);
+
+        JsonNode json = builder.build().valueToTree(task);
+        assertThat(json.get("finalDate").asLong()).isEqualTo(1792216800000L);
+        assertThat(json.has("finalTime")).isFalse();
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api-v1" + path))
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .build();
+    }
+
+    private String saveCompletedTask(String desc) throws Exception {
+        String id = saveTask(desc);
+        mvc.perform(put("/task/{id}/status", id).param("delay", "5"))
+            .andExpect(status().isOk());
+        return id;
+    }
+
+    private String saveTask(String desc) throws Exception {
+        String body = mvc.perform(post("/task")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO(desc, 10))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(body, "$.id");
+        created.add(id);
+        return id;
+    }
+}
@@ -4,11 +4,18 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.extern.slf4j.Slf4j;
@@ -16,24 +23,37 @@ import lombok.extern.slf4j.Slf4j;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 
+import com.jayway.jsonpath.JsonPath;
+import com.fidev.todo.events.TaskChangedEvent;
+import com.fidev.todo.events.TaskEventBroadcaster;
+import com.fidev.todo.events.TaskEventType;
 import com.fidev.todo.model.Task;
 import com.fidev.todo.model.TaskStatus;
 import com.fidev.todo.projections.TaskID;
 import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.stats.TaskStatsCounter;
 import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskCompletionDTO;
 import com.fidev.todo.views.TaskDTO;
 import com.fidev.todo.views.TaskDetailsDTO;
 
@@ -50,6 +70,15 @@ class TaskControllerTest {
     @Autowired
     private TaskRepository repository;
 
+    @Autowired
+    private TaskEventBroadcaster broadcaster;
+
+    @Autowired
+    private TaskStatsCounter stats;
+
+    @Value("${todo.events.buffer-size:64}")
+    private int bufferSize;
+
     @BeforeAll
     public void setup() {
         final Date theDate = new Date();
@@ -92,6 +121,62 @@ class TaskControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test // Save valid tasks of batch and report invalid ones by position
+    void saveTaskBatchTest() throws Exception {
+        List<TaskDTO> batch = List.of(
+            new TaskDTO("Lavar los platos", 15),
+            new TaskDTO(" ", 10),
+            new TaskDTO("Sacar la basura", 0),
+            new TaskDTO("Regar las plantas", 5)
+        );
+        mvc.perform(post("/task/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(batch)))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()", is(4)))
+                .andExpect(jsonPath("$[0].task.id").exists())
+                .andExpect(jsonPath("$[0].task.desc", is("Lavar los platos")))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].code", is(AppConstants.INVALID_DESC_CODE)))
+                .andExpect(jsonPath("$[2].code", is(AppConstants.INVALID_DURATION_CODE)))
+                .andExpect(jsonPath("$[3].task.status", is(AppConstants.PENDING_STATUS)));
+
+        assertThat(repository.findAllByStatus(TaskStatus.PENDING, Sort.unsorted(), TaskID.class)).hasSize(5);
+
+        mvc.perform(post("/task/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is(AppConstants.INVALID_BATCH_CODE)));
+
+        mvc.perform(post("/task/batch") // Null item is an invalid task
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"desc\": \"Tender la ropa\", \"duration\": 5}, null]"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].task.desc", is("Tender la ropa")))
+                .andExpect(jsonPath("$[1].code", is(AppConstants.INVALID_DESC_CODE)));
+    }
+
+    @Test // New task IDs are UUIDv7 strings ordered by creation, malformed IDs are not found
+    void taskIdsAreTimeOrderedTest() throws Exception {
+        List<TaskDTO> batch = List.of(new TaskDTO("Primera", 1), new TaskDTO("Segunda", 2), new TaskDTO("Tercera", 3));
+        String response = mvc.perform(post("/task/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(batch)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> ids = JsonPath.read(response, "$[*].task.id");
+        assertThat(ids).hasSize(3).isSorted();
+        assertThat(ids).allSatisfy(id -> assertThat(UUID.fromString(id).version()).isEqualTo(7));
+
+        mvc.perform(get("/task/{id}", ids.get(0))).andExpect(status().isOk());
+        mvc.perform(get("/task/{id}", "no-es-un-id"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code", is(AppConstants.NOT_FOUND_CODE)));
+    }
+
     @Test // Can search tasks without filters, return all tasks by default
     void findTaskListWithoutFiltersTest() throws Exception {
         String json = mvc.perform(get("/task"))
@@ -165,6 +250,81 @@ class TaskControllerTest {
         assertThat(list.get(list.size()-1).getDesc()).isEqualTo("C"); // Last pending task sorted by duration DESC
     }
 
+    @Test // Page through task list sorted by a field with ties, each task appears once in stable order
+    void findTaskPagesWithTiedSortValuesTest() throws Exception {
+        List<TaskDetailsDTO> pages = fetchAllPages("status", "DESC", 2);
+        assertThat(pages).hasSize(7);
+        assertThat(pages.stream().map(TaskDetailsDTO::getId).distinct().count()).isEqualTo(7);
+        assertThat(pages).isSortedAccordingTo(
+            Comparator.comparing(TaskDetailsDTO::getStatus).thenComparing(TaskDetailsDTO::getId).reversed());
+
+        pages = fetchAllPages("delay", "ASC", 3); // Pending tasks have the same delay
+        assertThat(pages).hasSize(7);
+        assertThat(pages).isSortedAccordingTo(
+            Comparator.comparing(TaskDetailsDTO::getDelay).thenComparing(TaskDetailsDTO::getId));
+    }
+
+    @Test // Page through task list sorted by a nullable field
+    void findTaskPagesSortedByDateTest() throws Exception {
+        List<TaskDetailsDTO> pages = fetchAllPages("date", "ASC", 2);
+        assertThat(pages).hasSize(7);
+        assertThat(pages.stream().map(TaskDetailsDTO::getId).distinct().count()).isEqualTo(7);
+        assertThat(pages.subList(0, 3)).allMatch(task -> task.getFinalDate() == null); // Pending tasks first
+        assertThat(pages.subList(0, 3)).isSortedAccordingTo(Comparator.comparing(TaskDetailsDTO::getId));
+        assertThat(pages.get(pages.size()-1).getDesc()).isEqualTo("B");
+
+        pages = fetchAllPages("date", "DESC", 2);
+        assertThat(pages).hasSize(7);
+        assertThat(pages.get(0).getDesc()).isEqualTo("B");
+        assertThat(pages.subList(4, 7)).allMatch(task -> task.getFinalDate() == null); // Pending tasks last
+    }
+
+    @Test // Reject malformed cursor and cursor issued for another sort
+    void findTaskPageWithInvalidCursorTest() throws Exception {
+        mvc.perform(get("/task")
+                .param("limit", "2")
+                .param("cursor", "not-a-cursor"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is(AppConstants.INVALID_CURSOR_CODE)));
+
+        String cursor = mvc.perform(get("/task")
+                .param("orderBy", "desc")
+                .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andReturn().getResponse().getHeader(AppConstants.NEXT_CURSOR_HEADER);
+        mvc.perform(get("/task")
+                .param("orderBy", "duration")
+                .param("limit", "2")
+                .param("cursor", cursor))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is(AppConstants.INVALID_CURSOR_CODE)));
+    }
+
+    @Test // Stream task list as one JSON document per line
+    void streamTaskListTest() throws Exception {
+        String ndjson = mvc.perform(get("/task/stream")
+                .param("orderBy", "desc")
+                .param("order", "ASC"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(AppConstants.NDJSON_MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsString();
+
+        List<TaskDetailsDTO> list = JsonUtil.fromJson("[" + String.join(",", ndjson.trim().split("\n")) + "]");
+        assertThat(list).hasSize(7); // Does not return deleted tasks
+        assertThat(list.get(0).getDesc()).isEqualTo("A");
+        assertThat(list.get(list.size()-1).getDesc()).isEqualTo("G");
+
+        ndjson = mvc.perform(get("/task/stream")
+                .param("status", AppConstants.PENDING_STATUS))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(ndjson.trim().split("\n")).hasSize(3)
+            .allMatch(line -> line.contains(AppConstants.PENDING_STATUS));
+    }
+
     @Test // Try to update task with a invalid delay value
     void updateTaskWithAnInvalidDurationValueTest() throws Exception {
         // Get ID of first pending task
@@ -240,7 +400,7 @@ class TaskControllerTest {
     void markTaskAsCompletedSuccessfullyTest() throws Exception {
         // Get ID of first pending task
         TaskID task = repository.findFirstByStatus(TaskStatus.PENDING, TaskID.class);
-        mvc.perform(put("/task/{id}/status", task.getId())
+        String body = mvc.perform(put("/task/{id}/status", task.getId())
                 .param("delay", "120"))
                 .andDo(print())
                 .andExpect(status().isOk())
@@ -249,7 +409,13 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.duration").exists())
                 .andExpect(jsonPath("$.finalDate").exists())
                 .andExpect(jsonPath("$.delay").value(120))
-                .andExpect(jsonPath("$.status", is(AppConstants.COMPLETED_STATUS)));
+                .andExpect(jsonPath("$.status", is(AppConstants.COMPLETED_STATUS)))
+                .andReturn().getResponse().getContentAsString();
+
+        // Response is built without reading task again, it matches the stored task
+        mvc.perform(get("/task/{id}", task.getId()))
+                .andExpect(jsonPath("$.finalDate", is(JsonPath.<String>read(body, "$.finalDate"))))
+                .andExpect(jsonPath("$.version").value(JsonPath.<Integer>read(body, "$.version")));
     }
 
     @Test // Mark task as deleted by invalid ID
@@ -272,4 +438,277 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.status", is(AppConstants.DELETED_STATUS)));
     }
 
+    @Test // Deleted tasks can't be completed or deleted again
+    void changeStatusOfDeletedTaskTest() throws Exception {
+        TaskID task = repository.findFirstByStatus(TaskStatus.DELETED, TaskID.class);
+        mvc.perform(put("/task/{id}/status", task.getId())
+                .param("delay", "120"))
+                .andDo(print())
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code", is(AppConstants.NOT_FOUND_CODE)));
+        mvc.perform(delete("/task/{id}/status", task.getId()))
+                .andDo(print())
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code", is(AppConstants.NOT_FOUND_CODE)));
+    }
+
+    @Test // Mark many tasks as completed and report each ID outcome
+    void markTasksAsCompletedInBatchTest() throws Exception {
+        List<TaskID> pending = repository.findAllByStatus(TaskStatus.PENDING, Sort.by("id"), TaskID.class);
+        TaskID deleted = repository.findFirstByStatus(TaskStatus.DELETED, TaskID.class);
+        List<TaskCompletionDTO> batch = Arrays.asList(
+            new TaskCompletionDTO(pending.get(0).getId(), 30f),
+            new TaskCompletionDTO(pending.get(1).getId(), 45f),
+            new TaskCompletionDTO(deleted.getId(), 10f),
+            new TaskCompletionDTO("f72094de-3228-4e55-9018-5280a6c341d3", 10f),
+            new TaskCompletionDTO(pending.get(2).getId(), null),
+            null
+        );
+        mvc.perform(put("/task/batch/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(batch)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(6)))
+                .andExpect(jsonPath("$[0].task.status", is(AppConstants.COMPLETED_STATUS)))
+                .andExpect(jsonPath("$[0].task.delay").value(30))
+                .andExpect(jsonPath("$[0].task.finalDate").exists())
+                .andExpect(jsonPath("$[1].task.delay").value(45))
+                .andExpect(jsonPath("$[2].code", is(AppConstants.NOT_FOUND_CODE)))
+                .andExpect(jsonPath("$[3].code", is(AppConstants.NOT_FOUND_CODE)))
+                .andExpect(jsonPath("$[4].code", is(AppConstants.INVALID_DELAY_CODE)))
+                .andExpect(jsonPath("$[5].index", is(5)))
+                .andExpect(jsonPath("$[5].code", is(AppConstants.INVALID_DELAY_CODE)));
+
+        assertThat(repository.findAllByStatus(TaskStatus.PENDING, Sort.unsorted(), TaskID.class)).hasSize(1);
+    }
+
+    @Test // Mark many tasks as deleted and report each ID outcome
+    void markTasksAsDeletedInBatchTest() throws Exception {
+        List<TaskID> completed = repository.findAllByStatus(TaskStatus.COMPLETED, Sort.by("id"), TaskID.class);
+        List<String> ids = List.of(completed.get(0).getId(), completed.get(1).getId(), "f72094de-3228-4e55-9018-5280a6c341d3");
+        mvc.perform(delete("/task/batch/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(ids)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].task.id", is(ids.get(0))))
+                .andExpect(jsonPath("$[0].task.status", is(AppConstants.DELETED_STATUS)))
+                .andExpect(jsonPath("$[1].task.status", is(AppConstants.DELETED_STATUS)))
+                .andExpect(jsonPath("$[2].code", is(AppConstants.NOT_FOUND_CODE)));
+
+        assertThat(repository.findAllByStatus(TaskStatus.COMPLETED, Sort.unsorted(), TaskID.class)).hasSize(2);
+    }
+
+    @Test // Unchanged list and task respond 304, list tag changes when a task changes
+    void conditionalRequestsWithETagTest() throws Exception {
+        String listTag = mvc.perform(get("/task"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(get("/task").header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        TaskID task = repository.findFirstByStatus(TaskStatus.PENDING, TaskID.class);
+        String taskTag = mvc.perform(get("/task/{id}", task.getId()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(task.getId())))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(get("/task/{id}", task.getId()).header(HttpHeaders.IF_NONE_MATCH, taskTag))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(put("/task/{id}", task.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO("Nueva descripción", 10))))
+                .andExpect(status().isOk());
+        mvc.perform(get("/task").header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(listTag)));
+    }
+
+    @Test // Update with If-Match is rejected if task was modified after it was read
+    void updateTaskWithStaleVersionTest() throws Exception {
+        TaskID task = repository.findFirstByStatus(TaskStatus.PENDING, TaskID.class);
+        String taskTag = mvc.perform(get("/task/{id}", task.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String newTag = mvc.perform(put("/task/{id}", task.getId())
+                .header(HttpHeaders.IF_MATCH, taskTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO("Primera edición", 10))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(taskTag)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(put("/task/{id}", task.getId())
+                .header(HttpHeaders.IF_MATCH, taskTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO("Edición perdida", 10))))
+                .andDo(print())
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code", is(AppConstants.VERSION_MISMATCH_CODE)));
+
+        mvc.perform(get("/task/{id}", task.getId()))
+                .andExpect(header().string(HttpHeaders.ETAG, newTag))
+                .andExpect(jsonPath("$.desc", is("Primera edición")));
+    }
+
+    @Test // Subscribers receive committed task changes and can resume after last event received
+    void taskEventsStreamTest() throws Exception {
+        MvcResult subscription = mvc.perform(get("/task/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        TaskDetailsDTO task = new TaskDetailsDTO("id-evento", "Evento", 10, null, null, 0, AppConstants.PENDING_STATUS, 0);
+        broadcaster.onTaskChanged(new TaskChangedEvent(TaskEventType.CREATED, task, null)); // As after commit
+        String stream = awaitContent(subscription, "event:created");
+        assertThat(stream).contains("\"desc\":\"Evento\"");
+
+        String eventId = stream.substring(stream.indexOf("id:") + 3, stream.indexOf("\n", stream.indexOf("id:")));
+        MvcResult resumed = mvc.perform(get("/task/events")
+                .header(AppConstants.LAST_EVENT_ID_HEADER, Long.parseLong(eventId) - 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(awaitContent(resumed, "id:" + eventId)).contains("event:created");
+
+        MvcResult expired = mvc.perform(get("/task/events")
+                .header(AppConstants.LAST_EVENT_ID_HEADER, "no-es-un-id"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(expired, "event:" + TaskEventBroadcaster.RESET_EVENT);
+    }
+
+    @Test // Resume replays more events than a subscriber buffer holds, and stays subscribed
+    void taskEventsResumeBeyondBufferTest() throws Exception {
+        MvcResult subscription = mvc.perform(get("/task/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        broadcaster.onTaskChanged(new TaskChangedEvent(TaskEventType.CREATED,
+                new TaskDetailsDTO("id-reanudar", "Reanudar", 10, null, null, 0, AppConstants.PENDING_STATUS, 0), null));
+        String stream = awaitContent(subscription, "\"desc\":\"Reanudar\"");
+        String eventId = stream.substring(stream.lastIndexOf("id:") + 3, stream.indexOf("\n", stream.lastIndexOf("id:")));
+
+        for (int i = 0; i < bufferSize + 10; i++) {
+            broadcaster.onTaskChanged(new TaskChangedEvent(TaskEventType.UPDATED,
+                    new TaskDetailsDTO("id-reanudar", "Reanudar " + i, 10, null, null, 0, AppConstants.PENDING_STATUS, 0),
+                    null));
+        }
+        MvcResult resumed = mvc.perform(get("/task/events")
+                .header(AppConstants.LAST_EVENT_ID_HEADER, eventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String replayed = awaitContent(resumed, "\"desc\":\"Reanudar " + (bufferSize + 9) + "\"");
+        assertThat(replayed).doesNotContain("event:" + TaskEventBroadcaster.RESET_EVENT);
+
+        broadcaster.onTaskChanged(new TaskChangedEvent(TaskEventType.UPDATED,
+                new TaskDetailsDTO("id-reanudar", "Reanudar en vivo", 10, null, null, 0, AppConstants.PENDING_STATUS, 0),
+                null));
+        awaitContent(resumed, "\"desc\":\"Reanudar en vivo\"");
+    }
+
+    @Test // Statements of each endpoint stay within budget, writes are committed so they are counted
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void statementBudgetTest() throws Exception {
+        String body = mvc.perform(post("/task")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO("Presupuesto", 30))))
+                .andExpect(status().isCreated())
+                .andExpect(SqlBudget.atMost(2))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(body, "$.id");
+        List<String> batch = new ArrayList<>();
+
+        try {
+            mvc.perform(get("/task/{id}", id))
+                    .andExpect(status().isOk())
+                    .andExpect(SqlBudget.atMost(1));
+            mvc.perform(put("/task/{id}", id)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(JsonUtil.toJson(new TaskDTO("Presupuesto cambiado", 45))))
+                    .andExpect(status().isOk())
+                    .andExpect(SqlBudget.atMost(3)); // H2 locks before update, Postgres updates and returns in one
+            mvc.perform(put("/task/{id}/status", id).param("delay", "10"))
+                    .andExpect(status().isOk())
+                    .andExpect(SqlBudget.atMost(4));
+            mvc.perform(get("/task").param("orderBy", "duration"))
+                    .andExpect(status().isOk())
+                    .andExpect(SqlBudget.atMost(2))
+                    .andExpect(SqlBudget.noRepeats());
+            mvc.perform(get("/task").param("orderBy", "duration")) // Tag and list are cached
+                    .andExpect(status().isOk())
+                    .andExpect(SqlBudget.atMost(0));
+            mvc.perform(get("/task").param("orderBy", "duration").param("limit", "3"))
+                    .andExpect(status().isOk())
+                    .andExpect(SqlBudget.atMost(2))
+                    .andExpect(SqlBudget.noRepeats());
+            mvc.perform(get("/task/stats"))
+                    .andExpect(status().isOk())
+                    .andExpect(SqlBudget.atMost(1));
+            mvc.perform(delete("/task/{id}/status", id))
+                    .andExpect(status().isOk())
+                    .andExpect(SqlBudget.atMost(4));
+            mvc.perform(delete("/task/batch/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(JsonUtil.toJson(List.of(id, "f72094de-3228-4e55-9018-5280a6c341d3"))))
+                    .andExpect(status().isOk())
+                    .andExpect(SqlBudget.atMost(1)); // Tasks not found, nothing locked
+
+            for (int i = 0; i < 5; i++) { // Cost of a batch does not grow with its size
+                batch.add(JsonPath.read(mvc.perform(post("/task")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(JsonUtil.toJson(new TaskDTO("Presupuesto " + i, 10 + i))))
+                        .andExpect(status().isCreated())
+                        .andReturn().getResponse().getContentAsString(), "$.id"));
+            }
+            mvc.perform(delete("/task/batch/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(JsonUtil.toJson(batch)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[4].task.status", is(AppConstants.DELETED_STATUS)))
+                    .andExpect(SqlBudget.atMost(5))
+                    .andExpect(SqlBudget.repeatsAtMost(2)); // Stats, one update per status changed
+        } finally {
+            repository.deleteById(UUID.fromString(id));
+            batch.forEach(taskId -> repository.deleteById(UUID.fromString(taskId)));
+            stats.reconcile();
+        }
+    }
+
+    private List<TaskDetailsDTO> fetchAllPages(String orderBy, String order, int limit) throws Exception {
+        List<TaskDetailsDTO> tasks = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/task")
+                    .param("orderBy", orderBy)
+                    .param("order", order)
+                    .param("limit", String.valueOf(limit));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MockHttpServletResponse response = mvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            List<TaskDetailsDTO> page = JsonUtil.fromJson(response.getContentAsString());
+            assertThat(page.size()).isLessThanOrEqualTo(limit);
+            tasks.addAll(page);
+            cursor = response.getHeader(AppConstants.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        return tasks;
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+
+        assertThat(content).contains(expected);
+        return content;
+    }
+
 }
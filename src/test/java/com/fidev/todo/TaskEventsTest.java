@@ -0,0 +1,86 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.fidev.todo.events.TaskChangedEvent;
+import com.fidev.todo.events.TaskEventBroadcaster;
+import com.fidev.todo.events.TaskEventType;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDetailsDTO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "todo.events.sender-threads=1",
+    "todo.events.buffer-size=1024",
+    "todo.events.send-timeout-ms=1000", // Sends to the reading client also take long on a busy test run
+    "todo.events.heartbeat-ms=100"
+})
+@ActiveProfiles("test")
+class TaskEventsTest {
+    @Autowired
+    private TaskEventBroadcaster broadcaster;
+
+    @LocalServerPort
+    private int port;
+
+    @Test // A client that stops reading is evicted and does not stall delivery to other subscribers
+    void stalledSubscriberIsEvictedTest() throws Exception {
+        try (Socket stalled = new Socket()) {
+            stalled.setReceiveBufferSize(1024);
+            stalled.connect(new InetSocketAddress("localhost", port));
+            OutputStream out = stalled.getOutputStream();
+            out.write(("GET /api-v1/task/events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+            out.flush(); // Response is never read
+
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api-v1/task/events"))
+                .GET().build();
+            CompletableFuture<Boolean> received = HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenApplyAsync(response -> {
+                    try (Stream<String> lines = response.body()) {
+                        return lines.anyMatch(line -> line.contains("\"desc\":\"Evento final\""));
+                    }
+                });
+            awaitSubscribers(2);
+
+            String desc = "x".repeat(64 * 1024); // Enough to fill the socket buffers of the stalled client
+            for (int i = 0; i < 200; i++) {
+                broadcaster.onTaskChanged(new TaskChangedEvent(TaskEventType.UPDATED,
+                    new TaskDetailsDTO("id-lento", desc, 10, null, null, 0, AppConstants.PENDING_STATUS, 0), null));
+            }
+            broadcaster.onTaskChanged(new TaskChangedEvent(TaskEventType.UPDATED,
+                new TaskDetailsDTO("id-lento", "Evento final", 10, null, null, 0, AppConstants.PENDING_STATUS, 0), null));
+
+            assertThat(received.get(10, TimeUnit.SECONDS)).isTrue();
+            awaitSubscribers(1);
+        }
+    }
+
+    private void awaitSubscribers(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (broadcaster.getSubscriberCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(broadcaster.getSubscriberCount()).isEqualTo(expected);
+    }
+
+}
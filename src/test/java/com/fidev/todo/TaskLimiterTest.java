@@ -0,0 +1,165 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import com.fidev.todo.limiter.AimdLimit;
+import com.fidev.todo.limiter.TaskServiceLimiter;
+import com.fidev.todo.service.TaskService;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDTO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@Transactional
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("test")
+class TaskLimiterTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TaskServiceLimiter limiter;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private TaskService service;
+
+    @Test // Limit grows while calls are fast and used, and is cut when a call is slow or fails
+    void limitAdjustedByLatencyTest() {
+        long maxLatency = TimeUnit.MILLISECONDS.toNanos(100);
+        AimdLimit limit = new AimdLimit(4, 2, 5, maxLatency, 0.5);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire()).isFalse(); // Limit reached
+        assertThat(limit.getInFlight()).isEqualTo(4);
+
+        limit.release(maxLatency / 2, false);
+        assertThat(limit.getLimit()).isEqualTo(5);
+        limit.release(maxLatency / 2, false);
+        assertThat(limit.getLimit()).isEqualTo(5); // Max limit
+
+        limit.release(maxLatency * 2, false);
+        assertThat(limit.getLimit()).isEqualTo(2);
+        limit.release(maxLatency / 2, true);
+        assertThat(limit.getLimit()).isEqualTo(2); // Min limit
+        assertThat(limit.getInFlight()).isZero();
+
+        limit.tryAcquire();
+        limit.release(maxLatency / 2, false);
+        assertThat(limit.getLimit()).isEqualTo(3);
+        limit.release(0, false); // Not grown when limit is not used
+        assertThat(limit.getLimit()).isEqualTo(3);
+    }
+
+    @Test // Writes over limit fail fast with 503 and Retry-After, reads have their own limit
+    void writeOverLimitIsRejectedTest() throws Exception {
+        AimdLimit writeLimit = limiter.getWriteLimit();
+        double rejections = rejections(AppConstants.WRITE_LIMIT);
+        int taken = saturate(writeLimit);
+        try {
+            mvc.perform(post("/task")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(JsonUtil.toJson(new TaskDTO("Hacer mi tarea", 120))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.code").value(AppConstants.OVERLOADED_CODE))
+                .andExpect(jsonPath("$.message").value(AppConstants.OVERLOADED_MESSAGE));
+
+            mvc.perform(get("/task")).andExpect(status().isOk());
+        } finally {
+            release(writeLimit, taken);
+        }
+
+        assertThat(rejections(AppConstants.WRITE_LIMIT)).isEqualTo(rejections + 1);
+    }
+
+    @Test // Reads over limit are rejected before streaming starts
+    void readOverLimitIsRejectedTest() throws Exception {
+        AimdLimit readLimit = limiter.getReadLimit();
+        int taken = saturate(readLimit);
+        try {
+            mvc.perform(get("/task/{id}", "f72094de-3228-4e55-9018-5280a6c341d3"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.code").value(AppConstants.OVERLOADED_CODE));
+            mvc.perform(get("/task/stream"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        } finally {
+            release(readLimit, taken);
+        }
+
+        mvc.perform(get("/task/stream")).andExpect(status().isOk());
+    }
+
+    @Test // Streams hold a read slot, but their duration does not cut the read limit
+    void streamDurationIsNotSampledTest() throws Throwable {
+        TaskServiceLimiter local = new TaskServiceLimiter(new SimpleMeterRegistry(), true, Duration.ofSeconds(1),
+            2, 0.5, 20, 200, Duration.ZERO, 10, 100, Duration.ofSeconds(1)); // Any read is slow
+        AspectJProxyFactory factory = new AspectJProxyFactory(service);
+        factory.addAspect(local);
+        TaskService limited = factory.getProxy();
+
+        limited.streamTaskList(null, null, null, task -> assertThat(local.getReadLimit().getInFlight()).isOne());
+        assertThat(local.getReadLimit().getInFlight()).isZero();
+        assertThat(local.getReadLimit().getLimit()).isEqualTo(20);
+
+        limited.searchTaskStats();
+        assertThat(local.getReadLimit().getLimit()).isEqualTo(10);
+    }
+
+    @Test // Current limit, calls in flight and rejections are exposed by type
+    void limiterMetersRegisteredTest() {
+        for (String type : new String[] { AppConstants.READ_LIMIT, AppConstants.WRITE_LIMIT }) {
+            AimdLimit limit = type.equals(AppConstants.READ_LIMIT) ? limiter.getReadLimit() : limiter.getWriteLimit();
+            assertThat(registry.get(TaskServiceLimiter.LIMIT_GAUGE).tag("type", type).gauge().value())
+                .isEqualTo(limit.getLimit());
+            assertThat(registry.get(TaskServiceLimiter.IN_FLIGHT_GAUGE).tag("type", type).gauge().value()).isZero();
+            assertThat(registry.get(TaskServiceLimiter.REJECTIONS_COUNTER).tag("type", type).counter()).isNotNull();
+        }
+    }
+
+    private int saturate(AimdLimit limit) { // Take every free slot as if calls were in flight
+        int taken = 0;
+        while (limit.tryAcquire()) {
+            taken++;
+        }
+        return taken;
+    }
+
+    private void release(AimdLimit limit, int taken) {
+        for (int i = 0; i < taken; i++) {
+            limit.release(0, false);
+        }
+    }
+
+    private double rejections(String type) {
+        return registry.get(TaskServiceLimiter.REJECTIONS_COUNTER).tag("type", type).counter().count();
+    }
+}
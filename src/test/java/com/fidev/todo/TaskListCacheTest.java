@@ -0,0 +1,121 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.fidev.todo.cache.TaskListCache;
+import com.fidev.todo.cache.TaskListKey;
+import com.fidev.todo.events.TaskChangedEvent;
+import com.fidev.todo.events.TaskEventType;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.service.TaskService;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskDetailsDTO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskListCacheTest { // Not transactional: cache is only used by committed read-only transactions
+    @Autowired
+    private TaskService service;
+
+    @Autowired
+    private TaskRepository repository;
+
+    @Autowired
+    private TaskListCache cache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @BeforeEach
+    void clearCache() {
+        cache.invalidateAll();
+    }
+
+    @AfterEach
+    void cleanup() {
+        created.forEach(repository::deleteById);
+        cache.invalidateAll();
+    }
+
+    @Test // Second identical query is served from cache
+    void cacheHitOnRepeatedQueryTest() throws Throwable {
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+
+        List<TaskDetailsDTO> first = service.searchTaskList(AppConstants.PENDING_STATUS, "desc", "ASC");
+        List<TaskDetailsDTO> second = service.searchTaskList(AppConstants.PENDING_STATUS, "desc", "asc");
+
+        assertThat(second).isSameAs(first); // Same normalized key
+        assertThat(cache.getMissCount()).isEqualTo(misses + 1);
+        assertThat(cache.getHitCount()).isEqualTo(hits + 1);
+    }
+
+    @Test // Committed changes evict only lists that could contain the task
+    void cacheInvalidatedAfterCommitTest() throws Throwable {
+        List<TaskDetailsDTO> all = service.searchTaskList(null, "desc", "ASC");
+        List<TaskDetailsDTO> completed = service.searchTaskList(AppConstants.COMPLETED_STATUS, "desc", "ASC");
+        List<TaskDetailsDTO> pending = service.searchTaskList(AppConstants.PENDING_STATUS, "desc", "ASC");
+
+        TaskDetailsDTO task = service.saveNewTask(new TaskDTO("Tarea en cache", 10));
+        created.add(UUID.fromString(task.getId()));
+
+        assertThat(service.searchTaskList(AppConstants.COMPLETED_STATUS, "desc", "ASC")).isSameAs(completed);
+        assertThat(service.searchTaskList(null, "desc", "ASC")).hasSize(all.size() + 1);
+        assertThat(service.searchTaskList(AppConstants.PENDING_STATUS, "desc", "ASC")).hasSize(pending.size() + 1);
+
+        service.markTaskByIDAsCompleted(task.getId(), 5f);
+        assertThat(service.searchTaskList(AppConstants.PENDING_STATUS, "desc", "ASC")).hasSize(pending.size());
+        assertThat(service.searchTaskList(AppConstants.COMPLETED_STATUS, "desc", "ASC")).hasSize(completed.size() + 1);
+
+        service.markTaskByIDAsDeleted(task.getId());
+        assertThat(service.searchTaskList(null, "desc", "ASC")).hasSize(all.size());
+        assertThat(service.searchTaskList(AppConstants.COMPLETED_STATUS, "desc", "ASC")).hasSize(completed.size());
+    }
+
+    @Test // Cached list tags change only for lists that could contain the changed task
+    void listTagCachedUntilCommitTest() throws Throwable {
+        String pending = service.searchTaskListTag(AppConstants.PENDING_STATUS);
+        String completed = service.searchTaskListTag(AppConstants.COMPLETED_STATUS);
+
+        TaskDetailsDTO task = service.saveNewTask(new TaskDTO("Etiqueta en cache", 10));
+        created.add(UUID.fromString(task.getId()));
+
+        assertThat(service.searchTaskListTag(AppConstants.COMPLETED_STATUS)).isEqualTo(completed);
+        assertThat(service.searchTaskListTag(AppConstants.PENDING_STATUS)).isNotEqualTo(pending);
+    }
+
+    @Test // A list loaded while a change of its status commits is not served afterwards
+    void listLoadedDuringInvalidationNotServedTest() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TaskListKey key = new TaskListKey(TaskStatus.PENDING, "desc", Direction.ASC);
+        TaskDetailsDTO task = new TaskDetailsDTO("id-carrera", "Carrera", 10, null, null, 0, AppConstants.PENDING_STATUS, 0);
+
+        readOnly.execute(status -> cache.get(key, () -> {
+            cache.onTaskChanged(new TaskChangedEvent(TaskEventType.CREATED, task, null)); // Committed meanwhile
+            return List.of();
+        }));
+
+        List<TaskDetailsDTO> tasks = readOnly.execute(status -> cache.get(key, () -> List.of(task)));
+        assertThat(tasks).containsExactly(task);
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fidev.todo.metrics.TaskServiceMetrics;
+import com.fidev.todo.util.AppConstants;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Transactional
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics // Enable Prometheus registry, disabled by default in tests
+@ActiveProfiles("test")
+class TaskMetricsTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test // Successful calls are timed by endpoint and service method
+    void successfulRequestIsTimedTest() throws Exception {
+        long requests = timerCount("http.server.requests", "/task", AppConstants.NONE_CODE);
+        long calls = serviceCount("searchTaskList", AppConstants.SUCCESS_OUTCOME, AppConstants.NONE_CODE);
+
+        mvc.perform(get("/task")).andExpect(status().isOk());
+
+        assertThat(timerCount("http.server.requests", "/task", AppConstants.NONE_CODE)).isEqualTo(requests + 1);
+        assertThat(serviceCount("searchTaskList", AppConstants.SUCCESS_OUTCOME, AppConstants.NONE_CODE))
+            .isEqualTo(calls + 1);
+    }
+
+    @Test // Failed calls are tagged with TodoException code
+    void failedRequestIsTaggedWithCodeTest() throws Exception {
+        long requests = timerCount("http.server.requests", "/task/{id}", AppConstants.NOT_FOUND_CODE);
+        long calls = serviceCount("searchTaskByID", AppConstants.ERROR_OUTCOME, AppConstants.NOT_FOUND_CODE);
+
+        mvc.perform(get("/task/unknown")).andExpect(status().isNotFound());
+
+        assertThat(timerCount("http.server.requests", "/task/{id}", AppConstants.NOT_FOUND_CODE))
+            .isEqualTo(requests + 1);
+        assertThat(serviceCount("searchTaskByID", AppConstants.ERROR_OUTCOME, AppConstants.NOT_FOUND_CODE))
+            .isEqualTo(calls + 1);
+    }
+
+    @Test // Hibernate statistics, connection pool and cache meters are registered
+    void persistenceMetersRegisteredTest() throws Exception {
+        mvc.perform(get("/task")).andExpect(status().isOk());
+
+        assertThat(registry.get("hibernate.query.executions").functionCounter().count()).isPositive();
+        assertThat(registry.get("hibernate.entities.loads").functionCounter()).isNotNull();
+        assertThat(registry.get("hibernate.flushes").functionCounter()).isNotNull();
+        assertThat(registry.get("hikaricp.connections.active").gauge()).isNotNull();
+        assertThat(registry.get("hikaricp.connections.pending").gauge()).isNotNull();
+        assertThat(registry.get("hikaricp.connections.timeout").counter()).isNotNull();
+        assertThat(registry.get("cache.gets").tag("cache", "taskList").functionCounter()).isNotNull();
+        assertThat(registry.get("todo.events.subscribers").gauge()).isNotNull();
+    }
+
+    @Test // Meters are exported in Prometheus format
+    void prometheusEndpointTest() throws Exception {
+        mvc.perform(get("/task")).andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("todo_service_seconds_bucket")))
+            .andExpect(content().string(containsString("http_server_requests_seconds_count")))
+            .andExpect(content().string(containsString("hikaricp_connections_active")))
+            .andExpect(content().string(containsString("hibernate_query_executions_total")));
+    }
+
+    private long timerCount(String name, String uri, String code) {
+        Timer timer = registry.find(name).tag("uri", uri).tag("code", code).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private long serviceCount(String method, String outcome, String code) {
+        Timer timer = registry.find(TaskServiceMetrics.TIMER_NAME)
+            .tag("method", method).tag("outcome", outcome).tag("code", code).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
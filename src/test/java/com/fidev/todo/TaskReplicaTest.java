@@ -0,0 +1,139 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import com.fidev.todo.exceptions.TodoException;
+import com.fidev.todo.replica.ReplicaRoutingDataSource;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.service.TaskService;
+import com.fidev.todo.stats.TaskStatsCounter;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskDetailsDTO;
+import com.jayway.jsonpath.JsonPath;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Primary and one replica in two embedded databases. There is no replication between them,
+ * tests copy the primary to the replica when they want reads to find its tasks
+ */
+@SpringBootTest(properties = {
+    "todo.replica.enabled=true",
+    "todo.replica.urls=jdbc:h2:mem:replica0;DB_CLOSE_DELAY=-1",
+    "todo.replica.health-check-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskReplicaTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TaskService service;
+
+    @Autowired
+    private ReplicaRoutingDataSource routing;
+
+    @Autowired
+    private TaskRepository repository;
+
+    @Autowired
+    private TaskStatsCounter stats;
+
+    @BeforeEach
+    public void setup() {
+        replicate();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        RequestContextHolder.resetRequestAttributes();
+        repository.deleteAllInBatch();
+        stats.reconcile();
+    }
+
+    @Test // Reads are served by the replica, they see a write once it reaches the replica
+    void readsUseReplicaTest() throws Exception {
+        String id = saveTask("Leer la réplica", 10);
+
+        mvc.perform(get("/task/{id}", id))
+            .andExpect(status().isNotFound());
+        mvc.perform(get("/task").param("limit", "10"))
+            .andExpect(jsonPath("$[?(@.id == '" + id + "')]").isEmpty());
+
+        replicate();
+        mvc.perform(get("/task/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.desc").value("Leer la réplica"));
+        mvc.perform(get("/task").param("limit", "10"))
+            .andExpect(jsonPath("$[?(@.id == '" + id + "')].desc").value("Leer la réplica"));
+    }
+
+    @Test // A request that wrote reads its own writes from primary, next request reads replica again
+    void readAfterWriteUsesPrimaryTest() throws Throwable {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        TaskDetailsDTO saved = service.saveNewTask(new TaskDTO("Escribir y leer", 5));
+        assertThat(service.searchTaskByID(saved.getId()).getDesc()).isEqualTo("Escribir y leer");
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        TodoException missing = catchThrowableOfType(() -> service.searchTaskByID(saved.getId()), TodoException.class);
+        assertThat(missing.getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test // Reads fall back to primary when the replica fails
+    @DirtiesContext
+    void failedReplicaFallsBackToPrimaryTest() throws Exception {
+        String id = saveTask("Sin réplica", 15);
+        ((HikariDataSource) routing.getReplicas().get(0)).close();
+
+        mvc.perform(get("/task/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.desc").value("Sin réplica"));
+        assertThat(routing.getHealthyCount()).isZero();
+
+        routing.checkHealth();
+        assertThat(routing.getHealthyCount()).isZero();
+    }
+
+    /**
+     * Replace replica contents with a copy of the primary
+     */
+    private void replicate() {
+        JdbcTemplate primary = new JdbcTemplate(routing.getPrimary());
+        JdbcTemplate replica = new JdbcTemplate(routing.getReplicas().get(0));
+        List<String> script = primary.queryForList("SCRIPT", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+    }
+
+    private String saveTask(String desc, float duration) throws Exception {
+        String body = mvc.perform(post("/task")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO(desc, duration))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.id");
+    }
+}
@@ -0,0 +1,125 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.search.TrigramTaskSearchIndex;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDTO;
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Not transactional, search index is updated when each request commits
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskSearchTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TaskRepository repository;
+
+    @Autowired
+    private TrigramTaskSearchIndex index;
+
+    private final List<String> created = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        for (String id : created) {
+            mvc.perform(delete("/task/{id}/status", id)); // Removed from index
+        }
+        repository.deleteAllById(created.stream().map(UUID::fromString).collect(Collectors.toList()));
+        created.clear();
+    }
+
+    @Test // Substring match is case insensitive, descriptions starting with text come first
+    void searchRanksPrefixFirstTest() throws Exception {
+        String milk = saveTask("Comprar leche");
+        String almond = saveTask("Leche de almendra");
+        String exact = saveTask("Leche");
+        saveTask("Lechuga");
+        saveTask("Pagar la luz");
+
+        mvc.perform(get("/task/search").param("q", "LECHE"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(3)))
+            .andExpect(jsonPath("$[0].id").value(exact)) // Prefix and most similar
+            .andExpect(jsonPath("$[1].id").value(almond))
+            .andExpect(jsonPath("$[2].id").value(milk));
+
+        mvc.perform(get("/task/search").param("q", "leche").param("limit", "1"))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(exact));
+        mvc.perform(get("/task/search").param("q", "café"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test // Updated descriptions are indexed again and deleted tasks are left out
+    void indexFollowsTaskChangesTest() throws Exception {
+        String id = saveTask("Llamar al banco");
+        String other = saveTask("Llamar al dentista");
+
+        mvc.perform(put("/task/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO("Escribir al banco", 20))))
+            .andExpect(status().isOk());
+        mvc.perform(get("/task/search").param("q", "llamar"))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].id").value(other));
+        mvc.perform(get("/task/search").param("q", "escribir al"))
+            .andExpect(jsonPath("$[0].id").value(id));
+
+        int indexed = index.size();
+        mvc.perform(delete("/task/{id}/status", other))
+            .andExpect(status().isOk());
+        assertThat(index.size()).isEqualTo(indexed - 1);
+        mvc.perform(get("/task/search").param("q", "dentista"))
+            .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test // Text must have at least one trigram
+    void shortQueryIsRejectedTest() throws Exception {
+        mvc.perform(get("/task/search").param("q", " ab "))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.code").value(AppConstants.INVALID_QUERY_CODE))
+            .andExpect(jsonPath("$.message").value(AppConstants.INVALID_QUERY_MESSAGE));
+        mvc.perform(get("/task/search"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private String saveTask(String desc) throws Exception {
+        String body = mvc.perform(post("/task")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO(desc, 30))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(body, "$.id");
+        created.add(id);
+        return id;
+    }
+}
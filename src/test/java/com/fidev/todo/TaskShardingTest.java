@@ -0,0 +1,183 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.sharding.ShardRouter;
+import com.fidev.todo.stats.TaskStatsCounter;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskStatsDTO;
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Tasks spread over three embedded databases, each with its own schema
+ */
+@SpringBootTest(properties = {
+    "todo.sharding.enabled=true",
+    "todo.sharding.urls=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1,"
+        + "jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=none"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskShardingTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ShardRouter shards;
+
+    @Autowired
+    private TaskRepository repository;
+
+    @Autowired
+    private TaskStatsCounter stats;
+
+    @AfterEach
+    public void cleanup() {
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            shards.inShard(shard, repository::deleteAllInBatch);
+        }
+        stats.reconcile();
+    }
+
+    @Test // Each task is stored only in the shard of its ID, single task requests reach it there
+    void taskLivesInItsShardTest() throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            ids.add(saveTask("Tarea " + i, i + 1));
+        }
+
+        for (String id : ids) {
+            UUID taskId = UUID.fromString(id);
+            List<Boolean> present = shards.fanOut(shard -> repository.existsById(taskId));
+            for (int shard = 0; shard < shards.getShardCount(); shard++) {
+                assertThat(present.get(shard)).isEqualTo(shard == shards.shardOf(taskId));
+            }
+        }
+        List<Long> counts = shards.fanOut(shard -> repository.count());
+        assertThat(counts.stream().filter(count -> count > 0)).hasSizeGreaterThan(1);
+
+        String id = ids.get(0);
+        mvc.perform(put("/task/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO("Tarea cambiada", 40))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(1));
+        mvc.perform(put("/task/{id}/status", id).param("delay", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value(AppConstants.COMPLETED_STATUS));
+        mvc.perform(get("/task/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.desc").value("Tarea cambiada"))
+            .andExpect(jsonPath("$.version").value(2));
+        mvc.perform(delete("/task/{id}/status", ids.get(1)))
+            .andExpect(status().isOk());
+        mvc.perform(get("/task/{id}", "f72094de-3228-4e55-9018-5280a6c341d3"))
+            .andExpect(status().isNotFound());
+
+        TaskStatsDTO current = stats.getStats();
+        assertThat(current.getPending()).isEqualTo(10);
+        assertThat(current.getCompleted()).isEqualTo(1);
+        assertThat(current.getDeleted()).isEqualTo(1);
+        assertThat(stats.reconcile()).isZero();
+    }
+
+    @Test // Sorted lists of each shard are merged in requested order, pages follow the same order
+    void listsAreMergedInOrderTest() throws Exception {
+        float[] durations = {30, 5, 90, 45, 5, 60, 15, 75, 45, 10};
+        for (int i = 0; i < durations.length; i++) {
+            saveTask("Tarea " + i, durations[i]);
+        }
+
+        String body = mvc.perform(get("/task").param("orderBy", "duration").param("order", "asc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(durations.length)))
+            .andReturn().getResponse().getContentAsString();
+        List<Double> listed = JsonPath.read(body, "$[*].duration");
+        assertThat(listed).isSortedAccordingTo(Comparator.naturalOrder());
+
+        List<String> all = JsonPath.read(body, "$[*].id");
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/task")
+                .param("orderBy", "duration").param("order", "asc").param("limit", "3");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MockHttpServletResponse response = mvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+            paged.addAll(JsonPath.read(response.getContentAsString(), "$[*].id"));
+            cursor = response.getHeader(AppConstants.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        assertThat(paged).isEqualTo(all);
+
+        body = mvc.perform(get("/task").param("orderBy", "desc").param("order", "desc"))
+            .andReturn().getResponse().getContentAsString();
+        List<String> descriptions = JsonPath.read(body, "$[*].desc");
+        assertThat(descriptions).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test // Batch requests change tasks of every shard and answer in request order
+    void batchSpansShardsTest() throws Exception {
+        List<String> ids = List.of(saveTask("A", 1), saveTask("B", 2), saveTask("C", 3), saveTask("D", 4));
+        String missing = "f72094de-3228-4e55-9018-5280a6c341d3";
+
+        mvc.perform(delete("/task/batch/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(List.of(ids.get(3), missing, ids.get(0), ids.get(2)))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].task.id").value(ids.get(3)))
+            .andExpect(jsonPath("$[1].code").value(AppConstants.NOT_FOUND_CODE))
+            .andExpect(jsonPath("$[2].task.status").value(AppConstants.DELETED_STATUS))
+            .andExpect(jsonPath("$[3].task.id").value(ids.get(2)));
+
+        String body = mvc.perform(get("/task")).andReturn().getResponse().getContentAsString();
+        assertThat(JsonPath.<List<String>>read(body, "$[*].id")).containsExactly(ids.get(1));
+        List<String> saved = JsonPath.read(mvc.perform(post("/task/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(List.of(new TaskDTO("E", 5), new TaskDTO("F", 6), new TaskDTO("G", 7)))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString(), "$[*].task.id");
+        for (String id : saved) {
+            mvc.perform(get("/task/{id}", id))
+                .andExpect(status().isOk());
+        }
+        assertThat(stats.reconcile()).isZero();
+    }
+
+    private String saveTask(String desc, float duration) throws Exception {
+        String body = mvc.perform(post("/task")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO(desc, duration))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(body, "$.id");
+    }
+}
@@ -0,0 +1,53 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fidev.todo.controllers.TaskController;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Context of the fast-startup profile on embedded H2
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "fast-startup"})
+class TaskStartupTest {
+    private static final String INDEX_QUERY =
+        "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'IDX_TASK_STATUS_DELAY'";
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private SqlDataSourceScriptDatabaseInitializer initializer;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test // Scripts run again only when their checksum is not saved
+    void currentSchemaIsSkippedTest() {
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM task_schema", Integer.class)).isPositive();
+
+        jdbc.execute("DROP INDEX idx_task_status_delay");
+        initializer.initializeDatabase();
+        assertThat(jdbc.queryForObject(INDEX_QUERY, Integer.class)).isZero();
+
+        jdbc.update("DELETE FROM task_schema");
+        initializer.initializeDatabase();
+        assertThat(jdbc.queryForObject(INDEX_QUERY, Integer.class)).isPositive();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM task_schema", Integer.class)).isOne();
+    }
+
+    @Test // Beans are created at startup, the first request does not pay for them
+    void beansAreEagerTest() {
+        String[] controllers = context.getBeanNamesForType(TaskController.class, false, false);
+        assertThat(controllers).hasSize(1);
+        assertThat(context.getBeanFactory().containsSingleton(controllers[0])).isTrue();
+    }
+}
@@ -0,0 +1,170 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.projections.TaskStatusTotals;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.stats.TaskStatsCounter;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.views.TaskStatsDTO;
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Not transactional, stats are written when each request commits
+ */
+@SpringBootTest(properties = "todo.stats.slots=4")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("test")
+class TaskStatsTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TaskStatsCounter stats;
+
+    @Autowired
+    private TaskRepository repository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final List<String> created = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        stats.reconcile(); // Start from tasks left by other test classes
+    }
+
+    @AfterEach
+    public void cleanup() {
+        repository.deleteAllById(created.stream().map(UUID::fromString).collect(Collectors.toList()));
+        created.clear();
+        stats.reconcile();
+    }
+
+    @Test // Each write changes counters in its own transaction, matching totals of task table
+    void statsFollowTaskChangesTest() throws Exception {
+        TaskStatsDTO before = readStats();
+        String first = saveTask("Escribir informe", 30);
+        String second = saveTask("Revisar informe", 90);
+
+        TaskStatsDTO saved = readStats();
+        assertThat(saved.getPending()).isEqualTo(before.getPending() + 2);
+        assertThat(saved.getTotalDuration()).isCloseTo(before.getTotalDuration() + 120, within(0.01));
+
+        mvc.perform(put("/task/{id}", first)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO("Escribir informe final", 45))))
+            .andExpect(status().isOk());
+        mvc.perform(put("/task/{id}/status", first).param("delay", "50"))
+            .andExpect(status().isOk());
+        mvc.perform(put("/task/{id}/status", first).param("delay", "40")) // Completed again, delay replaced
+            .andExpect(status().isOk());
+        mvc.perform(delete("/task/{id}/status", second))
+            .andExpect(status().isOk());
+        mvc.perform(put("/task/{id}/status", "f72094de-3228-4e55-9018-5280a6c341d3").param("delay", "10"))
+            .andExpect(status().isNotFound());
+
+        TaskStatsDTO changed = readStats();
+        assertThat(changed.getPending()).isEqualTo(before.getPending());
+        assertThat(changed.getCompleted()).isEqualTo(before.getCompleted() + 1);
+        assertThat(changed.getDeleted()).isEqualTo(before.getDeleted() + 1);
+        assertThat(changed.getTotalDuration()).isCloseTo(before.getTotalDuration() + 45, within(0.01));
+        assertMatchesTaskTable(changed);
+        assertThat(stats.reconcile()).isZero();
+    }
+
+    @Test // Batch transitions are counted from the values each task had before
+    void batchChangesKeepStatsExactTest() throws Exception {
+        List<String> ids = List.of(saveTask("A", 10), saveTask("B", 20), saveTask("C", 30));
+
+        mvc.perform(put("/task/batch/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"id\":\"" + ids.get(0) + "\",\"delay\":5},{\"id\":\"" + ids.get(1) + "\",\"delay\":7}]"))
+            .andExpect(status().isOk());
+        mvc.perform(delete("/task/batch/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(List.of(ids.get(1), ids.get(2), ids.get(2)))))
+            .andExpect(status().isOk());
+
+        assertMatchesTaskTable(readStats());
+        assertThat(stats.reconcile()).isZero();
+    }
+
+    @Test // Writes that bypass TaskService are corrected by reconciliation
+    void reconcileCorrectsDriftTest() throws Exception {
+        double drift = registry.get(TaskStatsCounter.DRIFT_COUNTER).counter().count();
+        TaskStatsDTO before = readStats();
+        Task task = repository.save(new Task("Sin contar", 15));
+        created.add(task.getId().toString());
+
+        assertThat(readStats().getPending()).isEqualTo(before.getPending());
+        assertThat(stats.reconcile()).isEqualTo(1);
+        assertThat(readStats().getPending()).isEqualTo(before.getPending() + 1);
+        assertMatchesTaskTable(readStats());
+        assertThat(registry.get(TaskStatsCounter.DRIFT_COUNTER).counter().count()).isEqualTo(drift + 1);
+    }
+
+    private String saveTask(String desc, float duration) throws Exception {
+        String body = mvc.perform(post("/task")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO(desc, duration))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(body, "$.id");
+        created.add(id);
+        return id;
+    }
+
+    private TaskStatsDTO readStats() throws Exception {
+        String body = mvc.perform(get("/task/stats"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return JsonUtil.fromJson(body, TaskStatsDTO.class);
+    }
+
+    private void assertMatchesTaskTable(TaskStatsDTO current) {
+        Map<TaskStatus, TaskStatusTotals> totals = repository.findTotals().stream()
+            .collect(Collectors.toMap(TaskStatusTotals::getStatus, total -> total));
+        assertThat(current.getPending()).isEqualTo(count(totals.get(TaskStatus.PENDING)));
+        assertThat(current.getCompleted()).isEqualTo(count(totals.get(TaskStatus.COMPLETED)));
+        assertThat(current.getDeleted()).isEqualTo(count(totals.get(TaskStatus.DELETED)));
+
+        TaskStatusTotals completed = totals.get(TaskStatus.COMPLETED);
+        if (completed != null) {
+            assertThat(current.getAverageDelay()).isCloseTo(completed.getDelay() / completed.getCount(), within(0.01));
+        }
+    }
+
+    private static long count(TaskStatusTotals totals) {
+        return totals == null ? 0 : totals.getCount();
+    }
+}
@@ -0,0 +1,242 @@
+package com.fidev.todo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.fidev.todo.mappers.TaskMapper;
+import com.fidev.todo.model.Task;
+import com.fidev.todo.model.TaskStatus;
+import com.fidev.todo.repositories.TaskRepository;
+import com.fidev.todo.sharding.ShardRouter;
+import com.fidev.todo.stats.TaskStatsCounter;
+import com.fidev.todo.util.AppConstants;
+import com.fidev.todo.views.TaskDTO;
+import com.fidev.todo.writebehind.TaskEditBuffer;
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Not transactional, edits are written in their own transactions. Scheduled flush is disabled
+ * with a long interval, so tests decide when pending edits are written
+ */
+@SpringBootTest(properties = {
+    "todo.write-behind.enabled=true",
+    "todo.write-behind.flush-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskWriteBehindTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TaskEditBuffer buffer;
+
+    @Autowired
+    private TaskRepository repository;
+
+    @Autowired
+    private TaskMapper mapper;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private TaskStatsCounter stats;
+
+    @Autowired
+    private ShardRouter shards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<String> created = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() {
+        buffer.flushAll();
+        repository.deleteAllById(created.stream().map(UUID::fromString).collect(Collectors.toList()));
+        created.clear();
+        stats.reconcile();
+    }
+
+    @Test // Edits are acknowledged with merged state, read back before write and written as one update
+    void editsAreCoalescedTest() throws Exception {
+        String id = saveTask("Pintar la cerca", 60);
+        String listTag = mvc.perform(get("/task")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        updateTask(id, "Pintar la cerca de blanco", 90)
+            .andExpect(jsonPath("$.version").value(1));
+        updateTask(id, "Pintar la cerca de verde", 120)
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\"")) // Both edits are one new version
+            .andExpect(jsonPath("$.desc").value("Pintar la cerca de verde"))
+            .andExpect(jsonPath("$.status").value("PENDING"));
+
+        assertThat(repository.findById(UUID.fromString(id)).get().getDescription()).isEqualTo("Pintar la cerca");
+        mvc.perform(get("/task/{id}", id))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.desc").value("Pintar la cerca de verde"))
+            .andExpect(jsonPath("$.duration").value(120));
+        String body = mvc.perform(get("/task"))
+            .andExpect(header().string(HttpHeaders.ETAG, not(listTag)))
+            .andReturn().getResponse().getContentAsString();
+        List<String> descs = JsonPath.read(body, "$[?(@.id == '" + id + "')].desc");
+        assertThat(descs).containsExactly("Pintar la cerca de verde");
+
+        assertThat(buffer.flushAll()).isEqualTo(1);
+        Task written = repository.findById(UUID.fromString(id)).get();
+        assertThat(written.getDescription()).isEqualTo("Pintar la cerca de verde");
+        assertThat(written.getDuration()).isEqualTo(120);
+        assertThat(written.getVersion()).isEqualTo(1);
+        assertThat(buffer.flushAll()).isZero();
+    }
+
+    @Test // Completing a task writes its pending edit first
+    void completeWritesPendingEditTest() throws Exception {
+        String id = saveTask("Lavar el coche", 30);
+        updateTask(id, "Lavar y encerar el coche", 45);
+
+        mvc.perform(put("/task/{id}/status", id).param("delay", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.desc").value("Lavar y encerar el coche"))
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.version").value(2));
+
+        assertThat(buffer.flushAll()).isZero();
+        updateTask(id, "Otra vez", 10)
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.code").value(AppConstants.INVALID_ACTION_CODE));
+    }
+
+    @Test // Conditional update matches the version acknowledged for pending edit
+    void conditionalUpdateUsesAcknowledgedVersionTest() throws Exception {
+        String id = saveTask("Regar plantas", 10);
+        updateTask(id, "Regar plantas del balcón", 15);
+
+        mvc.perform(put("/task/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO("Regar todas las plantas", 20))))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+        mvc.perform(put("/task/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO("Perdida", 20))))
+            .andExpect(status().isPreconditionFailed());
+
+        assertThat(repository.findById(UUID.fromString(id)).get().getDescription()).isEqualTo("Regar todas las plantas");
+    }
+
+    @Test // Edit accepted while another transaction writes the pending edit waits for it, and acknowledges next version
+    void editWaitsForWritingTransactionTest() throws Exception {
+        String id = saveTask("Ordenar estantería", 10);
+        UUID taskId = UUID.fromString(id);
+        updateTask(id, "Ordenar libros", 15);
+
+        CompletableFuture<MockHttpServletResponse> concurrent = new TransactionTemplate(transactionManager)
+            .execute(status -> {
+                buffer.flush(List.of(taskId)); // As a conditional update, which then changes task again
+                repository.updateDetailsByIdAndStatusNotAndVersion(taskId, "Ordenar libros y discos", 20,
+                    TaskStatus.COMPLETED, 1L);
+                CompletableFuture<MockHttpServletResponse> edit = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return updateTask(id, "Ordenar discos", 25).andReturn().getResponse();
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                });
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                assertThat(edit).isNotDone();
+                return edit;
+            });
+
+        MockHttpServletResponse response = concurrent.get(5, TimeUnit.SECONDS);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"3\"");
+        mvc.perform(get("/task/{id}", id))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+            .andExpect(jsonPath("$.desc").value("Ordenar discos"));
+
+        assertThat(buffer.flushAll()).isEqualTo(1);
+        assertThat(repository.findById(taskId).get().getVersion()).isEqualTo(3);
+    }
+
+    @Test // Invalid edits are rejected before being accepted
+    void invalidEditIsRejectedTest() throws Exception {
+        String id = saveTask("Sacar la basura", 5);
+
+        updateTask(id, " ", 5)
+            .andExpect(status().isBadRequest());
+        updateTask("f72094de-3228-4e55-9018-5280a6c341d3", "Sin tarea", 5)
+            .andExpect(status().isNotFound());
+        assertThat(buffer.flushAll()).isZero();
+    }
+
+    @Test // Pending edits are written when buffer is shut down
+    void shutdownWritesPendingEditsTest() throws Throwable {
+        String id = saveTask("Cambiar bombilla", 10);
+        TaskEditBuffer local = new TaskEditBuffer(repository, mapper, publisher, stats, shards, transactionManager,
+            new SimpleMeterRegistry(), true, 3600000, 500);
+        UUID taskId = UUID.fromString(id);
+
+        local.put(taskId, "Cambiar bombilla de la cocina", 15,
+            () -> mapper.mapTaskToDetails(repository.findById(taskId).get()));
+        local.shutdown();
+
+        assertThat(repository.findById(taskId).get().getDescription()).isEqualTo("Cambiar bombilla de la cocina");
+    }
+
+    private String saveTask(String desc, float duration) throws Exception {
+        String body = mvc.perform(post("/task")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(JsonUtil.toJson(new TaskDTO(desc, duration))))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(body, "$.id");
+        created.add(id);
+        return id;
+    }
+
+    private ResultActions updateTask(String id, String desc, float duration)
+        throws Exception {
+        return mvc.perform(put("/task/{id}", id)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(JsonUtil.toJson(new TaskDTO(desc, duration))));
+    }
+}